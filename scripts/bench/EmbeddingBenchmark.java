@@ -0,0 +1,105 @@
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.embedding.onnx.allminilml6v2.AllMiniLmL6V2EmbeddingModel;
+import dev.langchain4j.model.openai.OpenAiEmbeddingModel;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Embeds the query set with each provider and reports single-query latency and concurrent
+ * and batched throughput. Run through scripts/bench/embedding-benchmark.sh.
+ */
+public class EmbeddingBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        List<String> queries = Files.readAllLines(Path.of(args[0])).stream().filter(line -> !line.isBlank()).toList();
+        int iterations = Integer.parseInt(env("ITERATIONS", "5"));
+        int concurrency = Integer.parseInt(env("CONCURRENCY", "8"));
+        List<String> providers = args.length > 1 ? Arrays.asList(args).subList(1, args.length) : List.of("local", "openai");
+
+        System.out.printf("%-8s %8s %8s %8s %12s %12s%n", "provider", "p50 ms", "p95 ms", "max ms", "conc q/s", "batch q/s");
+        for (String provider : providers) {
+            EmbeddingModel model = model(provider);
+            for (String query : queries) {
+                model.embed(query);
+            }
+
+            long[] latencies = new long[queries.size() * iterations];
+            int n = 0;
+            for (int i = 0; i < iterations; i++) {
+                for (String query : queries) {
+                    long start = System.nanoTime();
+                    model.embed(query);
+                    latencies[n++] = System.nanoTime() - start;
+                }
+            }
+            Arrays.sort(latencies);
+
+            double concurrent = concurrentThroughput(model, queries, iterations, concurrency);
+            double batched = batchedThroughput(model, queries, iterations);
+            System.out.printf("%-8s %8.1f %8.1f %8.1f %12.1f %12.1f%n", provider,
+                millis(latencies[latencies.length / 2]),
+                millis(latencies[(int) (latencies.length * 0.95)]),
+                millis(latencies[latencies.length - 1]),
+                concurrent, batched);
+        }
+    }
+
+    private static EmbeddingModel model(String provider) {
+        return switch (provider) {
+            case "local" -> new AllMiniLmL6V2EmbeddingModel();
+            case "openai" -> OpenAiEmbeddingModel.builder()
+                .baseUrl(env("OPENAI_BASE_URL", "https://api.openai.com/v1"))
+                .apiKey(System.getenv("OPENAI_API_KEY"))
+                .modelName(env("OPENAI_EMBEDDING_MODEL", "text-embedding-3-small"))
+                .build();
+            default -> throw new IllegalArgumentException("Unknown provider: " + provider);
+        };
+    }
+
+    private static double concurrentThroughput(EmbeddingModel model, List<String> queries, int iterations, int concurrency)
+        throws Exception {
+        try (ExecutorService executor = Executors.newFixedThreadPool(concurrency)) {
+            List<Future<?>> futures = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                for (String query : queries) {
+                    futures.add(executor.submit(() -> model.embed(query)));
+                }
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return futures.size() / seconds(System.nanoTime() - start);
+        }
+    }
+
+    private static double batchedThroughput(EmbeddingModel model, List<String> queries, int iterations) {
+        List<TextSegment> segments = queries.stream().map(TextSegment::from).toList();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            model.embedAll(segments);
+        }
+        return (double) segments.size() * iterations / seconds(System.nanoTime() - start);
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / 1_000_000_000.0;
+    }
+}
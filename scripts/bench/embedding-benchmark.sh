@@ -0,0 +1,15 @@
+#!/usr/bin/env bash
+# Compares the in-process all-MiniLM-L6-v2 model with the remote OpenAI embedding model on
+# the search query set in scripts/bench/queries.txt: single-query latency (p50/p95/max),
+# throughput with CONCURRENCY parallel requests, and throughput of batched embedAll calls.
+#
+# usage: scripts/bench/embedding-benchmark.sh [local] [openai]   (defaults to both)
+# The openai provider uses OPENAI_API_KEY and OPENAI_BASE_URL like the application.
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/../.." && pwd)"
+CLASSPATH_FILE="$ROOT/target/bench-classpath.txt"
+
+"$ROOT/mvnw" -q -f "$ROOT/pom.xml" dependency:build-classpath -Dmdep.outputFile="$CLASSPATH_FILE"
+java -cp "$(cat "$CLASSPATH_FILE")" "$ROOT/scripts/bench/EmbeddingBenchmark.java" \
+  "$ROOT/scripts/bench/queries.txt" "$@"
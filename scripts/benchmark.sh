@@ -0,0 +1,80 @@
+#!/usr/bin/env bash
+# Compares JVM, native and native+PGO builds: startup time, time to first served request,
+# time to readiness, RSS and throughput (measured once warmup is done). Builds are expected
+# to exist already:
+#   jvm        target/swiss-travel-advisor-0.1.jar     (./mvnw package)
+#   native     target/swiss-travel-advisor             (./mvnw package -Dpackaging=native-image)
+#   native-pgo target/swiss-travel-advisor-pgo         (scripts/pgo/build.sh)
+#
+# usage: scripts/benchmark.sh [mode...]   (defaults to all three modes)
+# Uses the same stand-in environment variables as scripts/pgo/train.sh. Wishlist throughput
+# needs `hey` on the PATH; chat throughput uses scripts/workload.sh.
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+BASE_URL="${BASE_URL:-http://localhost:8080}"
+CHAT_ITERATIONS="${CHAT_ITERATIONS:-5}"
+# Chat messages per workload.sh iteration; its one wishlist GET per iteration is not counted.
+CHATS_PER_ITERATION=7
+WISHLIST_REQUESTS="${WISHLIST_REQUESTS:-2000}"
+WISHLIST_CONCURRENCY="${WISHLIST_CONCURRENCY:-16}"
+MODES=("$@")
+if ((${#MODES[@]} == 0)); then
+  MODES=(jvm native native-pgo)
+fi
+
+command_for() {
+  case "$1" in
+    jvm) echo "java -jar $ROOT/target/swiss-travel-advisor-0.1.jar" ;;
+    native) echo "$ROOT/target/swiss-travel-advisor" ;;
+    native-pgo) echo "$ROOT/target/swiss-travel-advisor-pgo" ;;
+    *) echo "unknown mode: $1" >&2; exit 1 ;;
+  esac
+}
+
+now_ms() {
+  date +%s%3N
+}
+
+rss_mb() {
+  awk -v key="$2:" '$1 == key { printf "%.0f", $2 / 1024 }' "/proc/$1/status"
+}
+
+RESULTS=()
+for mode in "${MODES[@]}"; do
+  log="$(mktemp)"
+  started=$(now_ms)
+  $(command_for "$mode") > "$log" 2>&1 &
+  pid=$!
+
+  READY_PATH=/api/wishlist "$ROOT/scripts/wait-ready.sh" "$pid"
+  first_request_ms=$(( $(now_ms) - started ))
+  "$ROOT/scripts/wait-ready.sh" "$pid"
+  ready_ms=$(( $(now_ms) - started ))
+  startup_ms=$(grep -oE 'Startup completed in [0-9]+ms' "$log" | grep -oE '[0-9]+' || echo "n/a")
+  rss_idle=$(rss_mb "$pid" VmRSS)
+
+  chat_started=$(now_ms)
+  "$ROOT/scripts/workload.sh" "$CHAT_ITERATIONS"
+  chat_elapsed_ms=$(( $(now_ms) - chat_started ))
+  chat_requests=$(( CHAT_ITERATIONS * CHATS_PER_ITERATION ))
+  chat_rps=$(awk -v n="$chat_requests" -v ms="$chat_elapsed_ms" 'BEGIN { printf "%.1f", n * 1000 / ms }')
+
+  wishlist_rps="n/a"
+  if command -v hey > /dev/null; then
+    wishlist_rps=$(hey -n "$WISHLIST_REQUESTS" -c "$WISHLIST_CONCURRENCY" "$BASE_URL/api/wishlist" \
+      | awk '/Requests\/sec/ { printf "%.0f", $2 }')
+  fi
+  rss_peak=$(rss_mb "$pid" VmHWM)
+
+  kill -TERM "$pid"
+  wait "$pid" || true
+  rm -f "$log"
+
+  RESULTS+=("$(printf '%-11s %12s %16s %10s %10s %10s %12s %14s' \
+    "$mode" "$startup_ms" "$first_request_ms" "$ready_ms" "$rss_idle" "$rss_peak" "$chat_rps" "$wishlist_rps")")
+done
+
+printf '%-11s %12s %16s %10s %10s %10s %12s %14s\n' \
+  mode "startup ms" "first request ms" "ready ms" "RSS MB" "peak MB" "chat req/s" "wishlist req/s"
+printf '%s\n' "${RESULTS[@]}"
@@ -0,0 +1,22 @@
+#!/usr/bin/env bash
+# Starts the app on a CRaC-enabled JDK, warms it with scripts/workload.sh and takes a
+# checkpoint into target/crac. Uses the same stand-in environment as scripts/pgo/train.sh.
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/../.." && pwd)"
+CHECKPOINT_DIR="${CHECKPOINT_DIR:-$ROOT/target/crac}"
+WARMUP_ITERATIONS="${WARMUP_ITERATIONS:-20}"
+JAR="${JAR:-$ROOT/target/swiss-travel-advisor-0.1.jar}"
+
+rm -rf "$CHECKPOINT_DIR"
+mkdir -p "$CHECKPOINT_DIR"
+
+java -XX:CRaCCheckpointTo="$CHECKPOINT_DIR" -jar "$JAR" &
+PID=$!
+
+"$ROOT/scripts/wait-ready.sh" "$PID"
+"$ROOT/scripts/workload.sh" "$WARMUP_ITERATIONS"
+
+jcmd "$PID" JDK.checkpoint
+wait "$PID" || true
+echo "Checkpoint written to $CHECKPOINT_DIR"
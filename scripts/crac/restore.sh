@@ -0,0 +1,25 @@
+#!/usr/bin/env bash
+# Restores the warmed checkpoint and reports the time until the first answer from
+# GET /api/wishlist, which needs the HTTP server and the database but no model call, so
+# provider latency does not count as restore time.
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/../.." && pwd)"
+BASE_URL="${BASE_URL:-http://localhost:8080}"
+CHECKPOINT_DIR="${CHECKPOINT_DIR:-$ROOT/target/crac}"
+
+started=$(date +%s%3N)
+java -XX:CRaCRestoreFrom="$CHECKPOINT_DIR" &
+PID=$!
+trap 'kill "$PID" 2>/dev/null || true' EXIT
+
+until curl -sf -o /dev/null "$BASE_URL/api/wishlist"; do
+  kill -0 "$PID" 2>/dev/null || { echo "restore failed" >&2; exit 1; }
+  sleep 0.005
+done
+echo "First /api/wishlist served $(( $(date +%s%3N) - started )) ms after restore"
+
+if [[ "${KEEP_RUNNING:-false}" == "true" ]]; then
+  trap - EXIT
+  wait "$PID"
+fi
@@ -0,0 +1,172 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Ramps concurrent chat sessions against a running instance and reports, per stage and endpoint,
+ * throughput, average requests in flight, latency percentiles, shed requests (429/503) and
+ * other errors. In flight is total response time over the stage length (Little's law), i.e.
+ * how many requests of that endpoint the server was holding at once on average. Percentiles
+ * cover successful responses only, so fast rejections under overload do not lower them.
+ *
+ * Each session is its own conversation and loops over the workload messages, then reads the
+ * wishlist. Conversation IDs start with RUN_ID (a fresh value per run by default), so a run
+ * never continues conversations stored by an earlier one. Configured through BASE_URL
+ * (http://localhost:8080), STAGES (1,2,4,8,16 sessions) and STAGE_SECONDS (30). Run through
+ * scripts/loadtest/run.sh.
+ */
+public class LoadDriver {
+    private static final List<String> MESSAGES = List.of(
+        "recommend best ski resorts",
+        "find quiet lakeside hotels near Lucerne under 250 CHF",
+        "show scenic activities within 40 km of Interlaken",
+        "show best activities in Zurich",
+        "spa hotels in Zermatt",
+        "add Interlaken to my wishlist",
+        "retrieve my wishlist"
+    );
+    private static final String CHAT = "POST /api/chat";
+    private static final String WISHLIST = "GET /api/wishlist";
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = env("BASE_URL", "http://localhost:8080");
+        int[] stages = Arrays.stream(env("STAGES", "1,2,4,8,16").split(",")).mapToInt(stage -> Integer.parseInt(stage.trim())).toArray();
+        Duration stageDuration = Duration.ofSeconds(Long.parseLong(env("STAGE_SECONDS", "30")));
+        String runId = env("RUN_ID", Long.toString(System.currentTimeMillis(), 36));
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+        System.out.printf("%8s %-18s %8s %8s %9s %8s %8s %8s %8s %7s %7s%n",
+            "sessions", "endpoint", "requests", "req/s", "in flight", "p50 ms", "p95 ms", "p99 ms", "max ms", "shed %", "error %");
+        for (int sessions : stages) {
+            Map<String, Stats> stats = runStage(client, baseUrl, runId, sessions, stageDuration);
+            double seconds = stageDuration.toMillis() / 1000.0;
+            stats.forEach((endpoint, endpointStats) -> endpointStats.print(sessions, endpoint, seconds));
+        }
+    }
+
+    private static Map<String, Stats> runStage(HttpClient client, String baseUrl, String runId, int sessions, Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Future<Map<String, Stats>>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int session = 0; session < sessions; session++) {
+                String conversationId = "load-" + runId + "-" + sessions + "-" + session;
+                futures.add(executor.submit(() -> runSession(client, baseUrl, conversationId, deadline)));
+            }
+        }
+        Map<String, Stats> merged = new TreeMap<>();
+        for (Future<Map<String, Stats>> future : futures) {
+            future.get().forEach((endpoint, stats) -> merged.computeIfAbsent(endpoint, ignored -> new Stats()).add(stats));
+        }
+        return merged;
+    }
+
+    private static Map<String, Stats> runSession(HttpClient client, String baseUrl, String conversationId, long deadline) {
+        Map<String, Stats> stats = new TreeMap<>();
+        while (System.nanoTime() < deadline) {
+            for (String message : MESSAGES) {
+                if (System.nanoTime() >= deadline) {
+                    break;
+                }
+                HttpRequest chat = HttpRequest.newBuilder(URI.create(baseUrl + "/api/chat"))
+                    .timeout(Duration.ofSeconds(120))
+                    .header("Content-Type", "application/json")
+                    .header("X-Conversation-Id", conversationId)
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"message\": \"" + message + "\"}"))
+                    .build();
+                send(client, chat, stats.computeIfAbsent(CHAT, ignored -> new Stats()));
+            }
+            HttpRequest wishlist = HttpRequest.newBuilder(URI.create(baseUrl + "/api/wishlist"))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+            send(client, wishlist, stats.computeIfAbsent(WISHLIST, ignored -> new Stats()));
+        }
+        return stats;
+    }
+
+    private static void send(HttpClient client, HttpRequest request, Stats stats) {
+        long start = System.nanoTime();
+        int status;
+        try {
+            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            status = -1;
+        }
+        stats.record(status, System.nanoTime() - start);
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+
+    private static final class Stats {
+        /** Latencies of successful responses only. */
+        private long[] latencies = new long[64];
+        private int succeeded;
+        private int count;
+        private long totalNanos;
+        private int shed;
+        private int errors;
+
+        void record(int status, long latencyNanos) {
+            count++;
+            totalNanos += latencyNanos;
+            if (status == 429 || status == 503) {
+                shed++;
+            } else if (status < 200 || status >= 300) {
+                errors++;
+            } else {
+                addLatency(latencyNanos);
+            }
+        }
+
+        void add(Stats other) {
+            for (int i = 0; i < other.succeeded; i++) {
+                addLatency(other.latencies[i]);
+            }
+            count += other.count;
+            totalNanos += other.totalNanos;
+            shed += other.shed;
+            errors += other.errors;
+        }
+
+        private void addLatency(long latencyNanos) {
+            if (succeeded == latencies.length) {
+                latencies = Arrays.copyOf(latencies, succeeded * 2);
+            }
+            latencies[succeeded++] = latencyNanos;
+        }
+
+        void print(int sessions, String endpoint, double seconds) {
+            long[] sorted = Arrays.copyOf(latencies, succeeded);
+            Arrays.sort(sorted);
+            System.out.printf("%8d %-18s %8d %8.1f %9.1f %8.0f %8.0f %8.0f %8.0f %7.1f %7.1f%n",
+                sessions, endpoint, count, count / seconds, totalNanos / 1e9 / seconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99),
+                succeeded == 0 ? 0 : sorted[succeeded - 1] / 1e6,
+                percent(shed), percent(errors));
+        }
+
+        private double percentile(long[] sorted, double quantile) {
+            return sorted.length == 0 ? 0 : sorted[Math.min(sorted.length - 1, (int) (sorted.length * quantile))] / 1e6;
+        }
+
+        private double percent(int part) {
+            return count == 0 ? 0 : 100.0 * part / count;
+        }
+    }
+}
@@ -0,0 +1,248 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * OpenAI-compatible stand-in for load tests, PGO training and benchmarks.
+ *
+ * <ul>
+ *   <li>{@code POST /v1/chat/completions}: answers a user message with the tool call of the first
+ *   matching rule in the script file, and answers a tool result with a text reply that quotes it.</li>
+ *   <li>{@code POST /v1/embeddings}: deterministic bag-of-words vectors, so texts that share words
+ *   are closer than texts that do not.</li>
+ * </ul>
+ *
+ * Configured through MOCK_PORT (8089), MOCK_CHAT_LATENCY_MS (800), MOCK_EMBEDDING_LATENCY_MS (60),
+ * MOCK_LATENCY_JITTER (0.2), MOCK_DIMENSIONS (1536) and MOCK_SCRIPT (scripts/loadtest/mock-script.json).
+ */
+public class MockOpenAiServer {
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final Pattern TOKEN = Pattern.compile("[\\p{L}\\p{N}]+");
+    private static final AtomicLong IDS = new AtomicLong();
+
+    private final List<Rule> rules;
+    private final long chatLatencyMs;
+    private final long embeddingLatencyMs;
+    private final double jitter;
+    private final int dimensions;
+
+    MockOpenAiServer(List<Rule> rules, long chatLatencyMs, long embeddingLatencyMs, double jitter, int dimensions) {
+        this.rules = rules;
+        this.chatLatencyMs = chatLatencyMs;
+        this.embeddingLatencyMs = embeddingLatencyMs;
+        this.jitter = jitter;
+        this.dimensions = dimensions;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = Integer.parseInt(env("MOCK_PORT", "8089"));
+        MockOpenAiServer mock = new MockOpenAiServer(
+            loadRules(Path.of(env("MOCK_SCRIPT", "scripts/loadtest/mock-script.json"))),
+            Long.parseLong(env("MOCK_CHAT_LATENCY_MS", "800")),
+            Long.parseLong(env("MOCK_EMBEDDING_LATENCY_MS", "60")),
+            Double.parseDouble(env("MOCK_LATENCY_JITTER", "0.2")),
+            Integer.parseInt(env("MOCK_DIMENSIONS", "1536"))
+        );
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 1024);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/v1/chat/completions", exchange -> mock.handle(exchange, mock::chatCompletion, mock.chatLatencyMs));
+        server.createContext("/v1/embeddings", exchange -> mock.handle(exchange, mock::embeddings, mock.embeddingLatencyMs));
+        server.start();
+        System.out.println("Mock OpenAI server listening on http://localhost:" + port + "/v1 with " + mock.rules.size() + " rules");
+    }
+
+    private void handle(HttpExchange exchange, Handler handler, long latencyMs) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            JsonNode request = JSON.readTree(exchange.getRequestBody());
+            ObjectNode response = handler.handle(request);
+            sleep(latencyMs);
+            byte[] body = JSON.writeValueAsBytes(response);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            exchange.sendResponseHeaders(500, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private ObjectNode chatCompletion(JsonNode request) {
+        JsonNode messages = request.path("messages");
+        JsonNode last = messages.get(messages.size() - 1);
+        ObjectNode message = JSON.createObjectNode().put("role", "assistant");
+        String finishReason = "stop";
+
+        if ("tool".equals(last.path("role").asText())) {
+            message.put("content", "Here is what I found:\n" + last.path("content").asText());
+        } else {
+            String userMessage = last.path("content").isArray()
+                ? last.path("content").path(0).path("text").asText()
+                : last.path("content").asText();
+            Rule rule = rules.stream().filter(candidate -> candidate.pattern().matcher(userMessage).find()).findFirst().orElse(null);
+            if (rule == null) {
+                message.put("content", "I can help with Swiss destinations, hotels, activities and your wishlist.");
+            } else {
+                message.putNull("content");
+                ObjectNode call = message.putArray("tool_calls").addObject();
+                call.put("id", "call_" + IDS.incrementAndGet()).put("type", "function");
+                call.putObject("function")
+                    .put("name", rule.tool())
+                    .put("arguments", arguments(rule, userMessage));
+                finishReason = "tool_calls";
+            }
+        }
+
+        ObjectNode response = JSON.createObjectNode()
+            .put("id", "chatcmpl-mock-" + IDS.incrementAndGet())
+            .put("object", "chat.completion")
+            .put("created", System.currentTimeMillis() / 1000)
+            .put("model", request.path("model").asText("mock"));
+        ObjectNode choice = response.putArray("choices").addObject();
+        choice.put("index", 0).set("message", message);
+        choice.put("finish_reason", finishReason);
+        int promptTokens = messages.toString().length() / 4;
+        int completionTokens = message.toString().length() / 4;
+        response.putObject("usage")
+            .put("prompt_tokens", promptTokens)
+            .put("completion_tokens", completionTokens)
+            .put("total_tokens", promptTokens + completionTokens);
+        return response;
+    }
+
+    private ObjectNode embeddings(JsonNode request) {
+        List<String> inputs = new ArrayList<>();
+        JsonNode input = request.path("input");
+        if (input.isArray()) {
+            input.forEach(text -> inputs.add(text.asText()));
+        } else {
+            inputs.add(input.asText());
+        }
+        int size = request.path("dimensions").asInt(dimensions);
+
+        ObjectNode response = JSON.createObjectNode().put("object", "list").put("model", request.path("model").asText("mock"));
+        ArrayNode data = response.putArray("data");
+        int tokens = 0;
+        for (int i = 0; i < inputs.size(); i++) {
+            ArrayNode vector = data.addObject().put("object", "embedding").put("index", i).putArray("embedding");
+            for (float value : embed(inputs.get(i), size)) {
+                vector.add(value);
+            }
+            tokens += inputs.get(i).length() / 4;
+        }
+        response.putObject("usage").put("prompt_tokens", tokens).put("total_tokens", tokens);
+        return response;
+    }
+
+    /**
+     * Sum of one seeded random vector per word, normalized: the same text always maps to
+     * the same vector and shared words make vectors similar.
+     */
+    static float[] embed(String text, int size) {
+        double[] sum = new double[size];
+        Matcher words = TOKEN.matcher(text.toLowerCase(Locale.ROOT));
+        while (words.find()) {
+            SplittableRandom random = new SplittableRandom(words.group().hashCode());
+            for (int i = 0; i < size; i++) {
+                sum[i] += random.nextGaussian();
+            }
+        }
+        double norm = 0;
+        for (double value : sum) {
+            norm += value * value;
+        }
+        float[] vector = new float[size];
+        if (norm == 0) {
+            vector[0] = 1;
+            return vector;
+        }
+        norm = Math.sqrt(norm);
+        for (int i = 0; i < size; i++) {
+            vector[i] = (float) (sum[i] / norm);
+        }
+        return vector;
+    }
+
+    private String arguments(Rule rule, String userMessage) {
+        Matcher matcher = rule.pattern().matcher(userMessage);
+        matcher.find();
+        ObjectNode arguments = JSON.createObjectNode();
+        rule.arguments().fields().forEachRemaining(field -> {
+            JsonNode value = field.getValue();
+            if (value.isTextual()) {
+                String text = value.asText().replace("$message", userMessage);
+                for (int group = matcher.groupCount(); group >= 1; group--) {
+                    text = text.replace("$" + group, String.valueOf(matcher.group(group)));
+                }
+                arguments.put(field.getKey(), text);
+            } else {
+                arguments.set(field.getKey(), value);
+            }
+        });
+        return arguments.toString();
+    }
+
+    private void sleep(long latencyMs) {
+        if (latencyMs <= 0) {
+            return;
+        }
+        double factor = 1 + jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+        try {
+            Thread.sleep(Math.max(0, Math.round(latencyMs * factor)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static List<Rule> loadRules(Path script) throws IOException {
+        List<Rule> rules = new ArrayList<>();
+        for (JsonNode rule : JSON.readTree(Files.readString(script, StandardCharsets.UTF_8)).path("rules")) {
+            rules.add(new Rule(
+                Pattern.compile(rule.path("match").asText(), Pattern.CASE_INSENSITIVE),
+                rule.path("tool").asText(),
+                rule.path("arguments").isObject() ? rule.path("arguments") : JSON.createObjectNode()
+            ));
+        }
+        return rules;
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        ObjectNode handle(JsonNode request) throws IOException;
+    }
+
+    record Rule(Pattern pattern, String tool, JsonNode arguments) {
+    }
+}
@@ -0,0 +1,24 @@
+#!/usr/bin/env bash
+# Runs the load test twice, with request work on a fixed pool of PLATFORM_THREADS platform
+# threads and then on virtual threads, and prints both reports. Admission capacity is raised
+# to CAPACITY for both runs so that the executor, not admission control, limits concurrency.
+#
+# usage: scripts/loadtest/compare-executors.sh
+# Same prerequisites and driver settings as run.sh; PLATFORM_THREADS (16), CAPACITY (256).
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/../.." && pwd)"
+JAR="$ROOT/target/swiss-travel-advisor-0.1.jar"
+PLATFORM_THREADS="${PLATFORM_THREADS:-16}"
+CAPACITY="${CAPACITY:-256}"
+export STAGES="${STAGES:-8,32,128}"
+
+COMMON="-Dapp.admission.capacity=$CAPACITY -Dapp.admission.chat.queue-limit=$CAPACITY -Dapp.admission.cheap.queue-limit=$CAPACITY"
+PLATFORM="-Dmicronaut.executors.platform.type=fixed -Dmicronaut.executors.platform.number-of-threads=$PLATFORM_THREADS -Dapp.executor.requests=platform"
+VIRTUAL="-Dapp.executor.requests=virtual"
+
+echo "== platform threads (fixed pool of $PLATFORM_THREADS)"
+APP_COMMAND="java $COMMON $PLATFORM -jar $JAR" "$ROOT/scripts/loadtest/run.sh"
+echo
+echo "== virtual threads"
+APP_COMMAND="java $COMMON $VIRTUAL -jar $JAR" "$ROOT/scripts/loadtest/run.sh"
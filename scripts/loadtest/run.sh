@@ -0,0 +1,21 @@
+#!/usr/bin/env bash
+# Offline load test of /api/chat and /api/wishlist: starts the mock OpenAI server and the app,
+# then ramps concurrent sessions with LoadDriver.java and prints per-endpoint results.
+#
+# usage: scripts/loadtest/run.sh
+# Needs a database (ORACLE_JDBC_URL / DB_USERNAME / DB_PASSWORD) and a built app; APP_COMMAND
+# defaults to the JVM jar from ./mvnw package. Driver settings: STAGES, STAGE_SECONDS.
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/../.." && pwd)"
+if [[ -z "${MOCK_OPENAI_RUNNING:-}" ]]; then
+  exec "$ROOT/scripts/loadtest/with-mock-openai.sh" "$0" "$@"
+fi
+
+APP_COMMAND="${APP_COMMAND:-java -jar $ROOT/target/swiss-travel-advisor-0.1.jar}"
+$APP_COMMAND > "$ROOT/target/loadtest-app.log" 2>&1 &
+APP_PID=$!
+trap 'kill "$APP_PID" 2>/dev/null || true' EXIT
+
+"$ROOT/scripts/wait-ready.sh" "$APP_PID"
+java -cp "$(cat "$ROOT/target/loadtest-classpath.txt")" "$ROOT/scripts/loadtest/LoadDriver.java"
@@ -0,0 +1,33 @@
+#!/usr/bin/env bash
+# Starts the mock OpenAI server (MockOpenAiServer.java), points the app's OpenAI base URL at it
+# and runs the given command, e.g. scripts/pgo/build.sh or scripts/benchmark.sh.
+#
+# usage: scripts/loadtest/with-mock-openai.sh <command> [args...]
+# Mock settings: MOCK_PORT, MOCK_CHAT_LATENCY_MS, MOCK_EMBEDDING_LATENCY_MS, MOCK_LATENCY_JITTER,
+# MOCK_DIMENSIONS, MOCK_SCRIPT (see MockOpenAiServer.java).
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/../.." && pwd)"
+CLASSPATH_FILE="$ROOT/target/loadtest-classpath.txt"
+export MOCK_PORT="${MOCK_PORT:-8089}"
+export MOCK_SCRIPT="${MOCK_SCRIPT:-$ROOT/scripts/loadtest/mock-script.json}"
+
+mkdir -p "$ROOT/target"
+"$ROOT/mvnw" -q -f "$ROOT/pom.xml" dependency:build-classpath -Dmdep.outputFile="$CLASSPATH_FILE"
+java -cp "$(cat "$CLASSPATH_FILE")" "$ROOT/scripts/loadtest/MockOpenAiServer.java" > "$ROOT/target/mock-openai.log" 2>&1 &
+MOCK_PID=$!
+trap 'kill "$MOCK_PID" 2>/dev/null || true' EXIT
+
+until curl -s -o /dev/null "http://localhost:$MOCK_PORT/v1/embeddings"; do
+  if ! kill -0 "$MOCK_PID" 2>/dev/null; then
+    echo "mock OpenAI server exited, see target/mock-openai.log" >&2
+    exit 1
+  fi
+  sleep 0.1
+done
+
+export OPENAI_BASE_URL="http://localhost:$MOCK_PORT/v1"
+export OPENAI_API_KEY="mock"
+export EMBEDDING_PROVIDER="openai"
+export MOCK_OPENAI_RUNNING=1
+"$@"
@@ -0,0 +1,12 @@
+#!/usr/bin/env bash
+# Full PGO workflow (Oracle GraalVM): instrumented build, training run, optimized build.
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/../.." && pwd)"
+cd "$ROOT"
+
+./mvnw -B package -Dpackaging=native-image -Ppgo-instrument -DskipTests
+scripts/pgo/train.sh
+./mvnw -B package -Dpackaging=native-image -Ppgo -DskipTests
+
+echo "Optimized binary: $ROOT/target/swiss-travel-advisor-pgo"
@@ -0,0 +1,30 @@
+#!/usr/bin/env bash
+# Runs the instrumented native binary against local stand-ins, drives the workload
+# and writes the collected profile to pgo/default.iprof.
+#
+# Expects the stand-ins to be configured through the usual environment variables:
+#   ORACLE_JDBC_URL / DB_USERNAME / DB_PASSWORD  -> local Oracle Free container
+#   OPENAI_BASE_URL / OPENAI_API_KEY             -> local OpenAI-compatible server
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/../.." && pwd)"
+BINARY="${BINARY:-$ROOT/target/swiss-travel-advisor-instrumented}"
+ITERATIONS="${ITERATIONS:-20}"
+WORK_DIR="$(mktemp -d)"
+
+cd "$WORK_DIR"
+"$BINARY" > "$WORK_DIR/app.log" 2>&1 &
+PID=$!
+trap 'kill "$PID" 2>/dev/null || true' EXIT
+
+"$ROOT/scripts/wait-ready.sh" "$PID"
+"$ROOT/scripts/workload.sh" "$ITERATIONS"
+
+# The instrumented binary dumps default.iprof into its working directory on a clean exit.
+kill -TERM "$PID"
+wait "$PID" || true
+trap - EXIT
+
+mkdir -p "$ROOT/pgo"
+mv "$WORK_DIR/default.iprof" "$ROOT/pgo/default.iprof"
+echo "Wrote $ROOT/pgo/default.iprof"
@@ -0,0 +1,25 @@
+#!/usr/bin/env bash
+# Waits until /health/readiness reports UP (warmup done), failing if the process exits first.
+# Set READY_PATH to wait for another endpoint instead, e.g. /api/wishlist for the first
+# served request.
+#
+# usage: scripts/wait-ready.sh <pid> [timeout-seconds]
+set -euo pipefail
+
+BASE_URL="${BASE_URL:-http://localhost:8080}"
+PID="$1"
+TIMEOUT="${2:-120}"
+READY_PATH="${READY_PATH:-/health/readiness}"
+DEADLINE=$((SECONDS + TIMEOUT))
+
+until curl -sf -o /dev/null "$BASE_URL$READY_PATH"; do
+  if ! kill -0 "$PID" 2>/dev/null; then
+    echo "process $PID exited before becoming ready" >&2
+    exit 1
+  fi
+  if ((SECONDS >= DEADLINE)); then
+    echo "not ready after ${TIMEOUT}s" >&2
+    exit 1
+  fi
+  sleep 0.01
+done
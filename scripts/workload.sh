@@ -0,0 +1,32 @@
+#!/usr/bin/env bash
+# Drives the chat, tool and search paths of a running instance.
+# Used as the PGO training run and as the throughput workload of scripts/benchmark.sh.
+#
+# usage: scripts/workload.sh [iterations]   (BASE_URL defaults to http://localhost:8080)
+# Conversation IDs start with RUN_ID, new on every run by default, so a run never continues
+# the conversations a previous run (or benchmark mode) left in chat_memory.
+set -euo pipefail
+
+BASE_URL="${BASE_URL:-http://localhost:8080}"
+ITERATIONS="${1:-20}"
+RUN_ID="${RUN_ID:-$(date +%s%N)}"
+
+MESSAGES=(
+  "recommend best ski resorts"
+  "find quiet lakeside hotels near Lucerne under 250 CHF"
+  "show scenic activities within 40 km of Interlaken"
+  "show best activities in Zurich"
+  "spa hotels in Zermatt"
+  "add Interlaken to my wishlist"
+  "retrieve my wishlist"
+)
+
+for ((i = 0; i < ITERATIONS; i++)); do
+  for message in "${MESSAGES[@]}"; do
+    curl -sf -o /dev/null -X POST "$BASE_URL/api/chat" \
+      -H "Content-Type: application/json" \
+      -H "X-Conversation-Id: workload-$RUN_ID-$i" \
+      -d "{\"message\": \"$message\"}" || echo "chat request failed: $message" >&2
+  done
+  curl -sf -o /dev/null "$BASE_URL/api/wishlist" || echo "wishlist request failed" >&2
+done
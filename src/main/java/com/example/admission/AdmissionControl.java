@@ -0,0 +1,288 @@
+package com.example.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.http.HttpStatus;
+import jakarta.inject.Singleton;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounds concurrent work with a priority wait queue. A request is rejected up front when its
+ * queue is full (429) or when the estimated wait plus service time would exceed its deadline
+ * (503), and it gives up with 503 once it can no longer finish in time. Both carry Retry-After.
+ * Chats can never take the capacity reserved for cheap requests.
+ */
+@Singleton
+public class AdmissionControl {
+    private static final double SERVICE_TIME_WEIGHT = 0.2;
+    private static final String QUEUE_FULL = "queue_full";
+    private static final String DEADLINE = "deadline";
+    private static final String TIMEOUT = "timeout";
+    private static final String CONVERSATION_BUSY = "conversation_busy";
+
+    private final int capacity;
+    private final int chatCapacity;
+    private final Map<RequestClass, Limits> limits = new EnumMap<>(RequestClass.class);
+    private final Map<RequestClass, Integer> inFlight = new EnumMap<>(RequestClass.class);
+    private final Map<RequestClass, Integer> queued = new EnumMap<>(RequestClass.class);
+    private final Map<RequestClass, Double> serviceNanos = new EnumMap<>(RequestClass.class);
+    private final TreeSet<Waiter> waiters = new TreeSet<>(
+        Comparator.comparing(Waiter::requestClass).thenComparingLong(Waiter::sequence)
+    );
+    private final ReentrantLock lock = new ReentrantLock();
+    private final MeterRegistry meterRegistry;
+    private long sequence;
+
+    public AdmissionControl(
+        MeterRegistry meterRegistry,
+        @Value("${app.admission.capacity:16}") int capacity,
+        @Value("${app.admission.reserved-for-cheap:4}") int reservedForCheap,
+        @Value("${app.admission.chat.queue-limit:32}") int chatQueueLimit,
+        @Value("${app.admission.chat.deadline:45s}") Duration chatDeadline,
+        @Value("${app.admission.chat.expected-service-time:5s}") Duration chatServiceTime,
+        @Value("${app.admission.cheap.queue-limit:64}") int cheapQueueLimit,
+        @Value("${app.admission.cheap.deadline:2s}") Duration cheapDeadline,
+        @Value("${app.admission.cheap.expected-service-time:50ms}") Duration cheapServiceTime
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.capacity = capacity;
+        this.chatCapacity = Math.max(1, capacity - reservedForCheap);
+        limits.put(RequestClass.CHAT, new Limits(chatQueueLimit, chatDeadline));
+        limits.put(RequestClass.CHEAP, new Limits(cheapQueueLimit, cheapDeadline));
+        serviceNanos.put(RequestClass.CHAT, (double) chatServiceTime.toNanos());
+        serviceNanos.put(RequestClass.CHEAP, (double) cheapServiceTime.toNanos());
+        for (RequestClass requestClass : RequestClass.values()) {
+            inFlight.put(requestClass, 0);
+            queued.put(requestClass, 0);
+            Gauge.builder("travel.admission.queue.size", this, control -> control.count(control.queued, requestClass))
+                .tag("class", requestClass.value())
+                .register(meterRegistry);
+            Gauge.builder("travel.admission.in.flight", this, control -> control.count(control.inFlight, requestClass))
+                .tag("class", requestClass.value())
+                .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Blocks until the request may run and returns the permit to close when it is done.
+     *
+     * @throws AdmissionRejectedException when the request is shed
+     */
+    public Permit acquire(RequestClass requestClass) {
+        long start = System.nanoTime();
+        Limits classLimits = limits.get(requestClass);
+        lock.lock();
+        try {
+            if (!hasWaiterAhead(requestClass) && canRun(requestClass)) {
+                return admit(requestClass, start);
+            }
+            int ahead = queued.get(requestClass);
+            long estimatedWait = estimateWaitNanos(requestClass, ahead);
+            if (ahead >= classLimits.queueLimit()) {
+                throw reject(requestClass, start, HttpStatus.TOO_MANY_REQUESTS, QUEUE_FULL, estimatedWait);
+            }
+            long serviceTime = serviceNanos.get(requestClass).longValue();
+            long waitBudget = classLimits.deadline().toNanos() - serviceTime;
+            if (estimatedWait > waitBudget) {
+                throw reject(requestClass, start, HttpStatus.SERVICE_UNAVAILABLE, DEADLINE, estimatedWait);
+            }
+
+            Waiter waiter = new Waiter(requestClass, sequence++, lock.newCondition());
+            waiters.add(waiter);
+            queued.merge(requestClass, 1, Integer::sum);
+            try {
+                while (!waiter.admitted) {
+                    long remaining = start + waitBudget - System.nanoTime();
+                    if (remaining <= 0) {
+                        throw reject(requestClass, start, HttpStatus.SERVICE_UNAVAILABLE, TIMEOUT,
+                            estimateWaitNanos(requestClass, queued.get(requestClass)));
+                    }
+                    waiter.condition.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (waiter.admitted) {
+                    // dispatch() handed this waiter a slot just before the interrupt: pass it on.
+                    inFlight.merge(requestClass, -1, Integer::sum);
+                    dispatch();
+                }
+                throw reject(requestClass, start, HttpStatus.SERVICE_UNAVAILABLE, TIMEOUT, serviceTime);
+            } finally {
+                if (!waiter.admitted) {
+                    waiters.remove(waiter);
+                    queued.merge(requestClass, -1, Integer::sum);
+                    dispatch();
+                }
+            }
+            return admitted(requestClass, start);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean hasWaiterAhead(RequestClass requestClass) {
+        return !waiters.isEmpty() && waiters.first().requestClass().compareTo(requestClass) <= 0;
+    }
+
+    private boolean canRun(RequestClass requestClass) {
+        int total = inFlight.values().stream().mapToInt(Integer::intValue).sum();
+        if (total >= capacity) {
+            return false;
+        }
+        return requestClass != RequestClass.CHAT || inFlight.get(RequestClass.CHAT) < chatCapacity;
+    }
+
+    private long estimateWaitNanos(RequestClass requestClass, int ahead) {
+        int slots = requestClass == RequestClass.CHAT ? chatCapacity : capacity;
+        return (long) ((ahead / slots + 1) * serviceNanos.get(requestClass));
+    }
+
+    private Permit admit(RequestClass requestClass, long start) {
+        inFlight.merge(requestClass, 1, Integer::sum);
+        return admitted(requestClass, start);
+    }
+
+    private Permit admitted(RequestClass requestClass, long start) {
+        long now = System.nanoTime();
+        queueTimer(requestClass, "admitted").record(now - start, TimeUnit.NANOSECONDS);
+        return new Permit(requestClass, start, now);
+    }
+
+    private void dispatch() {
+        Iterator<Waiter> iterator = waiters.iterator();
+        while (iterator.hasNext()) {
+            Waiter waiter = iterator.next();
+            if (canRun(waiter.requestClass())) {
+                iterator.remove();
+                queued.merge(waiter.requestClass(), -1, Integer::sum);
+                inFlight.merge(waiter.requestClass(), 1, Integer::sum);
+                waiter.admitted = true;
+                waiter.condition.signal();
+            }
+        }
+    }
+
+    private void release(RequestClass requestClass, long serviceTime) {
+        lock.lock();
+        try {
+            inFlight.merge(requestClass, -1, Integer::sum);
+            serviceNanos.compute(requestClass,
+                (ignored, average) -> average + SERVICE_TIME_WEIGHT * (serviceTime - average));
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private AdmissionRejectedException reject(RequestClass requestClass, long start, HttpStatus status, String reason, long retryAfterNanos) {
+        queueTimer(requestClass, "rejected").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        Counter.builder("travel.admission.rejected")
+            .tag("class", requestClass.value())
+            .tag("reason", reason)
+            .register(meterRegistry)
+            .increment();
+        return new AdmissionRejectedException(status, Duration.ofNanos(retryAfterNanos),
+            "Server is busy (" + reason.replace('_', ' ') + "), please retry later.");
+    }
+
+    private Timer queueTimer(RequestClass requestClass, String outcome) {
+        return Timer.builder("travel.admission.queue.time")
+            .tag("class", requestClass.value())
+            .tag("outcome", outcome)
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+    }
+
+    private int count(Map<RequestClass, Integer> counts, RequestClass requestClass) {
+        lock.lock();
+        try {
+            return counts.get(requestClass);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public final class Permit implements AutoCloseable {
+        private final RequestClass requestClass;
+        private final long arrivedAt;
+        private final long admittedAt;
+        private boolean released;
+
+        private Permit(RequestClass requestClass, long arrivedAt, long admittedAt) {
+            this.requestClass = requestClass;
+            this.arrivedAt = arrivedAt;
+            this.admittedAt = admittedAt;
+        }
+
+        /**
+         * Takes {@code lock} (a per-conversation lock, say) while holding this permit, waiting no
+         * longer than the request's deadline allows, so a blocked request cannot keep its slot
+         * indefinitely.
+         *
+         * @throws AdmissionRejectedException with 503 when the lock is not free in time
+         */
+        public void lock(Lock lock) {
+            long remaining = arrivedAt + limits.get(requestClass).deadline().toNanos() - System.nanoTime();
+            try {
+                if (remaining > 0 && lock.tryLock(remaining, TimeUnit.NANOSECONDS)) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            long retryAfter;
+            AdmissionControl.this.lock.lock();
+            try {
+                retryAfter = serviceNanos.get(requestClass).longValue();
+            } finally {
+                AdmissionControl.this.lock.unlock();
+            }
+            throw reject(requestClass, arrivedAt, HttpStatus.SERVICE_UNAVAILABLE, CONVERSATION_BUSY, retryAfter);
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                release(requestClass, System.nanoTime() - admittedAt);
+            }
+        }
+    }
+
+    private record Limits(int queueLimit, Duration deadline) {
+    }
+
+    private static final class Waiter {
+        private final RequestClass requestClass;
+        private final long sequence;
+        private final Condition condition;
+        private boolean admitted;
+
+        private Waiter(RequestClass requestClass, long sequence, Condition condition) {
+            this.requestClass = requestClass;
+            this.sequence = sequence;
+            this.condition = condition;
+        }
+
+        RequestClass requestClass() {
+            return requestClass;
+        }
+
+        long sequence() {
+            return sequence;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.admission;
+
+import io.micronaut.http.HttpStatus;
+
+import java.time.Duration;
+
+public class AdmissionRejectedException extends RuntimeException {
+    private final HttpStatus status;
+    private final Duration retryAfter;
+
+    public AdmissionRejectedException(HttpStatus status, Duration retryAfter, String message) {
+        super(message, null, false, false);
+        this.status = status;
+        this.retryAfter = retryAfter;
+    }
+
+    public HttpStatus status() {
+        return status;
+    }
+
+    public Duration retryAfter() {
+        return retryAfter;
+    }
+}
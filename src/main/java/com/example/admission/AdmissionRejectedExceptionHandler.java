@@ -0,0 +1,25 @@
+package com.example.admission;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.annotation.Produces;
+import io.micronaut.http.server.exceptions.ExceptionHandler;
+import jakarta.inject.Singleton;
+
+@Produces
+@Singleton
+@Requires(classes = {AdmissionRejectedException.class, ExceptionHandler.class})
+public class AdmissionRejectedExceptionHandler implements ExceptionHandler<AdmissionRejectedException, HttpResponse<String>> {
+
+    @Override
+    public HttpResponse<String> handle(HttpRequest request, AdmissionRejectedException exception) {
+        long retryAfterSeconds = Math.max(1, (exception.retryAfter().toMillis() + 999) / 1000);
+        return HttpResponse.<String>status(exception.status())
+            .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+            .contentType(MediaType.TEXT_PLAIN_TYPE)
+            .body(exception.getMessage());
+    }
+}
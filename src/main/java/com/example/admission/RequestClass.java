@@ -0,0 +1,20 @@
+package com.example.admission;
+
+/**
+ * Admission classes, in priority order: cheap requests are admitted before queued chats and
+ * may use capacity that chats cannot.
+ */
+public enum RequestClass {
+    CHEAP("cheap"),
+    CHAT("chat");
+
+    private final String value;
+
+    RequestClass(String value) {
+        this.value = value;
+    }
+
+    public String value() {
+        return value;
+    }
+}
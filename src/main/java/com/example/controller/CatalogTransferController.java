@@ -0,0 +1,71 @@
+package com.example.controller;
+
+import com.example.transfer.CatalogTransfer;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.util.StringUtils;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.annotation.Body;
+import io.micronaut.http.annotation.Controller;
+import io.micronaut.http.annotation.Get;
+import io.micronaut.http.annotation.Post;
+import io.micronaut.http.server.types.files.StreamedFile;
+import io.micronaut.scheduling.TaskExecutors;
+import io.micronaut.scheduling.annotation.ExecuteOn;
+import jakarta.inject.Named;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Catalog export and import for cloning an environment. Off unless
+ * {@code app.catalog.transfer.enabled} is set, since import overwrites catalog rows.
+ */
+@Controller("/api/catalog")
+@ExecuteOn(RequestExecutor.NAME)
+@Requires(property = "app.catalog.transfer.enabled", value = StringUtils.TRUE)
+public class CatalogTransferController {
+    private static final Logger LOG = LoggerFactory.getLogger(CatalogTransferController.class);
+    private static final int PIPE_BUFFER_BYTES = 1 << 20;
+
+    private final CatalogTransfer catalogTransfer;
+    private final ExecutorService executor;
+
+    public CatalogTransferController(CatalogTransfer catalogTransfer, @Named(TaskExecutors.VIRTUAL) ExecutorService executor) {
+        this.catalogTransfer = catalogTransfer;
+        this.executor = executor;
+    }
+
+    /**
+     * Streams the archive while it is being written, so memory use does not grow with the
+     * catalog.
+     */
+    @Get(uri = "/export", produces = MediaType.APPLICATION_OCTET_STREAM)
+    public StreamedFile export() throws IOException {
+        PipedInputStream archive = new PipedInputStream(PIPE_BUFFER_BYTES);
+        PipedOutputStream out = new PipedOutputStream(archive);
+        executor.execute(() -> {
+            try (out) {
+                catalogTransfer.export(out);
+            } catch (IOException e) {
+                LOG.warn("Catalog export aborted: {}", e.getMessage());
+            }
+        });
+        return new StreamedFile(archive, MediaType.APPLICATION_OCTET_STREAM_TYPE).attach("catalog.swcat");
+    }
+
+    /**
+     * Answers 500 with the report when any batch failed, so scripted clones do not pass
+     * a partial import off as complete.
+     */
+    @Post(uri = "/import", consumes = MediaType.APPLICATION_OCTET_STREAM)
+    public HttpResponse<CatalogTransfer.ImportReport> importCatalog(@Body InputStream archive) throws IOException {
+        CatalogTransfer.ImportReport report = catalogTransfer.importFrom(archive);
+        return report.failed() > 0 ? HttpResponse.serverError(report) : HttpResponse.ok(report);
+    }
+}
@@ -1,37 +1,90 @@
 package com.example.controller;
 
+import com.example.admission.AdmissionControl;
+import com.example.admission.RequestClass;
+import com.example.jfr.ChatTurnEvent;
 import com.example.service.SwissTravelAssistant;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.http.HttpResponse;
 import io.micronaut.http.MediaType;
 import io.micronaut.http.annotation.Body;
 import io.micronaut.http.annotation.Controller;
 import io.micronaut.http.annotation.Get;
+import io.micronaut.http.annotation.Header;
 import io.micronaut.http.annotation.Post;
 import io.micronaut.http.annotation.QueryValue;
+import io.micronaut.scheduling.annotation.ExecuteOn;
 import io.micronaut.serde.annotation.Serdeable;
+import io.opentelemetry.api.trace.Span;
+
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Controller("/api")
+@ExecuteOn(RequestExecutor.NAME)
 public class ChatController {
+    static final String CONVERSATION_HEADER = "X-Conversation-Id";
+    private static final int CONVERSATION_LOCK_STRIPES = 64;
+
     private final SwissTravelAssistant assistant;
-    private final Object chatLock = new Object();
+    private final AdmissionControl admissionControl;
+    // Turns of one conversation must not interleave in its memory; different conversations run in parallel.
+    private final ReentrantLock[] conversationLocks = new ReentrantLock[CONVERSATION_LOCK_STRIPES];
 
-    public ChatController(SwissTravelAssistant assistant) {
+    public ChatController(SwissTravelAssistant assistant, AdmissionControl admissionControl) {
         this.assistant = assistant;
+        this.admissionControl = admissionControl;
+        for (int i = 0; i < conversationLocks.length; i++) {
+            conversationLocks[i] = new ReentrantLock();
+        }
     }
 
     @Serdeable
-    public record ChatRequest(String message) {}
+    public record ChatRequest(String message, @Nullable String conversationId) {}
 
     @Post(uri = "/chat", consumes = MediaType.APPLICATION_JSON, produces = MediaType.TEXT_PLAIN)
-    public String chat(@Body ChatRequest req) {
-        synchronized (chatLock) {
-            return assistant.chat(req.message());
-        }
+    public HttpResponse<String> chat(@Body ChatRequest req, @Nullable @Header(CONVERSATION_HEADER) String conversationHeader) {
+        String conversationId = conversationId(req.conversationId() != null ? req.conversationId() : conversationHeader);
+        return answer(conversationId, req.message());
     }
 
     @Get(uri = "/chat", produces = MediaType.TEXT_PLAIN)
-    public String chatGet(@QueryValue("q") String query) {
-        synchronized (chatLock) {
-            return assistant.chat(query);
+    public HttpResponse<String> chatGet(@QueryValue("q") String query, @Nullable @Header(CONVERSATION_HEADER) String conversationHeader) {
+        return answer(conversationId(conversationHeader), query);
+    }
+
+    private HttpResponse<String> answer(String conversationId, String message) {
+        ChatTurnEvent event = new ChatTurnEvent(conversationId, message == null ? 0 : message.length());
+        RuntimeException failure = null;
+        event.begin();
+        try (AdmissionControl.Permit permit = admissionControl.acquire(RequestClass.CHAT)) {
+            ReentrantLock lock = conversationLocks[Math.floorMod(conversationId.hashCode(), conversationLocks.length)];
+            permit.lock(lock);
+            try {
+                event.admitted();
+                String answer = assistant.chat(conversationId, message);
+                event.answered(answer);
+                return reply(conversationId, answer);
+            } finally {
+                lock.unlock();
+            }
+        } catch (RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            event.complete(Span.current(), failure);
         }
     }
+
+    /**
+     * The requested conversation, or a new one: requests without an ID never share history.
+     * The client continues it with the ID returned in {@value #CONVERSATION_HEADER}.
+     */
+    private String conversationId(String requested) {
+        return requested == null || requested.isBlank() ? UUID.randomUUID().toString() : requested.trim();
+    }
+
+    private HttpResponse<String> reply(String conversationId, String answer) {
+        return HttpResponse.ok(answer).header(CONVERSATION_HEADER, conversationId);
+    }
 }
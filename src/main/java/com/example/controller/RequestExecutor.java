@@ -0,0 +1,17 @@
+package com.example.controller;
+
+import io.micronaut.scheduling.TaskExecutors;
+
+/**
+ * The executor controllers run their blocking work on (model calls, JDBC), named by
+ * {@code app.executor.requests}. The default, {@code virtual}, gives every request its own
+ * virtual thread, so a request waiting on OpenAI or the database holds no platform thread and
+ * in-flight requests are bounded by admission control and the connection pool instead.
+ * Any other configured executor can be named to compare, e.g. a fixed platform pool.
+ */
+final class RequestExecutor {
+    static final String NAME = "${app.executor.requests:" + TaskExecutors.VIRTUAL + "}";
+
+    private RequestExecutor() {
+    }
+}
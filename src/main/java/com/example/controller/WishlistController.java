@@ -1,22 +1,65 @@
 package com.example.controller;
 
+import com.example.admission.AdmissionControl;
+import com.example.admission.RequestClass;
+import com.example.model.WishlistChange;
 import com.example.model.WishlistItem;
 import com.example.repository.WishlistRepository;
+import com.example.service.WishlistService;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.annotation.Body;
 import io.micronaut.http.annotation.Controller;
+import io.micronaut.http.annotation.Delete;
 import io.micronaut.http.annotation.Get;
+import io.micronaut.http.annotation.Post;
+import io.micronaut.http.exceptions.HttpStatusException;
+import io.micronaut.scheduling.annotation.ExecuteOn;
+import io.micronaut.serde.annotation.Serdeable;
 
 import java.util.List;
 
 @Controller("/api")
+@ExecuteOn(RequestExecutor.NAME)
 public class WishlistController {
     private final WishlistRepository wishlistRepository;
+    private final WishlistService wishlistService;
+    private final AdmissionControl admissionControl;
 
-    public WishlistController(WishlistRepository wishlistRepository) {
+    public WishlistController(WishlistRepository wishlistRepository, WishlistService wishlistService, AdmissionControl admissionControl) {
         this.wishlistRepository = wishlistRepository;
+        this.wishlistService = wishlistService;
+        this.admissionControl = admissionControl;
     }
 
+    @Serdeable
+    public record WishlistItemsRequest(List<WishlistItem> items) {}
+
     @Get("/wishlist")
     public List<WishlistItem> getWishlist() {
-        return wishlistRepository.findAll();
+        try (AdmissionControl.Permit permit = admissionControl.acquire(RequestClass.CHEAP)) {
+            return wishlistRepository.findAll();
+        }
+    }
+
+    @Post(uri = "/wishlist/items", consumes = MediaType.APPLICATION_JSON)
+    public WishlistChange addItems(@Body WishlistItemsRequest request) {
+        try (AdmissionControl.Permit permit = admissionControl.acquire(RequestClass.CHEAP)) {
+            return wishlistService.add(items(request));
+        }
+    }
+
+    @Delete(uri = "/wishlist/items", consumes = MediaType.APPLICATION_JSON)
+    public WishlistChange removeItems(@Body WishlistItemsRequest request) {
+        try (AdmissionControl.Permit permit = admissionControl.acquire(RequestClass.CHEAP)) {
+            return wishlistService.remove(items(request));
+        }
+    }
+
+    private List<WishlistItem> items(WishlistItemsRequest request) {
+        if (request.items() == null) {
+            throw new HttpStatusException(HttpStatus.BAD_REQUEST, "items is required");
+        }
+        return request.items();
     }
 }
@@ -0,0 +1,24 @@
+package com.example.controller;
+
+import com.example.service.WishlistUpdateException;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.annotation.Produces;
+import io.micronaut.http.server.exceptions.ExceptionHandler;
+import jakarta.inject.Singleton;
+
+@Produces
+@Singleton
+@Requires(classes = {WishlistUpdateException.class, ExceptionHandler.class})
+public class WishlistUpdateExceptionHandler implements ExceptionHandler<WishlistUpdateException, HttpResponse<String>> {
+
+    @Override
+    public HttpResponse<String> handle(HttpRequest request, WishlistUpdateException exception) {
+        return HttpResponse.<String>status(HttpStatus.SERVICE_UNAVAILABLE)
+            .contentType(MediaType.TEXT_PLAIN_TYPE)
+            .body(exception.getMessage() + ", please retry later.");
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.crac;
+
+import com.example.memory.ConversationStore;
+import com.example.service.BackgroundJobs;
+import io.micronaut.crac.OrderedResource;
+import jakarta.inject.Singleton;
+import org.crac.Context;
+import org.crac.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+
+/**
+ * Holds off the scheduled jobs (catalog change polling, conversation write-behind, embedding
+ * refresh, neighbor rebuild, planner statistics) across a checkpoint, then writes pending
+ * conversations so none are lost or baked into the image.
+ */
+@Singleton
+public class BackgroundJobsResource implements OrderedResource {
+    private static final Logger LOG = LoggerFactory.getLogger(BackgroundJobsResource.class);
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final BackgroundJobs backgroundJobs;
+    private final ConversationStore conversationStore;
+
+    public BackgroundJobsResource(BackgroundJobs backgroundJobs, ConversationStore conversationStore) {
+        this.backgroundJobs = backgroundJobs;
+        this.conversationStore = conversationStore;
+    }
+
+    @Override
+    public void beforeCheckpoint(Context<? extends Resource> context) throws InterruptedException {
+        if (!backgroundJobs.pause(DRAIN_TIMEOUT)) {
+            backgroundJobs.resume();
+            throw new IllegalStateException("Background jobs still running after " + DRAIN_TIMEOUT + ", not checkpointing");
+        }
+        conversationStore.flush();
+        LOG.info("Paused background jobs before checkpoint");
+    }
+
+    @Override
+    public void afterRestore(Context<? extends Resource> context) {
+        backgroundJobs.resume();
+        LOG.info("Resumed background jobs after restore");
+    }
+}
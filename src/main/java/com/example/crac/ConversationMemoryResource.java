@@ -0,0 +1,31 @@
+package com.example.crac;
+
+import com.example.memory.ConversationMemoryProvider;
+import io.micronaut.crac.OrderedResource;
+import jakarta.inject.Singleton;
+import org.crac.Context;
+import org.crac.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@Singleton
+public class ConversationMemoryResource implements OrderedResource {
+    private static final Logger LOG = LoggerFactory.getLogger(ConversationMemoryResource.class);
+
+    private final ConversationMemoryProvider memoryProvider;
+
+    public ConversationMemoryResource(ConversationMemoryProvider memoryProvider) {
+        this.memoryProvider = memoryProvider;
+    }
+
+    @Override
+    public void beforeCheckpoint(Context<? extends Resource> context) {
+        int conversations = memoryProvider.activeConversations();
+        memoryProvider.evictAll();
+        LOG.info("Evicted {} conversation(s) before checkpoint", conversations);
+    }
+
+    @Override
+    public void afterRestore(Context<? extends Resource> context) {
+    }
+}
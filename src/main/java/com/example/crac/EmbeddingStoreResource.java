@@ -0,0 +1,31 @@
+package com.example.crac;
+
+import com.example.service.LocalEmbeddingStore;
+import io.micronaut.crac.OrderedResource;
+import jakarta.inject.Singleton;
+import org.crac.Context;
+import org.crac.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@Singleton
+public class EmbeddingStoreResource implements OrderedResource {
+    private static final Logger LOG = LoggerFactory.getLogger(EmbeddingStoreResource.class);
+
+    private final LocalEmbeddingStore embeddingStore;
+
+    public EmbeddingStoreResource(LocalEmbeddingStore embeddingStore) {
+        this.embeddingStore = embeddingStore;
+    }
+
+    @Override
+    public void beforeCheckpoint(Context<? extends Resource> context) {
+        // Open file descriptors would fail the checkpoint; files are reopened on first use.
+        embeddingStore.close();
+        LOG.info("Closed local embedding store before checkpoint");
+    }
+
+    @Override
+    public void afterRestore(Context<? extends Resource> context) {
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.crac;
+
+import dev.langchain4j.model.openai.OpenAiChatModel;
+import dev.langchain4j.model.openai.OpenAiEmbeddingModel;
+import io.micronaut.context.BeanContext;
+import io.micronaut.crac.OrderedResource;
+import jakarta.inject.Singleton;
+import org.crac.Context;
+import org.crac.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+
+/**
+ * Closes the OpenAI models' HTTP clients, and with them every provider connection, before a
+ * checkpoint and reopens them after restore. Refuses the checkpoint when a model was built
+ * with a client the application does not own, since its connections cannot be closed.
+ */
+@Singleton
+public class ModelProviderConnectionsResource implements OrderedResource {
+    private static final Logger LOG = LoggerFactory.getLogger(ModelProviderConnectionsResource.class);
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(10);
+
+    private final ModelProviderHttpClients clients;
+    private final BeanContext beanContext;
+
+    public ModelProviderConnectionsResource(ModelProviderHttpClients clients, BeanContext beanContext) {
+        this.clients = clients;
+        this.beanContext = beanContext;
+    }
+
+    @Override
+    public void beforeCheckpoint(Context<? extends Resource> context) throws InterruptedException {
+        int models = beanContext.getActiveBeanRegistrations(OpenAiChatModel.class).size()
+            + beanContext.getActiveBeanRegistrations(OpenAiEmbeddingModel.class).size();
+        if (clients.size() < models) {
+            throw new IllegalStateException(models + " OpenAI model(s) but " + clients.size()
+                + " closable HTTP client(s), not checkpointing with provider connections open");
+        }
+        if (!clients.closeAll(DRAIN_TIMEOUT)) {
+            LOG.warn("Model provider calls still running after {}, aborted them", DRAIN_TIMEOUT);
+        }
+        LOG.info("Closed {} model provider HTTP client(s) before checkpoint", clients.size());
+    }
+
+    @Override
+    public void afterRestore(Context<? extends Resource> context) {
+        clients.reopenAll();
+        LOG.info("Reopened model provider HTTP clients after restore");
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.crac;
+
+import dev.langchain4j.http.client.HttpClient;
+import dev.langchain4j.http.client.HttpClientBuilder;
+import jakarta.inject.Singleton;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The HTTP clients of the OpenAI models, built by the application rather than by LangChain4j
+ * so their connections can be closed before a checkpoint and reopened after restore.
+ */
+@Singleton
+public class ModelProviderHttpClients {
+    private final List<ReopenableHttpClient> clients = new CopyOnWriteArrayList<>();
+
+    /**
+     * A builder for one model; the client it builds is closed and reopened with the others.
+     */
+    public HttpClientBuilder builder() {
+        return new Builder();
+    }
+
+    int size() {
+        return clients.size();
+    }
+
+    /**
+     * @return false when some calls were still running after {@code timeout} and were aborted
+     */
+    boolean closeAll(Duration timeout) throws InterruptedException {
+        boolean drained = true;
+        for (ReopenableHttpClient client : clients) {
+            drained &= client.close(timeout);
+        }
+        return drained;
+    }
+
+    void reopenAll() {
+        clients.forEach(ReopenableHttpClient::open);
+    }
+
+    private final class Builder implements HttpClientBuilder {
+        private Duration connectTimeout;
+        private Duration readTimeout;
+
+        @Override
+        public Duration connectTimeout() {
+            return connectTimeout;
+        }
+
+        @Override
+        public HttpClientBuilder connectTimeout(Duration timeout) {
+            this.connectTimeout = timeout;
+            return this;
+        }
+
+        @Override
+        public Duration readTimeout() {
+            return readTimeout;
+        }
+
+        @Override
+        public HttpClientBuilder readTimeout(Duration timeout) {
+            this.readTimeout = timeout;
+            return this;
+        }
+
+        @Override
+        public HttpClient build() {
+            ReopenableHttpClient client = new ReopenableHttpClient(connectTimeout, readTimeout);
+            clients.add(client);
+            return client;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.crac;
+
+import dev.langchain4j.model.openai.OpenAiChatModel;
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.context.event.BeanCreatedEventListener;
+import jakarta.inject.Singleton;
+
+/**
+ * Builds the OpenAI chat model with a client from {@link ModelProviderHttpClients}.
+ */
+@Singleton
+public class OpenAiChatModelClientCustomizer implements BeanCreatedEventListener<OpenAiChatModel.OpenAiChatModelBuilder> {
+    private final ModelProviderHttpClients clients;
+
+    public OpenAiChatModelClientCustomizer(ModelProviderHttpClients clients) {
+        this.clients = clients;
+    }
+
+    @Override
+    public OpenAiChatModel.OpenAiChatModelBuilder onCreated(BeanCreatedEvent<OpenAiChatModel.OpenAiChatModelBuilder> event) {
+        return event.getBean().httpClientBuilder(clients.builder());
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.crac;
+
+import dev.langchain4j.model.openai.OpenAiEmbeddingModel;
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.context.event.BeanCreatedEventListener;
+import jakarta.inject.Singleton;
+
+/**
+ * Builds the OpenAI embedding model with a client from {@link ModelProviderHttpClients}.
+ */
+@Singleton
+public class OpenAiEmbeddingModelClientCustomizer implements BeanCreatedEventListener<OpenAiEmbeddingModel.OpenAiEmbeddingModelBuilder> {
+    private final ModelProviderHttpClients clients;
+
+    public OpenAiEmbeddingModelClientCustomizer(ModelProviderHttpClients clients) {
+        this.clients = clients;
+    }
+
+    @Override
+    public OpenAiEmbeddingModel.OpenAiEmbeddingModelBuilder onCreated(BeanCreatedEvent<OpenAiEmbeddingModel.OpenAiEmbeddingModelBuilder> event) {
+        return event.getBean().httpClientBuilder(clients.builder());
+    }
+}
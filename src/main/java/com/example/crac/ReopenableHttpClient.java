@@ -0,0 +1,176 @@
+package com.example.crac;
+
+import dev.langchain4j.http.client.HttpClient;
+import dev.langchain4j.http.client.HttpRequest;
+import dev.langchain4j.http.client.SuccessfulHttpResponse;
+import dev.langchain4j.http.client.jdk.JdkHttpClient;
+import dev.langchain4j.http.client.sse.ServerSentEventListener;
+import dev.langchain4j.http.client.sse.ServerSentEventParser;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A LangChain4j HTTP client whose underlying JDK client, and with it every pooled connection,
+ * can be closed before a checkpoint and built again after restore. Calls made while it is
+ * closed fail instead of opening a connection that would end up in the image.
+ */
+final class ReopenableHttpClient implements HttpClient {
+    private final Duration connectTimeout;
+    private final Duration readTimeout;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile JdkHttpClient client;
+    private java.net.http.HttpClient connections;
+
+    ReopenableHttpClient(Duration connectTimeout, Duration readTimeout) {
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        open();
+    }
+
+    void open() {
+        lock.lock();
+        try {
+            if (client != null) {
+                return;
+            }
+            CapturingBuilder builder = new CapturingBuilder(java.net.http.HttpClient.newBuilder());
+            client = JdkHttpClient.builder()
+                .httpClientBuilder(builder)
+                .connectTimeout(connectTimeout)
+                .readTimeout(readTimeout)
+                .build();
+            connections = builder.built;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops new calls, waits up to {@code timeout} for calls in flight, then closes every
+     * connection.
+     *
+     * @return false when calls were still running at the timeout and were aborted
+     */
+    boolean close(Duration timeout) throws InterruptedException {
+        lock.lock();
+        try {
+            client = null;
+            java.net.http.HttpClient closing = connections;
+            connections = null;
+            if (closing == null) {
+                return true;
+            }
+            closing.shutdown();
+            if (closing.awaitTermination(timeout)) {
+                return true;
+            }
+            closing.shutdownNow();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public SuccessfulHttpResponse execute(HttpRequest request) {
+        return current().execute(request);
+    }
+
+    @Override
+    public void execute(HttpRequest request, ServerSentEventParser parser, ServerSentEventListener listener) {
+        current().execute(request, parser, listener);
+    }
+
+    private JdkHttpClient current() {
+        JdkHttpClient current = client;
+        if (current == null) {
+            throw new IllegalStateException("Model provider connections are closed for a checkpoint");
+        }
+        return current;
+    }
+
+    /**
+     * Keeps the JDK client that {@link JdkHttpClient} builds, which it does not expose.
+     */
+    private static final class CapturingBuilder implements java.net.http.HttpClient.Builder {
+        private final java.net.http.HttpClient.Builder delegate;
+        private java.net.http.HttpClient built;
+
+        CapturingBuilder(java.net.http.HttpClient.Builder delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public java.net.http.HttpClient.Builder cookieHandler(CookieHandler cookieHandler) {
+            delegate.cookieHandler(cookieHandler);
+            return this;
+        }
+
+        @Override
+        public java.net.http.HttpClient.Builder connectTimeout(Duration duration) {
+            delegate.connectTimeout(duration);
+            return this;
+        }
+
+        @Override
+        public java.net.http.HttpClient.Builder sslContext(SSLContext sslContext) {
+            delegate.sslContext(sslContext);
+            return this;
+        }
+
+        @Override
+        public java.net.http.HttpClient.Builder sslParameters(SSLParameters sslParameters) {
+            delegate.sslParameters(sslParameters);
+            return this;
+        }
+
+        @Override
+        public java.net.http.HttpClient.Builder executor(Executor executor) {
+            delegate.executor(executor);
+            return this;
+        }
+
+        @Override
+        public java.net.http.HttpClient.Builder followRedirects(java.net.http.HttpClient.Redirect policy) {
+            delegate.followRedirects(policy);
+            return this;
+        }
+
+        @Override
+        public java.net.http.HttpClient.Builder version(java.net.http.HttpClient.Version version) {
+            delegate.version(version);
+            return this;
+        }
+
+        @Override
+        public java.net.http.HttpClient.Builder priority(int priority) {
+            delegate.priority(priority);
+            return this;
+        }
+
+        @Override
+        public java.net.http.HttpClient.Builder proxy(ProxySelector proxySelector) {
+            delegate.proxy(proxySelector);
+            return this;
+        }
+
+        @Override
+        public java.net.http.HttpClient.Builder authenticator(Authenticator authenticator) {
+            delegate.authenticator(authenticator);
+            return this;
+        }
+
+        @Override
+        public java.net.http.HttpClient build() {
+            built = delegate.build();
+            return built;
+        }
+    }
+}
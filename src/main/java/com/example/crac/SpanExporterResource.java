@@ -0,0 +1,45 @@
+package com.example.crac;
+
+import com.example.tracing.CheckpointSpanExporter;
+import io.micronaut.crac.OrderedResource;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import jakarta.inject.Singleton;
+import org.crac.Context;
+import org.crac.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends the spans still queued in the SDK, then closes the OTLP exporter's collector
+ * connection; a new exporter with the same settings is built after restore.
+ */
+@Singleton
+public class SpanExporterResource implements OrderedResource {
+    private static final Logger LOG = LoggerFactory.getLogger(SpanExporterResource.class);
+    private static final Duration FLUSH_TIMEOUT = Duration.ofSeconds(10);
+
+    private final OpenTelemetry openTelemetry;
+
+    public SpanExporterResource(OpenTelemetry openTelemetry) {
+        this.openTelemetry = openTelemetry;
+    }
+
+    @Override
+    public void beforeCheckpoint(Context<? extends Resource> context) {
+        if (openTelemetry instanceof OpenTelemetrySdk sdk) {
+            sdk.getSdkTracerProvider().forceFlush().join(FLUSH_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        CheckpointSpanExporter.suspendAll(FLUSH_TIMEOUT);
+        LOG.info("Closed span exporter before checkpoint");
+    }
+
+    @Override
+    public void afterRestore(Context<? extends Resource> context) {
+        CheckpointSpanExporter.resumeAll();
+        LOG.info("Re-created span exporter after restore");
+    }
+}
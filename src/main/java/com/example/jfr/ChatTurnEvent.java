@@ -0,0 +1,49 @@
+package com.example.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * One {@code /api/chat} request, from admission to the answer. Begin it right after
+ * construction: the queueing time is measured from there.
+ */
+@Name("com.example.ChatTurn")
+@Label("Chat Turn")
+public class ChatTurnEvent extends TravelEvent {
+
+    @Label("Conversation ID")
+    String conversationId;
+
+    @Label("Message Length")
+    @Description("Characters in the user message")
+    int messageLength;
+
+    @Label("Answer Length")
+    @Description("Characters in the answer")
+    int answerLength;
+
+    @Label("Queued")
+    @Description("Time waiting for admission and for the conversation's previous turn")
+    @Timespan(Timespan.NANOSECONDS)
+    long queued;
+
+    private final transient long createdNanos = System.nanoTime();
+
+    public ChatTurnEvent(String conversationId, int messageLength) {
+        this.conversationId = conversationId;
+        this.messageLength = messageLength;
+    }
+
+    /**
+     * Marks the end of queueing; the rest of the event's duration is the model and its tools.
+     */
+    public void admitted() {
+        queued = System.nanoTime() - createdNanos;
+    }
+
+    public void answered(String answer) {
+        answerLength = answer.length();
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.EmbeddingCall")
+@Label("Embedding Call")
+public class EmbeddingEvent extends TravelEvent {
+
+    @Label("Model")
+    String model;
+
+    public EmbeddingEvent(String model) {
+        this.model = model;
+    }
+}
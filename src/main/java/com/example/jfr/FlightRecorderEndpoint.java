@@ -0,0 +1,44 @@
+package com.example.jfr;
+
+import io.micronaut.management.endpoint.annotation.Delete;
+import io.micronaut.management.endpoint.annotation.Endpoint;
+import io.micronaut.management.endpoint.annotation.Read;
+import io.micronaut.management.endpoint.annotation.Selector;
+import io.micronaut.management.endpoint.annotation.Write;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * {@code GET /flightrecorder} shows the recording, {@code POST /flightrecorder/start} starts it,
+ * {@code POST /flightrecorder/dump} writes it to a file on the server, and
+ * {@code DELETE /flightrecorder} stops it. Sensitive, so disabled unless
+ * {@code endpoints.flightrecorder.sensitive=false} or secured.
+ */
+@Endpoint(id = "flightrecorder", defaultSensitive = true)
+public class FlightRecorderEndpoint {
+    private final FlightRecording flightRecording;
+
+    public FlightRecorderEndpoint(FlightRecording flightRecording) {
+        this.flightRecording = flightRecording;
+    }
+
+    @Read
+    public Map<String, Object> status() {
+        return flightRecording.status();
+    }
+
+    @Write
+    public Map<String, Object> control(@Selector String action) throws IOException {
+        return switch (action) {
+            case "start" -> flightRecording.start();
+            case "dump" -> Map.of("file", flightRecording.dump().toString());
+            default -> throw new IllegalArgumentException("Unknown action " + action + ", expected start or dump");
+        };
+    }
+
+    @Delete
+    public Map<String, Object> stop() {
+        return flightRecording.stop();
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.jfr;
+
+import io.micronaut.context.annotation.Value;
+import io.micronaut.context.event.ApplicationEventListener;
+import io.micronaut.context.event.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A continuous, bounded JFR recording with the JDK's {@code app.jfr.settings} configuration
+ * plus {@code jfr/travel.jfc}. Keeps the last {@code app.jfr.max-age} / {@code app.jfr.max-size}
+ * on disk and dumps it on demand into {@code app.jfr.dump-directory}. Started at startup when
+ * {@code app.jfr.enabled} is set, or later through the {@code flightrecorder} endpoint.
+ */
+@Singleton
+public class FlightRecording implements ApplicationEventListener<StartupEvent> {
+    private static final Logger LOG = LoggerFactory.getLogger(FlightRecording.class);
+    private static final String RECORDING_NAME = "swiss-travel-advisor";
+    private static final String APPLICATION_SETTINGS = "jfr/travel.jfc";
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final boolean enabled;
+    private final String settings;
+    private final Duration maxAge;
+    private final long maxSizeBytes;
+    private final Path dumpDirectory;
+    private final ReentrantLock lock = new ReentrantLock();
+    private Recording recording;
+
+    public FlightRecording(
+        @Value("${app.jfr.enabled:false}") boolean enabled,
+        @Value("${app.jfr.settings:default}") String settings,
+        @Value("${app.jfr.max-age:30m}") Duration maxAge,
+        @Value("${app.jfr.max-size-mb:250}") long maxSizeMb,
+        @Value("${app.jfr.dump-directory:recordings}") String dumpDirectory
+    ) {
+        this.enabled = enabled;
+        this.settings = settings;
+        this.maxAge = maxAge;
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+        this.dumpDirectory = Path.of(dumpDirectory);
+    }
+
+    @Override
+    public void onApplicationEvent(StartupEvent event) {
+        if (enabled) {
+            start();
+        }
+    }
+
+    /**
+     * Starts the recording unless it is already running.
+     */
+    public Map<String, Object> start() {
+        lock.lock();
+        try {
+            if (recording == null || recording.getState() != RecordingState.RUNNING) {
+                Recording started = new Recording(settings());
+                started.setName(RECORDING_NAME);
+                started.setToDisk(true);
+                started.setMaxAge(maxAge);
+                started.setMaxSize(maxSizeBytes);
+                started.start();
+                recording = started;
+                LOG.info("Started JFR recording ({} + {}, max age {}, max size {} MB)",
+                    settings, APPLICATION_SETTINGS, maxAge, maxSizeBytes / 1024 / 1024);
+            }
+            return status();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes what the recording holds now into a new file and returns its path; the recording
+     * keeps running.
+     */
+    public Path dump() throws IOException {
+        lock.lock();
+        try {
+            if (recording == null || recording.getState() != RecordingState.RUNNING) {
+                throw new IllegalStateException("No JFR recording is running");
+            }
+            Files.createDirectories(dumpDirectory);
+            Path file = dumpDirectory.resolve(RECORDING_NAME + "-" + LocalDateTime.now().format(FILE_TIMESTAMP) + ".jfr");
+            recording.dump(file);
+            LOG.info("Dumped JFR recording to {}", file.toAbsolutePath());
+            return file.toAbsolutePath();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> stop() {
+        lock.lock();
+        try {
+            if (recording != null) {
+                recording.close();
+                recording = null;
+                LOG.info("Stopped JFR recording");
+            }
+            return status();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> status() {
+        lock.lock();
+        try {
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("state", recording == null ? "STOPPED" : recording.getState().name());
+            if (recording != null) {
+                status.put("startTime", String.valueOf(recording.getStartTime()));
+                status.put("sizeBytes", recording.getSize());
+            }
+            status.put("maxAge", maxAge.toString());
+            status.put("maxSizeBytes", maxSizeBytes);
+            return status;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Map<String, String> settings() {
+        try (InputStream in = FlightRecording.class.getClassLoader().getResourceAsStream(APPLICATION_SETTINGS)) {
+            Map<String, String> combined = new HashMap<>(Configuration.getConfiguration(settings).getSettings());
+            if (in == null) {
+                LOG.warn("{} not found, recording without application event settings", APPLICATION_SETTINGS);
+                return combined;
+            }
+            try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+                combined.putAll(Configuration.create(reader).getSettings());
+            }
+            return combined;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ParseException e) {
+            throw new IllegalStateException("Invalid JFR configuration " + settings, e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        stop();
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.SqlStatement")
+@Label("SQL Statement")
+public class StatementEvent extends TravelEvent {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Table")
+    String table;
+
+    public StatementEvent(String operation, String table) {
+        this.operation = operation;
+        this.table = table;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.ToolInvocation")
+@Label("Tool Invocation")
+public class ToolEvent extends TravelEvent {
+
+    @Label("Tool")
+    String tool;
+
+    public ToolEvent(String tool) {
+        this.tool = tool;
+    }
+}
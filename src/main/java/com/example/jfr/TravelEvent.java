@@ -0,0 +1,52 @@
+package com.example.jfr;
+
+import io.micronaut.core.annotation.Nullable;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Fields shared by the application's JFR events. {@code traceId} links an event to its
+ * OpenTelemetry trace, so a GC pause or lock stall in the same time range can be tied to
+ * the request that suffered it.
+ */
+@Category("Swiss Travel Advisor")
+@StackTrace(false)
+public abstract class TravelEvent extends Event {
+
+    @Label("Trace ID")
+    @Description("OpenTelemetry trace ID")
+    String traceId;
+
+    @Label("Error")
+    @Description("Class of the exception that ended the operation or that it handled, if any")
+    String error;
+
+    /**
+     * Records a failure the operation handled itself; the first one is kept.
+     */
+    public void fail(Throwable failure) {
+        if (error == null) {
+            error = failure.getClass().getName();
+        }
+    }
+
+    /**
+     * Ends the event and commits it when a recording wants it (enabled, above threshold).
+     */
+    public void complete(Span span, @Nullable Throwable failure) {
+        end();
+        if (shouldCommit()) {
+            SpanContext context = span.getSpanContext();
+            this.traceId = context.isValid() ? context.getTraceId() : null;
+            if (failure != null) {
+                fail(failure);
+            }
+            commit();
+        }
+    }
+}
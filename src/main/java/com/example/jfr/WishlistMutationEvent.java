@@ -0,0 +1,31 @@
+package com.example.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.WishlistMutation")
+@Label("Wishlist Mutation")
+public class WishlistMutationEvent extends TravelEvent {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Requested Items")
+    int requested;
+
+    @Label("Changed Items")
+    int changed;
+
+    @Label("Unknown Items")
+    int notFound;
+
+    public WishlistMutationEvent(String operation, int requested) {
+        this.operation = operation;
+        this.requested = requested;
+    }
+
+    public void changed(int changed, int notFound) {
+        this.changed = changed;
+        this.notFound = notFound;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.memory;
+
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.ChatMessageDeserializer;
+import dev.langchain4j.data.message.ChatMessageSerializer;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Chat messages as deflated LangChain4j JSON. Compacted histories repeat tool names, item names
+ * and JSON keys, so they shrink to a fraction of the JSON size.
+ */
+final class ChatMessageCodec {
+    private static final int BUFFER_BYTES = 4096;
+
+    private ChatMessageCodec() {
+    }
+
+    static byte[] encode(List<ChatMessage> messages) {
+        byte[] json = ChatMessageSerializer.messagesToJson(messages).getBytes(StandardCharsets.UTF_8);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(json);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 2 + 16);
+            byte[] buffer = new byte[BUFFER_BYTES];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    static List<ChatMessage> decode(byte[] data) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 4);
+            byte[] buffer = new byte[BUFFER_BYTES];
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(buffer);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("Truncated chat memory");
+                }
+                out.write(buffer, 0, inflated);
+            }
+            return ChatMessageDeserializer.messagesFromJson(out.toString(StandardCharsets.UTF_8));
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupt chat memory", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.memory;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.ToolExecutionResultMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.memory.ChatMemory;
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Token-bounded chat memory: recent turns stay verbatim, older turns are reduced to name/ID
+ * summaries, and the oldest turns are dropped once the budget is exceeded. If the newest turn
+ * alone is still over budget, its tool results are shortened to fit.
+ * <p>
+ * A new instance is created per access and holds no state of its own, so it takes no lock:
+ * ChatController runs the turns of one conversation one at a time.
+ */
+public class CompactingChatMemory implements ChatMemory {
+    private static final Logger LOG = LoggerFactory.getLogger(CompactingChatMemory.class);
+    /** A result line of any tool: {@code - Name (hotel ID:12, ...}. */
+    private static final Pattern RESULT_LINE = Pattern.compile("^- (.+?) \\((destination|hotel|activity) ID:(\\d+)", Pattern.MULTILINE);
+    private static final String COMPACTED_PREFIX = "[compacted] ";
+    private static final String TRUNCATED_SUFFIX = "\n[truncated]";
+    private static final int COMPACTED_TEXT_LENGTH = 160;
+    private static final int CHARS_PER_TOKEN = 4;
+    private static final int MESSAGE_OVERHEAD_TOKENS = 4;
+
+    private final Object id;
+    private final ChatMemoryStore store;
+    private final int maxTokens;
+    private final int verbatimTurns;
+
+    public CompactingChatMemory(Object id, ChatMemoryStore store, int maxTokens, int verbatimTurns) {
+        this.id = id;
+        this.store = store;
+        this.maxTokens = maxTokens;
+        this.verbatimTurns = Math.max(1, verbatimTurns);
+    }
+
+    @Override
+    public Object id() {
+        return id;
+    }
+
+    @Override
+    public void add(ChatMessage message) {
+        List<ChatMessage> messages = new ArrayList<>(store.getMessages(id));
+        if (message instanceof SystemMessage) {
+            messages.removeIf(SystemMessage.class::isInstance);
+            messages.addFirst(message);
+        } else {
+            messages.add(message);
+        }
+        store.updateMessages(id, compact(messages));
+    }
+
+    @Override
+    public List<ChatMessage> messages() {
+        return new ArrayList<>(store.getMessages(id));
+    }
+
+    @Override
+    public void clear() {
+        store.deleteMessages(id);
+    }
+
+    private List<ChatMessage> compact(List<ChatMessage> messages) {
+        SystemMessage systemMessage = null;
+        List<List<ChatMessage>> turns = new ArrayList<>();
+        for (ChatMessage message : messages) {
+            if (message instanceof SystemMessage system) {
+                systemMessage = system;
+            } else if (message instanceof UserMessage || turns.isEmpty()) {
+                List<ChatMessage> turn = new ArrayList<>();
+                turn.add(message);
+                turns.add(turn);
+            } else {
+                turns.getLast().add(message);
+            }
+        }
+
+        for (int i = 0; i < turns.size() - verbatimTurns; i++) {
+            turns.set(i, turns.get(i).stream().map(this::compactMessage).toList());
+        }
+
+        int tokens = estimateTokens(systemMessage) + turns.stream().mapToInt(this::estimateTurnTokens).sum();
+        int dropped = 0;
+        while (tokens > maxTokens && turns.size() > 1) {
+            tokens -= estimateTurnTokens(turns.removeFirst());
+            dropped++;
+        }
+        if (dropped > 0) {
+            LOG.debug("Conversation {}: dropped {} oldest turn(s), ~{} tokens kept", id, dropped, tokens);
+        }
+        if (tokens > maxTokens && !turns.isEmpty()) {
+            turns.set(turns.size() - 1, truncateToolResults(turns.getLast(), tokens));
+        }
+
+        List<ChatMessage> compacted = new ArrayList<>();
+        if (systemMessage != null) {
+            compacted.add(systemMessage);
+        }
+        turns.forEach(compacted::addAll);
+        return compacted;
+    }
+
+    private ChatMessage compactMessage(ChatMessage message) {
+        if (message instanceof ToolExecutionResultMessage toolResult) {
+            return ToolExecutionResultMessage.from(toolResult.id(), toolResult.toolName(), summarizeToolResult(toolResult.text()));
+        }
+        if (message instanceof AiMessage aiMessage) {
+            if (aiMessage.hasToolExecutionRequests()) {
+                List<ToolExecutionRequest> requests = aiMessage.toolExecutionRequests();
+                return aiMessage.text() == null ? aiMessage : AiMessage.from(truncate(aiMessage.text()), requests);
+            }
+            return aiMessage.text() == null ? aiMessage : AiMessage.from(truncate(aiMessage.text()));
+        }
+        if (message instanceof UserMessage userMessage && userMessage.hasSingleText()) {
+            return UserMessage.from(truncate(userMessage.singleText()));
+        }
+        return message;
+    }
+
+    /**
+     * Shares what the budget leaves after the turn's other messages among its tool results,
+     * short results first, so a short result stays whole and the long ones get an equal cut.
+     */
+    private List<ChatMessage> truncateToolResults(List<ChatMessage> turn, int tokens) {
+        List<ToolExecutionResultMessage> results = new ArrayList<>();
+        int resultTokens = 0;
+        for (ChatMessage message : turn) {
+            if (message instanceof ToolExecutionResultMessage toolResult && toolResult.text() != null) {
+                results.add(toolResult);
+                resultTokens += estimateTokens(toolResult) - MESSAGE_OVERHEAD_TOKENS;
+            }
+        }
+        if (results.isEmpty()) {
+            return turn;
+        }
+        int available = Math.max(0, maxTokens - (tokens - resultTokens)) * CHARS_PER_TOKEN;
+        Map<ToolExecutionResultMessage, Integer> limits = new IdentityHashMap<>();
+        List<ToolExecutionResultMessage> shortestFirst = new ArrayList<>(results);
+        shortestFirst.sort(Comparator.comparingInt(result -> result.text().length()));
+        for (int i = 0; i < shortestFirst.size(); i++) {
+            ToolExecutionResultMessage result = shortestFirst.get(i);
+            int limit = Math.max(COMPACTED_TEXT_LENGTH, Math.min(result.text().length(), available / (shortestFirst.size() - i)));
+            limits.put(result, limit);
+            available = Math.max(0, available - limit);
+        }
+        LOG.debug("Conversation {}: newest turn over budget, shortening {} tool result(s)", id, results.size());
+        return turn.stream()
+            .map(message -> message instanceof ToolExecutionResultMessage toolResult && limits.containsKey(toolResult)
+                ? shorten(toolResult, limits.get(toolResult))
+                : message)
+            .toList();
+    }
+
+    /**
+     * Cuts at a line break where there is one in the second half, so result lines stay whole.
+     */
+    private ChatMessage shorten(ToolExecutionResultMessage toolResult, int limit) {
+        String text = toolResult.text();
+        if (text.length() <= limit) {
+            return toolResult;
+        }
+        int end = Math.max(0, limit - TRUNCATED_SUFFIX.length());
+        int lineBreak = text.lastIndexOf('\n', end);
+        if (lineBreak >= end / 2) {
+            end = lineBreak;
+        }
+        return ToolExecutionResultMessage.from(toolResult.id(), toolResult.toolName(), text.substring(0, end) + TRUNCATED_SUFFIX);
+    }
+
+    private String summarizeToolResult(String text) {
+        if (text == null || text.startsWith(COMPACTED_PREFIX)) {
+            return text;
+        }
+        Matcher matcher = RESULT_LINE.matcher(text);
+        List<String> items = new ArrayList<>();
+        while (matcher.find()) {
+            items.add(matcher.group(1) + " (" + matcher.group(2) + " ID:" + matcher.group(3) + ")");
+        }
+        if (items.isEmpty()) {
+            return COMPACTED_PREFIX + truncate(text);
+        }
+        return COMPACTED_PREFIX + String.join(", ", items);
+    }
+
+    private String truncate(String text) {
+        String normalized = text.replaceAll("\\s+", " ").trim();
+        if (normalized.length() <= COMPACTED_TEXT_LENGTH) {
+            return normalized;
+        }
+        return normalized.substring(0, COMPACTED_TEXT_LENGTH - 3) + "...";
+    }
+
+    private int estimateTurnTokens(List<ChatMessage> turn) {
+        return turn.stream().mapToInt(this::estimateTokens).sum();
+    }
+
+    private int estimateTokens(ChatMessage message) {
+        if (message == null) {
+            return 0;
+        }
+        int chars = switch (message) {
+            case SystemMessage system -> system.text().length();
+            case UserMessage user -> user.hasSingleText() ? user.singleText().length() : 0;
+            case ToolExecutionResultMessage toolResult -> toolResult.text() == null ? 0 : toolResult.text().length();
+            case AiMessage ai -> (ai.text() == null ? 0 : ai.text().length())
+                + (ai.hasToolExecutionRequests()
+                    ? ai.toolExecutionRequests().stream().mapToInt(request -> request.name().length() + request.arguments().length()).sum()
+                    : 0);
+            default -> 0;
+        };
+        return MESSAGE_OVERHEAD_TOKENS + chars / CHARS_PER_TOKEN;
+    }
+}
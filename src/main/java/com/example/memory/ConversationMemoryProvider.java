@@ -0,0 +1,120 @@
+package com.example.memory;
+
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.memory.ChatMemory;
+import dev.langchain4j.memory.chat.ChatMemoryProvider;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Singleton
+public class ConversationMemoryProvider implements ChatMemoryProvider {
+    private static final Logger LOG = LoggerFactory.getLogger(ConversationMemoryProvider.class);
+
+    private final ConversationStore store;
+    private final Map<Object, Long> lastAccess = new ConcurrentHashMap<>();
+    private final int maxTokens;
+    private final int verbatimTurns;
+    private final int maxConversations;
+    private final Duration idleTimeout;
+
+    public ConversationMemoryProvider(
+        ConversationStore store,
+        @Value("${app.chat.memory.max-tokens:3000}") int maxTokens,
+        @Value("${app.chat.memory.verbatim-turns:3}") int verbatimTurns,
+        @Value("${app.chat.memory.max-conversations:1000}") int maxConversations,
+        @Value("${app.chat.memory.idle-timeout:30m}") Duration idleTimeout
+    ) {
+        this.store = store;
+        this.maxTokens = maxTokens;
+        this.verbatimTurns = verbatimTurns;
+        this.maxConversations = maxConversations;
+        this.idleTimeout = idleTimeout;
+    }
+
+    @Override
+    public ChatMemory get(Object memoryId) {
+        touch(memoryId);
+        return new TouchingChatMemory(new CompactingChatMemory(memoryId, store, maxTokens, verbatimTurns));
+    }
+
+    public int activeConversations() {
+        return lastAccess.size();
+    }
+
+    public void evictAll() {
+        lastAccess.keySet().forEach(this::evict);
+        store.flush();
+    }
+
+    @Scheduled(fixedDelay = "${app.chat.memory.sweep-interval:1m}")
+    void evictIdleConversations() {
+        long cutoff = System.currentTimeMillis() - idleTimeout.toMillis();
+        int evicted = 0;
+        for (Map.Entry<Object, Long> entry : lastAccess.entrySet()) {
+            if (entry.getValue() < cutoff) {
+                evict(entry.getKey());
+                evicted++;
+            }
+        }
+        int overflow = lastAccess.size() - maxConversations;
+        if (overflow > 0) {
+            List<Object> oldest = lastAccess.entrySet().stream()
+                .sorted(Map.Entry.comparingByValue())
+                .limit(overflow)
+                .map(Map.Entry::getKey)
+                .toList();
+            oldest.forEach(this::evict);
+            evicted += oldest.size();
+        }
+        if (evicted > 0) {
+            LOG.debug("Evicted {} idle conversation(s), {} active", evicted, lastAccess.size());
+        }
+    }
+
+    private void touch(Object memoryId) {
+        lastAccess.put(memoryId, System.currentTimeMillis());
+    }
+
+    private void evict(Object memoryId) {
+        lastAccess.remove(memoryId);
+        store.release(memoryId);
+    }
+
+    private final class TouchingChatMemory implements ChatMemory {
+        private final ChatMemory delegate;
+
+        private TouchingChatMemory(ChatMemory delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Object id() {
+            return delegate.id();
+        }
+
+        @Override
+        public void add(ChatMessage message) {
+            touch(delegate.id());
+            delegate.add(message);
+        }
+
+        @Override
+        public List<ChatMessage> messages() {
+            touch(delegate.id());
+            return delegate.messages();
+        }
+
+        @Override
+        public void clear() {
+            delegate.clear();
+        }
+    }
+}
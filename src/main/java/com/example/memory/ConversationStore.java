@@ -0,0 +1,20 @@
+package com.example.memory;
+
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
+
+/**
+ * Where conversations live, selected by {@code app.chat.memory.store.type}.
+ */
+public interface ConversationStore extends ChatMemoryStore {
+
+    /**
+     * Drops this instance's copy of an idle conversation. A store shared between instances
+     * keeps the conversation; the heap store deletes it.
+     */
+    void release(Object memoryId);
+
+    /**
+     * Writes buffered changes now.
+     */
+    void flush();
+}
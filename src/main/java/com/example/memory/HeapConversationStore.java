@@ -0,0 +1,41 @@
+package com.example.memory;
+
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.store.memory.chat.InMemoryChatMemoryStore;
+import io.micronaut.context.annotation.Requires;
+import jakarta.inject.Singleton;
+
+import java.util.List;
+
+/**
+ * Conversations in this instance's heap only; follow-ups must reach the same instance.
+ */
+@Singleton
+@Requires(property = "app.chat.memory.store.type", value = "memory")
+public class HeapConversationStore implements ConversationStore {
+    private final InMemoryChatMemoryStore store = new InMemoryChatMemoryStore();
+
+    @Override
+    public List<ChatMessage> getMessages(Object memoryId) {
+        return store.getMessages(memoryId);
+    }
+
+    @Override
+    public void updateMessages(Object memoryId, List<ChatMessage> messages) {
+        store.updateMessages(memoryId, messages);
+    }
+
+    @Override
+    public void deleteMessages(Object memoryId) {
+        store.deleteMessages(memoryId);
+    }
+
+    @Override
+    public void release(Object memoryId) {
+        store.deleteMessages(memoryId);
+    }
+
+    @Override
+    public void flush() {
+    }
+}
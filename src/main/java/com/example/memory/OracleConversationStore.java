@@ -0,0 +1,360 @@
+package com.example.memory;
+
+import com.example.repository.ChatMemoryRepository;
+import com.example.repository.ChatMemoryRepository.StoredConversation;
+import com.example.service.BackgroundJobs;
+import dev.langchain4j.data.message.ChatMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.scheduling.TaskExecutors;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Conversations in the {@code chat_memory} table, so any instance can continue any
+ * conversation.
+ * <ul>
+ *   <li>Reads: an LRU of {@code cache-entries} conversations per instance. A cached copy older
+ *   than {@code revalidate-after} is checked against the stored revision (one primary key
+ *   lookup) and reloaded when another instance has written since. So a turn costs no round
+ *   trip on the instance that served the last one, and one or two elsewhere.</li>
+ *   <li>Writes: behind. A change is visible locally at once and written, compressed, in batches
+ *   of up to {@code batch-size} every {@code flush-interval}; a conversation that could not
+ *   be written is retried on the next flush without holding back the rest of its batch. A
+ *   follow-up sent to another instance within that interval may miss the last turn.</li>
+ * </ul>
+ */
+@Singleton
+@Requires(property = "app.chat.memory.store.type", value = "oracle", defaultValue = "oracle")
+public class OracleConversationStore implements ConversationStore {
+    private static final Logger LOG = LoggerFactory.getLogger(OracleConversationStore.class);
+
+    private final ChatMemoryRepository repository;
+    private final ExecutorService executor;
+    private final BackgroundJobs backgroundJobs;
+    private final int cacheEntries;
+    private final Duration revalidateAfter;
+    private final int batchSize;
+    private final Duration idleTimeout;
+    private final Counter hits;
+    private final Counter revalidations;
+    private final Counter loads;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Conversation> cache = new LinkedHashMap<>(16, 0.75f, true);
+    /** Local changes not written yet, oldest first; {@code messages} is null for a delete. */
+    private final Map<String, Conversation> pending = new LinkedHashMap<>();
+    private final ReentrantLock flushing = new ReentrantLock();
+
+    public OracleConversationStore(
+        ChatMemoryRepository repository,
+        @Named(TaskExecutors.VIRTUAL) ExecutorService executor,
+        BackgroundJobs backgroundJobs,
+        MeterRegistry meterRegistry,
+        @Value("${app.chat.memory.store.cache-entries:1000}") int cacheEntries,
+        @Value("${app.chat.memory.store.revalidate-after:2s}") Duration revalidateAfter,
+        @Value("${app.chat.memory.store.batch-size:100}") int batchSize,
+        @Value("${app.chat.memory.idle-timeout:30m}") Duration idleTimeout
+    ) {
+        this.repository = repository;
+        this.executor = executor;
+        this.backgroundJobs = backgroundJobs;
+        this.cacheEntries = cacheEntries;
+        this.revalidateAfter = revalidateAfter;
+        this.batchSize = batchSize;
+        this.idleTimeout = idleTimeout;
+        this.hits = meterRegistry.counter("travel.chat.memory.store", "outcome", "hit");
+        this.revalidations = meterRegistry.counter("travel.chat.memory.store", "outcome", "revalidated");
+        this.loads = meterRegistry.counter("travel.chat.memory.store", "outcome", "loaded");
+        Gauge.builder("travel.chat.memory.store.pending", this, OracleConversationStore::pendingWrites).register(meterRegistry);
+    }
+
+    @Override
+    public List<ChatMessage> getMessages(Object memoryId) {
+        String id = memoryId.toString();
+        long now = System.nanoTime();
+        Conversation cached;
+        lock.lock();
+        try {
+            Conversation unwritten = pending.get(id);
+            if (unwritten != null) {
+                hits.increment();
+                return unwritten.messages() == null ? List.of() : unwritten.messages();
+            }
+            cached = cache.get(id);
+            if (cached != null && now - cached.checkedAt() < revalidateAfter.toNanos()) {
+                hits.increment();
+                return cached.messages();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (cached != null) {
+            Optional<Long> revision = repository.findRevision(id);
+            if (revision.isEmpty()) {
+                // Unreadable: serve the copy, but leave checkedAt so the next turn checks again.
+                return cached.messages();
+            }
+            if (revision.get() == ChatMemoryRepository.NO_REVISION) {
+                // Deleted on another instance.
+                forget(id, cached);
+                return List.of();
+            }
+            if (revision.get() == cached.revision()) {
+                revalidations.increment();
+                return remember(id, new Conversation(cached.messages(), cached.revision(), now));
+            }
+        }
+        loads.increment();
+        Optional<StoredConversation> stored = repository.find(id);
+        if (stored.isEmpty()) {
+            return cached != null ? cached.messages() : List.of();
+        }
+        List<ChatMessage> messages = decode(stored.get());
+        return remember(id, new Conversation(messages, stored.get().revision(), now));
+    }
+
+    @Override
+    public void updateMessages(Object memoryId, List<ChatMessage> messages) {
+        write(memoryId.toString(), new Conversation(List.copyOf(messages), nextRevision(), System.nanoTime()));
+    }
+
+    @Override
+    public void deleteMessages(Object memoryId) {
+        write(memoryId.toString(), new Conversation(null, ChatMemoryRepository.NO_REVISION, System.nanoTime()));
+    }
+
+    @Override
+    public void release(Object memoryId) {
+        lock.lock();
+        try {
+            cache.remove(memoryId.toString());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelay = "${app.chat.memory.store.flush-interval:200ms}")
+    void scheduledFlush() {
+        if (!backgroundJobs.enter()) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            backgroundJobs.exit();
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (!flushing.tryLock()) {
+            return;
+        }
+        try {
+            while (true) {
+                Map<String, Conversation> batch = nextBatch();
+                if (batch.isEmpty()) {
+                    return;
+                }
+                List<StoredConversation> saves = new ArrayList<>();
+                List<String> deletes = new ArrayList<>();
+                batch.forEach((id, conversation) -> {
+                    if (conversation.messages() == null) {
+                        deletes.add(id);
+                    } else {
+                        saves.add(new StoredConversation(id, ChatMessageCodec.encode(conversation.messages()), conversation.revision()));
+                    }
+                });
+                Set<String> unsaved = repository.saveAll(saves);
+                boolean deleted = repository.deleteAll(deletes);
+                written(batch, unsaved, deleted);
+                int kept = unsaved.size() + (deleted ? 0 : deletes.size());
+                if (kept > 0) {
+                    LOG.warn("Chat memory write failed for {} conversation(s), kept for the next flush", kept);
+                    if (kept == batch.size()) {
+                        return;
+                    }
+                }
+            }
+        } finally {
+            flushing.unlock();
+        }
+    }
+
+    /**
+     * Waits for a flush in progress, then writes what is left.
+     */
+    @PreDestroy
+    void close() {
+        flushing.lock();
+        try {
+            flush();
+        } finally {
+            flushing.unlock();
+        }
+    }
+
+    @Scheduled(
+        fixedDelay = "${app.chat.memory.store.prune-interval:10m}",
+        initialDelay = "${app.chat.memory.store.prune-interval:10m}"
+    )
+    void deleteIdleConversations() {
+        if (!backgroundJobs.enter()) {
+            return;
+        }
+        try {
+            int deleted = repository.deleteIdle(idleTimeout);
+            if (deleted > 0) {
+                LOG.debug("Deleted {} stored conversation(s) idle for {}", deleted, idleTimeout);
+            }
+        } finally {
+            backgroundJobs.exit();
+        }
+    }
+
+    int pendingWrites() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(String id, Conversation conversation) {
+        int waiting;
+        lock.lock();
+        try {
+            put(id, conversation.messages() == null
+                ? new Conversation(List.of(), conversation.revision(), conversation.checkedAt())
+                : conversation);
+            pending.remove(id);
+            pending.put(id, conversation);
+            waiting = pending.size();
+        } finally {
+            lock.unlock();
+        }
+        if (waiting >= batchSize) {
+            executor.execute(this::flush);
+        }
+    }
+
+    /**
+     * Caches a copy read from the table, unless a local write arrived meanwhile.
+     */
+    private List<ChatMessage> remember(String id, Conversation conversation) {
+        lock.lock();
+        try {
+            Conversation unwritten = pending.get(id);
+            if (unwritten != null) {
+                return unwritten.messages() == null ? List.of() : unwritten.messages();
+            }
+            put(id, conversation);
+            return conversation.messages();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops the cached copy, unless it was replaced meanwhile.
+     */
+    private void forget(String id, Conversation cached) {
+        lock.lock();
+        try {
+            cache.remove(id, cached);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(String id, Conversation conversation) {
+        cache.put(id, conversation);
+        Iterator<String> leastRecentlyUsed = cache.keySet().iterator();
+        while (cache.size() > cacheEntries) {
+            leastRecentlyUsed.next();
+            leastRecentlyUsed.remove();
+        }
+    }
+
+    private Map<String, Conversation> nextBatch() {
+        lock.lock();
+        try {
+            Map<String, Conversation> batch = new LinkedHashMap<>();
+            for (Map.Entry<String, Conversation> entry : pending.entrySet()) {
+                if (batch.size() == batchSize) {
+                    break;
+                }
+                batch.put(entry.getKey(), entry.getValue());
+            }
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops written changes from {@code pending}, keeping any that were replaced while the
+     * batch was being written.
+     */
+    private void written(Map<String, Conversation> batch, Set<String> unsaved, boolean deleted) {
+        lock.lock();
+        try {
+            batch.forEach((id, conversation) -> {
+                boolean done = conversation.messages() == null ? deleted : !unsaved.contains(id);
+                if (done && pending.get(id) == conversation) {
+                    pending.remove(id);
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<ChatMessage> decode(StoredConversation stored) {
+        if (stored.messages() == null) {
+            return List.of();
+        }
+        try {
+            return ChatMessageCodec.decode(stored.messages());
+        } catch (RuntimeException e) {
+            LOG.warn("Discarding unreadable chat memory of conversation {}", stored.conversationId(), e);
+            return List.of();
+        }
+    }
+
+    private static long nextRevision() {
+        long revision;
+        do {
+            revision = ThreadLocalRandom.current().nextLong();
+        } while (revision == ChatMemoryRepository.NO_REVISION);
+        return revision;
+    }
+
+    /**
+     * {@code checkedAt}: when the copy was last known to match the table (nanoTime).
+     */
+    private record Conversation(List<ChatMessage> messages, long revision, long checkedAt) {
+    }
+}
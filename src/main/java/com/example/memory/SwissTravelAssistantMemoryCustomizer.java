@@ -0,0 +1,20 @@
+package com.example.memory;
+
+import com.example.service.SwissTravelAssistant;
+import io.micronaut.langchain4j.aiservices.AiServiceCreationContext;
+import io.micronaut.langchain4j.aiservices.AiServiceCustomizer;
+import jakarta.inject.Singleton;
+
+@Singleton
+public class SwissTravelAssistantMemoryCustomizer implements AiServiceCustomizer<SwissTravelAssistant> {
+    private final ConversationMemoryProvider memoryProvider;
+
+    public SwissTravelAssistantMemoryCustomizer(ConversationMemoryProvider memoryProvider) {
+        this.memoryProvider = memoryProvider;
+    }
+
+    @Override
+    public void customize(AiServiceCreationContext<SwissTravelAssistant> creationContext) {
+        creationContext.builder().chatMemoryProvider(memoryProvider);
+    }
+}
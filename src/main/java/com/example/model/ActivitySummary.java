@@ -0,0 +1,14 @@
+package com.example.model;
+
+import io.micronaut.serde.annotation.Serdeable;
+
+@Serdeable
+public record ActivitySummary(
+    Long id,
+    Long destinationId,
+    String destinationName,
+    String name,
+    String season,
+    String summary,
+    Double distance
+) {}
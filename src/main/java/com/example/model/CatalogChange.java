@@ -0,0 +1,7 @@
+package com.example.model;
+
+/**
+ * One entry of the {@code catalog_changes} log: a catalog row was inserted, updated or deleted.
+ */
+public record CatalogChange(long id, ItemType type, long itemId, String operation) {
+}
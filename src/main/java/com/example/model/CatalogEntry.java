@@ -0,0 +1,17 @@
+package com.example.model;
+
+import io.micronaut.core.annotation.Nullable;
+
+/**
+ * The fields a catalog row is shown with in wishlists and confirmations: name, plus the region
+ * of a destination, the price of a hotel or the season of an activity.
+ */
+public record CatalogEntry(
+    ItemType type,
+    long id,
+    String name,
+    @Nullable String region,
+    @Nullable Double pricePerNight,
+    @Nullable String season
+) {
+}
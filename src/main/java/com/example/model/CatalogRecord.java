@@ -0,0 +1,23 @@
+package com.example.model;
+
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.data.model.geo.Point;
+
+/**
+ * One catalog row as it is exported and imported, identified by its natural key (name, plus
+ * the destination name for hotels and activities) rather than its ID. Only the fields of its
+ * {@code type} are set.
+ */
+public record CatalogRecord(
+    ItemType type,
+    @Nullable String destinationName,
+    String name,
+    @Nullable String region,
+    @Nullable Double pricePerNight,
+    @Nullable String season,
+    String description,
+    @Nullable Point location,
+    @Nullable float[] embedding,
+    @Nullable String embeddingSourceHash,
+    @Nullable String embeddingModel
+) {}
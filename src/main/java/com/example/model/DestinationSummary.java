@@ -0,0 +1,12 @@
+package com.example.model;
+
+import io.micronaut.serde.annotation.Serdeable;
+
+@Serdeable
+public record DestinationSummary(
+    Long id,
+    String name,
+    String region,
+    String summary,
+    Double distance
+) {}
@@ -0,0 +1,13 @@
+package com.example.model;
+
+import io.micronaut.data.model.geo.Point;
+
+import java.util.List;
+
+/**
+ * The area within {@code widthKm} of the line through {@code waypoints}, in travel order.
+ */
+public record GeoCorridor(
+    List<Point> waypoints,
+    double widthKm
+) {}
@@ -0,0 +1,7 @@
+package com.example.model;
+
+public record GeoRadius(
+    double longitude,
+    double latitude,
+    double radiusKm
+) {}
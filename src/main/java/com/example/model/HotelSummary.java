@@ -0,0 +1,14 @@
+package com.example.model;
+
+import io.micronaut.serde.annotation.Serdeable;
+
+@Serdeable
+public record HotelSummary(
+    Long id,
+    Long destinationId,
+    String destinationName,
+    String name,
+    Double pricePerNight,
+    String summary,
+    Double distance
+) {}
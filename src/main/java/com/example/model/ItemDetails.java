@@ -0,0 +1,11 @@
+package com.example.model;
+
+import io.micronaut.serde.annotation.Serdeable;
+
+@Serdeable
+public record ItemDetails(
+    String itemType,
+    Long id,
+    String name,
+    String description
+) {}
@@ -0,0 +1,10 @@
+package com.example.model;
+
+import io.micronaut.core.annotation.Nullable;
+
+/**
+ * A precomputed similar item: cosine distance between the two embeddings, and the distance in
+ * kilometres when both have a location.
+ */
+public record ItemNeighbor(ItemType type, long id, double distance, @Nullable Double km) {
+}
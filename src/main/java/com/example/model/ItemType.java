@@ -0,0 +1,39 @@
+package com.example.model;
+
+import java.util.Locale;
+import java.util.Optional;
+
+public enum ItemType {
+    DESTINATION("destination", "destinations"),
+    HOTEL("hotel", "hotels"),
+    ACTIVITY("activity", "activities");
+
+    private final String value;
+    private final String table;
+
+    ItemType(String value, String table) {
+        this.value = value;
+        this.table = table;
+    }
+
+    public String value() {
+        return value;
+    }
+
+    public String table() {
+        return table;
+    }
+
+    public static Optional<ItemType> from(String value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        String normalized = value.trim().toLowerCase(Locale.ROOT);
+        for (ItemType type : values()) {
+            if (type.value.equals(normalized)) {
+                return Optional.of(type);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.model;
+
+import io.micronaut.serde.annotation.Serdeable;
+
+import java.util.List;
+
+@Serdeable
+public record RouteMatches(
+    List<DestinationSummary> destinations,
+    List<HotelSummary> hotels,
+    List<ActivitySummary> activities
+) {
+
+    public int size() {
+        return destinations.size() + hotels.size() + activities.size();
+    }
+}
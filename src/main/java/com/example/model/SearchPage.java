@@ -0,0 +1,18 @@
+package com.example.model;
+
+import java.util.Set;
+
+/**
+ * One page of a vector search: at most {@code limit} rows within {@code maxDistance} (cosine),
+ * skipping rows that earlier pages already returned.
+ */
+public record SearchPage(
+    int limit,
+    double maxDistance,
+    Set<Long> excludedIds
+) {
+
+    public SearchPage(int limit, double maxDistance) {
+        this(limit, maxDistance, Set.of());
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.model;
+
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.data.model.vector.FloatVector;
+import io.micronaut.data.model.vector.Vector;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * What a catalog search ranks by: the query embedding, or, while embeddings are unavailable,
+ * the query's keywords (rows matching more keywords in name or summary rank first).
+ */
+public record SearchQuery(
+    @Nullable Vector embedding,
+    List<String> keywords
+) {
+    private static final int MIN_KEYWORD_LENGTH = 3;
+    private static final int MAX_KEYWORDS = 8;
+
+    public static SearchQuery semantic(float[] embedding) {
+        return new SearchQuery(new FloatVector(embedding), List.of());
+    }
+
+    public static SearchQuery lexical(String text) {
+        List<String> keywords = Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+            .filter(word -> word.length() >= MIN_KEYWORD_LENGTH)
+            .distinct()
+            .limit(MAX_KEYWORDS)
+            .toList();
+        return new SearchQuery(null, keywords);
+    }
+
+    public boolean isLexical() {
+        return embedding == null;
+    }
+}
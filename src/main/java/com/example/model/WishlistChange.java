@@ -0,0 +1,9 @@
+package com.example.model;
+
+import io.micronaut.serde.annotation.Serdeable;
+
+import java.util.List;
+
+@Serdeable
+public record WishlistChange(int changed, List<String> names, List<WishlistItem> notFound) {
+}
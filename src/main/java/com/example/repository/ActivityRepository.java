@@ -12,10 +12,6 @@ import java.util.List;
 @JdbcRepository(dialect = Dialect.ORACLE)
 public interface ActivityRepository extends CrudRepository<ActivityEntity, Long> {
 
-    List<ActivityEntity> findTop5ByDescriptionEmbeddingNear(Vector embedding, Double maxDistance);
-
-    List<ActivityEntity> findTop5ByDestinationIdAndDescriptionEmbeddingNear(Long destinationId, Vector embedding, Double maxDistance);
-
     List<ActivityEntity> findByDescriptionEmbeddingIsNull();
 
     @Query(value = "UPDATE activities SET description_embedding = :embedding WHERE id = :id", nativeQuery = true)
@@ -0,0 +1,110 @@
+package com.example.repository;
+
+import com.example.model.CatalogChange;
+import com.example.model.ItemType;
+import com.example.tracing.TravelTracer;
+import io.micronaut.data.connection.annotation.Connectable;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads and prunes the {@code catalog_changes} log written by the catalog table triggers.
+ */
+@Singleton
+@Connectable
+public class CatalogChangeRepository {
+    private static final Logger LOG = LoggerFactory.getLogger(CatalogChangeRepository.class);
+    private static final String TABLE = "catalog_changes";
+
+    private final DataSource dataSource;
+    private final TravelTracer tracer;
+
+    public CatalogChangeRepository(DataSource dataSource, TravelTracer tracer) {
+        this.dataSource = dataSource;
+        this.tracer = tracer;
+    }
+
+    /**
+     * The highest change ID so far, 0 when the log is empty; empty when it could not be read.
+     */
+    public Optional<Long> findLatestId() {
+        return tracer.statement("SELECT", TABLE, span -> {
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement("SELECT NVL(MAX(id), 0) FROM " + TABLE);
+                 ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return Optional.of(rs.getLong(1));
+            } catch (SQLException e) {
+                LOG.error("Error reading the latest catalog change", e);
+                TravelTracer.recordError(span, e);
+                return Optional.empty();
+            }
+        });
+    }
+
+    /**
+     * Up to {@code limit} changes with an ID above {@code afterId}, in ID order; empty when
+     * the log could not be read.
+     */
+    public Optional<List<CatalogChange>> findAfter(long afterId, int limit) {
+        String sql = "SELECT id, item_type, item_id, operation FROM " + TABLE
+            + " WHERE id > ? ORDER BY id FETCH FIRST ? ROWS ONLY";
+        return tracer.statement("SELECT", TABLE, span -> {
+            List<CatalogChange> changes = new ArrayList<>();
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setLong(1, afterId);
+                stmt.setInt(2, limit);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        long id = rs.getLong("id");
+                        String itemType = rs.getString("item_type");
+                        Optional<ItemType> type = ItemType.from(itemType);
+                        if (type.isEmpty()) {
+                            LOG.warn("Ignoring catalog change {} of unknown item type {}", id, itemType);
+                            continue;
+                        }
+                        changes.add(new CatalogChange(id, type.get(), rs.getLong("item_id"), rs.getString("operation")));
+                    }
+                }
+            } catch (SQLException e) {
+                LOG.error("Error reading catalog changes after {}", afterId, e);
+                TravelTracer.recordError(span, e);
+                return Optional.empty();
+            }
+            span.setAttribute(TravelTracer.RESULT_COUNT, changes.size());
+            return Optional.of(changes);
+        });
+    }
+
+    /**
+     * @return the number of log entries deleted
+     */
+    public int deleteOlderThan(Duration age) {
+        String sql = "DELETE FROM " + TABLE + " WHERE changed_at < SYSTIMESTAMP - NUMTODSINTERVAL(?, 'SECOND')";
+        return tracer.statement("DELETE", TABLE, span -> {
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setLong(1, age.toSeconds());
+                int deleted = stmt.executeUpdate();
+                span.setAttribute(TravelTracer.RESULT_COUNT, deleted);
+                return deleted;
+            } catch (SQLException e) {
+                LOG.error("Error pruning catalog changes older than {}", age, e);
+                TravelTracer.recordError(span, e);
+                return 0;
+            }
+        });
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.repository;
+
+import com.example.model.CatalogEntry;
+import com.example.model.ItemDetails;
+import com.example.model.ItemType;
+import com.example.tracing.TravelTracer;
+import io.micronaut.data.connection.annotation.Connectable;
+import io.micronaut.data.model.geo.Point;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Singleton
+@Connectable
+public class CatalogLookupRepository {
+    private static final Logger LOG = LoggerFactory.getLogger(CatalogLookupRepository.class);
+    private static final int MAX_IN_LIST = 1000;
+
+    private final DataSource dataSource;
+    private final TravelTracer tracer;
+
+    public CatalogLookupRepository(DataSource dataSource, TravelTracer tracer) {
+        this.dataSource = dataSource;
+        this.tracer = tracer;
+    }
+
+    /**
+     * Display fields of the rows with these IDs; IDs without a row are left out.
+     */
+    public Map<Long, CatalogEntry> findEntries(ItemType type, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        String columns = switch (type) {
+            case DESTINATION -> "id, name, region, NULL AS price_per_night, NULL AS season";
+            case HOTEL -> "id, name, NULL AS region, price_per_night, NULL AS season";
+            case ACTIVITY -> "id, name, NULL AS region, NULL AS price_per_night, season";
+        };
+        return tracer.statement("SELECT", type.table(), span -> {
+            Map<Long, CatalogEntry> entries = new HashMap<>();
+            List<Long> idList = List.copyOf(ids);
+            try (Connection conn = dataSource.getConnection()) {
+                for (int from = 0; from < idList.size(); from += MAX_IN_LIST) {
+                    List<Long> chunk = idList.subList(from, Math.min(idList.size(), from + MAX_IN_LIST));
+                    String sql = "SELECT " + columns + " FROM " + type.table() + " WHERE id IN (" + placeholders(chunk.size()) + ")";
+                    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                        for (int i = 0; i < chunk.size(); i++) {
+                            stmt.setLong(i + 1, chunk.get(i));
+                        }
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            while (rs.next()) {
+                                long id = rs.getLong("id");
+                                double price = rs.getDouble("price_per_night");
+                                Double pricePerNight = rs.wasNull() ? null : price;
+                                entries.put(id, new CatalogEntry(type, id, rs.getString("name"), rs.getString("region"),
+                                    pricePerNight, rs.getString("season")));
+                            }
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                LOG.error("Error looking up {} entries", type.value(), e);
+                TravelTracer.recordError(span, e);
+            }
+            span.setAttribute(TravelTracer.RESULT_COUNT, entries.size());
+            return entries;
+        });
+    }
+
+    /**
+     * Name and location of every destination that has one, in name order, without loading
+     * descriptions or embeddings.
+     */
+    public Map<String, Point> findDestinationLocations() {
+        String sql = """
+            SELECT d.name, d.location.sdo_point.x AS longitude, d.location.sdo_point.y AS latitude
+            FROM destinations d
+            WHERE d.location IS NOT NULL
+            ORDER BY d.name
+            """;
+        return tracer.statement("SELECT", ItemType.DESTINATION.table(), span -> {
+            Map<String, Point> locations = new LinkedHashMap<>();
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    locations.put(rs.getString("name"), new Point(rs.getDouble("longitude"), rs.getDouble("latitude")));
+                }
+            } catch (SQLException e) {
+                LOG.error("Error looking up destination locations", e);
+                TravelTracer.recordError(span, e);
+            }
+            span.setAttribute(TravelTracer.RESULT_COUNT, locations.size());
+            return locations;
+        });
+    }
+
+    public Optional<ItemDetails> findDetails(ItemType type, Long id) {
+        String sql = "SELECT id, name, description FROM " + type.table() + " WHERE id = ?";
+        return tracer.statement("SELECT", type.table(), span -> {
+            span.setAttribute(TravelTracer.ITEM_ID, id);
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setLong(1, id);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        return Optional.of(new ItemDetails(type.value(), rs.getLong("id"), rs.getString("name"), rs.getString("description")));
+                    }
+                }
+            } catch (SQLException e) {
+                LOG.error("Error finding {} id={}", type.value(), id, e);
+                TravelTracer.recordError(span, e);
+            }
+            return Optional.empty();
+        });
+    }
+
+    /**
+     * Any stored catalog vector, for exercising vector searches without calling the embedding provider.
+     */
+    public Optional<float[]> findSampleEmbedding(ItemType type) {
+        String sql = "SELECT description_embedding FROM " + type.table()
+            + " WHERE description_embedding IS NOT NULL FETCH FIRST 1 ROWS ONLY";
+        return tracer.statement("SELECT", type.table(), span -> {
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql);
+                 ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.ofNullable(rs.getObject(1, float[].class));
+                }
+            } catch (SQLException e) {
+                LOG.error("Error finding a sample {} embedding", type.value(), e);
+                TravelTracer.recordError(span, e);
+            }
+            return Optional.empty();
+        });
+    }
+
+    private String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
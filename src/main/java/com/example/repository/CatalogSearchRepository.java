@@ -0,0 +1,484 @@
+package com.example.repository;
+
+import com.example.model.ActivitySummary;
+import com.example.model.DestinationSummary;
+import com.example.model.GeoCorridor;
+import com.example.model.GeoRadius;
+import com.example.model.HotelSummary;
+import com.example.model.ItemType;
+import com.example.model.RouteMatches;
+import com.example.model.SearchPage;
+import com.example.model.SearchQuery;
+import com.example.search.SearchPlan;
+import com.example.search.SearchPlanner;
+import com.example.tracing.TravelTracer;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.data.connection.annotation.Connectable;
+import io.micronaut.data.model.geo.Point;
+import jakarta.inject.Singleton;
+import oracle.jdbc.OracleType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Vector searches, optionally restricted to a radius or a route corridor, that read only the
+ * VARCHAR2 summary projection: no description CLOB and no embedding column is fetched.
+ * {@link SearchPlanner} decides per page whether the filters run before an exact scan, inside
+ * an approximate search, or after it. Hotels and activities are partitioned by destination, so
+ * a destination filter only touches that destination's rows and local index partition. A
+ * keyword {@link SearchQuery}, used while embeddings are unavailable, ranks by the share of
+ * keywords found in the row's text.
+ */
+@Singleton
+@Connectable
+public class CatalogSearchRepository {
+    private static final Logger LOG = LoggerFactory.getLogger(CatalogSearchRepository.class);
+    private static final int MAX_IN_LIST = 1000;
+    private static final String DESTINATION_TEXT = "t.name || ' ' || t.region || ' ' || t.summary";
+    private static final String HOTEL_TEXT = "t.name || ' ' || d.name || ' ' || t.summary";
+    private static final String ACTIVITY_TEXT = "t.name || ' ' || d.name || ' ' || t.season || ' ' || t.summary";
+
+    private final DataSource dataSource;
+    private final SearchPlanner planner;
+    private final TravelTracer tracer;
+
+    public CatalogSearchRepository(DataSource dataSource, SearchPlanner planner, TravelTracer tracer) {
+        this.dataSource = dataSource;
+        this.planner = planner;
+        this.tracer = tracer;
+    }
+
+    public List<DestinationSummary> searchDestinations(SearchQuery query, @Nullable GeoRadius near, SearchPage page) {
+        SearchSql sql = new SearchSql(query, "t.id, t.name, t.region, t.summary", "destinations t", DESTINATION_TEXT);
+        sql.within(near);
+        Supplier<SearchPlan> plan = () -> planner.plan(ItemType.DESTINATION, null, null, near != null, page);
+        return search(ItemType.DESTINATION, sql, plan, near, page, rs -> new DestinationSummary(
+            rs.getLong("id"),
+            rs.getString("name"),
+            rs.getString("region"),
+            rs.getString("summary"),
+            rs.getDouble("distance")
+        ));
+    }
+
+    public List<HotelSummary> searchHotels(
+        SearchQuery query,
+        @Nullable Long destinationId,
+        @Nullable Double maxPrice,
+        @Nullable GeoRadius near,
+        SearchPage page
+    ) {
+        SearchSql sql = new SearchSql(
+            query,
+            "t.id, t.destination_id, d.name AS destination_name, t.name, t.price_per_night, t.summary",
+            "hotels t JOIN destinations d ON d.id = t.destination_id",
+            HOTEL_TEXT
+        );
+        if (destinationId != null) {
+            sql.filter("t.destination_id = ?", (stmt, index) -> stmt.setLong(index, destinationId));
+        }
+        if (maxPrice != null) {
+            sql.filter("t.price_per_night <= ?", (stmt, index) -> stmt.setDouble(index, maxPrice));
+        }
+        sql.within(near);
+        Supplier<SearchPlan> plan = () -> planner.plan(ItemType.HOTEL, destinationId, maxPrice, near != null, page);
+        return search(ItemType.HOTEL, sql, plan, near, page, rs -> new HotelSummary(
+            rs.getLong("id"),
+            rs.getLong("destination_id"),
+            rs.getString("destination_name"),
+            rs.getString("name"),
+            rs.getDouble("price_per_night"),
+            rs.getString("summary"),
+            rs.getDouble("distance")
+        ));
+    }
+
+    public List<ActivitySummary> searchActivities(
+        SearchQuery query,
+        @Nullable Long destinationId,
+        @Nullable GeoRadius near,
+        SearchPage page
+    ) {
+        SearchSql sql = new SearchSql(
+            query,
+            "t.id, t.destination_id, d.name AS destination_name, t.name, t.season, t.summary",
+            "activities t JOIN destinations d ON d.id = t.destination_id",
+            ACTIVITY_TEXT
+        );
+        if (destinationId != null) {
+            sql.filter("t.destination_id = ?", (stmt, index) -> stmt.setLong(index, destinationId));
+        }
+        sql.within(near);
+        Supplier<SearchPlan> plan = () -> planner.plan(ItemType.ACTIVITY, destinationId, null, near != null, page);
+        return search(ItemType.ACTIVITY, sql, plan, near, page, rs -> new ActivitySummary(
+            rs.getLong("id"),
+            rs.getLong("destination_id"),
+            rs.getString("destination_name"),
+            rs.getString("name"),
+            rs.getString("season"),
+            rs.getString("summary"),
+            rs.getDouble("distance")
+        ));
+    }
+
+    /**
+     * Destinations, hotels and activities within the corridor, in one statement: a branch per
+     * table, each ranked by distance and limited to {@code page.limit()}.
+     */
+    public RouteMatches searchAlongRoute(SearchQuery query, GeoCorridor corridor, SearchPage page) {
+        List<SearchSql> branches = List.of(
+            new SearchSql(
+                query,
+                "'destination' AS item_type, t.id, CAST(NULL AS NUMBER) AS destination_id, "
+                    + "CAST(NULL AS VARCHAR2(255)) AS destination_name, t.name, t.region, "
+                    + "CAST(NULL AS NUMBER) AS price_per_night, CAST(NULL AS VARCHAR2(50)) AS season, t.summary",
+                "destinations t",
+                DESTINATION_TEXT
+            ),
+            new SearchSql(
+                query,
+                "'hotel' AS item_type, t.id, t.destination_id, d.name AS destination_name, t.name, "
+                    + "CAST(NULL AS VARCHAR2(255)) AS region, t.price_per_night, CAST(NULL AS VARCHAR2(50)) AS season, t.summary",
+                "hotels t JOIN destinations d ON d.id = t.destination_id",
+                HOTEL_TEXT
+            ),
+            new SearchSql(
+                query,
+                "'activity' AS item_type, t.id, t.destination_id, d.name AS destination_name, t.name, "
+                    + "CAST(NULL AS VARCHAR2(255)) AS region, CAST(NULL AS NUMBER) AS price_per_night, t.season, t.summary",
+                "activities t JOIN destinations d ON d.id = t.destination_id",
+                ACTIVITY_TEXT
+            )
+        );
+        SearchPlan plan = SearchPlan.exact(0, "the route corridor is resolved through the spatial index first");
+        StringBuilder sql = new StringBuilder("SELECT * FROM (\n");
+        List<Binder> binders = new ArrayList<>();
+        for (int i = 0; i < branches.size(); i++) {
+            branches.get(i).along(corridor);
+            Statement branch = branches.get(i).render(plan, page);
+            sql.append(i == 0 ? "" : "UNION ALL\n").append("SELECT * FROM (\n").append(branch.sql()).append("\n)\n");
+            binders.addAll(branch.binders());
+        }
+        sql.append(") ORDER BY distance");
+
+        List<DestinationSummary> destinations = new ArrayList<>();
+        List<HotelSummary> hotels = new ArrayList<>();
+        List<ActivitySummary> activities = new ArrayList<>();
+        List<Object> rows = query("destinations, hotels, activities", new Statement(sql.toString(), binders), plan, page,
+            corridor.widthKm(), rs -> switch (ItemType.from(rs.getString("item_type")).orElseThrow()) {
+                case DESTINATION -> new DestinationSummary(
+                    rs.getLong("id"),
+                    rs.getString("name"),
+                    rs.getString("region"),
+                    rs.getString("summary"),
+                    rs.getDouble("distance")
+                );
+                case HOTEL -> new HotelSummary(
+                    rs.getLong("id"),
+                    rs.getLong("destination_id"),
+                    rs.getString("destination_name"),
+                    rs.getString("name"),
+                    rs.getDouble("price_per_night"),
+                    rs.getString("summary"),
+                    rs.getDouble("distance")
+                );
+                case ACTIVITY -> new ActivitySummary(
+                    rs.getLong("id"),
+                    rs.getLong("destination_id"),
+                    rs.getString("destination_name"),
+                    rs.getString("name"),
+                    rs.getString("season"),
+                    rs.getString("summary"),
+                    rs.getDouble("distance")
+                );
+            }).rows();
+        for (Object row : rows) {
+            switch (row) {
+                case DestinationSummary destination -> destinations.add(destination);
+                case HotelSummary hotel -> hotels.add(hotel);
+                case ActivitySummary activity -> activities.add(activity);
+                default -> throw new IllegalStateException("Unexpected route match " + row);
+            }
+        }
+        return new RouteMatches(destinations, hotels, activities);
+    }
+
+    private <T> List<T> search(
+        ItemType type,
+        SearchSql sql,
+        Supplier<SearchPlan> planning,
+        @Nullable GeoRadius near,
+        SearchPage page,
+        RowMapper<T> mapper
+    ) {
+        if (sql.query.isLexical()) {
+            // No vector index helps a keyword search.
+            return execute(type, sql, SearchPlan.exact(0, "keyword search"), near, page, mapper).rows();
+        }
+        SearchPlan plan = planning.get();
+        Rows<T> results = execute(type, sql, plan, near, page, mapper);
+        // An approximate page is short either because the distance cutoff was reached, which a
+        // retry cannot change, or because the filters or excluded IDs used up the candidates.
+        // Only the latter is retried, over a bounded number of candidates.
+        long expected = Math.min(page.limit(), plan.estimatedRows() - page.excludedIds().size());
+        if (plan.strategy() != SearchPlan.Strategy.EXACT_PREFILTER && !results.reachedCutoff()
+            && results.rows().size() < expected) {
+            Optional<SearchPlan> wider = planner.widen(type, plan);
+            if (wider.isPresent()) {
+                LOG.info("{} plan for {} returned {} of {} expected rows from {} candidates, retrying with {}",
+                    plan.strategy(), type.table(), results.rows().size(), expected, plan.fetchSize(), wider.get().fetchSize());
+                results = execute(type, sql, wider.get(), near, page, mapper);
+            }
+        }
+        return results.rows();
+    }
+
+    private <T> Rows<T> execute(
+        ItemType type,
+        SearchSql sql,
+        SearchPlan plan,
+        @Nullable GeoRadius near,
+        SearchPage page,
+        RowMapper<T> mapper
+    ) {
+        return query(type.table(), sql.render(plan, page), plan, page, near == null ? null : near.radiusKm(), mapper);
+    }
+
+    /**
+     * Runs a search statement. Approximate statements leave the distance cutoff to this method:
+     * rows come ordered by distance, so reading stops at the first row beyond it.
+     */
+    private <T> Rows<T> query(
+        String table,
+        Statement statement,
+        SearchPlan plan,
+        SearchPage page,
+        @Nullable Double radiusKm,
+        RowMapper<T> mapper
+    ) {
+        return tracer.statement("SELECT", table, span -> {
+            if (radiusKm != null) {
+                span.setAttribute(TravelTracer.RADIUS_KM, radiusKm);
+            }
+            span.setAttribute(TravelTracer.SEARCH_LIMIT, page.limit());
+            span.setAttribute(TravelTracer.SEARCH_MAX_DISTANCE, page.maxDistance());
+            span.setAttribute(TravelTracer.SEARCH_EXCLUDED, page.excludedIds().size());
+            span.setAttribute(TravelTracer.SEARCH_PLAN, plan.strategy().name());
+            span.setAttribute(TravelTracer.SEARCH_FETCH_SIZE, plan.fetchSize());
+            boolean approximate = plan.strategy() != SearchPlan.Strategy.EXACT_PREFILTER;
+            List<T> results = new ArrayList<>();
+            boolean reachedCutoff = false;
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(statement.sql())) {
+                statement.bind(stmt);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        if (approximate && rs.getDouble("distance") > page.maxDistance()) {
+                            reachedCutoff = true;
+                            break;
+                        }
+                        results.add(mapper.map(rs));
+                    }
+                }
+            } catch (SQLException e) {
+                LOG.error("Error searching {}", table, e);
+                TravelTracer.recordError(span, e);
+            }
+            span.setAttribute(TravelTracer.RESULT_COUNT, results.size());
+            return new Rows<>(results, reachedCutoff);
+        });
+    }
+
+    /**
+     * {@code reachedCutoff}: a row beyond the page's distance cutoff was read, so the page is
+     * complete however short it is.
+     */
+    private record Rows<T>(List<T> rows, boolean reachedCutoff) {
+    }
+
+    @FunctionalInterface
+    private interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface Binder {
+        void bind(PreparedStatement stmt, int index) throws SQLException;
+    }
+
+    private record Condition(String predicate, List<Binder> binders) {
+    }
+
+    private record Statement(String sql, List<Binder> binders) {
+
+        void bind(PreparedStatement stmt) throws SQLException {
+            for (int i = 0; i < binders.size(); i++) {
+                binders.get(i).bind(stmt, i + 1);
+            }
+        }
+    }
+
+    /**
+     * A search before planning. The destination and price filters go before an exact scan, inside
+     * an approximate search, or around it; the radius, corridor, paging and distance conditions
+     * always stay inside. A keyword query's distance is the share of keywords missing from {@code text}.
+     */
+    private static final class SearchSql {
+        private final SearchQuery query;
+        private final String columns;
+        private final String from;
+        private final String text;
+        private final List<Condition> filters = new ArrayList<>();
+        private final List<Condition> conditions = new ArrayList<>();
+
+        SearchSql(SearchQuery query, String columns, String from, String text) {
+            this.query = query;
+            this.columns = columns;
+            this.from = from;
+            this.text = text;
+        }
+
+        void filter(String predicate, Binder... binders) {
+            filters.add(new Condition(predicate, List.of(binders)));
+        }
+
+        void within(@Nullable GeoRadius near) {
+            if (near == null) {
+                return;
+            }
+            conditions.add(new Condition("t.location IS NOT NULL", List.of()));
+            conditions.add(new Condition("""
+                SDO_WITHIN_DISTANCE(
+                        t.location,
+                        MDSYS.SDO_GEOMETRY(2001, 4326, MDSYS.SDO_POINT_TYPE(?, ?, NULL), NULL, NULL),
+                        'distance=' || ? || ' unit=KM'
+                      ) = 'TRUE'""", List.of(
+                (stmt, index) -> stmt.setDouble(index, near.longitude()),
+                (stmt, index) -> stmt.setDouble(index, near.latitude()),
+                (stmt, index) -> stmt.setDouble(index, near.radiusKm())
+            )));
+        }
+
+        /**
+         * Rows within the corridor's width of the line through its waypoints. The spatial index
+         * answers this directly, without materializing a buffer polygon.
+         */
+        void along(GeoCorridor corridor) {
+            List<Binder> binders = new ArrayList<>();
+            for (Point waypoint : corridor.waypoints()) {
+                binders.add((stmt, index) -> stmt.setDouble(index, waypoint.x()));
+                binders.add((stmt, index) -> stmt.setDouble(index, waypoint.y()));
+            }
+            binders.add((stmt, index) -> stmt.setDouble(index, corridor.widthKm()));
+            String ordinates = String.join(", ", Collections.nCopies(corridor.waypoints().size() * 2, "?"));
+            conditions.add(new Condition("t.location IS NOT NULL", List.of()));
+            conditions.add(new Condition("""
+                SDO_WITHIN_DISTANCE(
+                        t.location,
+                        MDSYS.SDO_GEOMETRY(2002, 4326, NULL, MDSYS.SDO_ELEM_INFO_ARRAY(1, 2, 1), MDSYS.SDO_ORDINATE_ARRAY(%s)),
+                        'distance=' || ? || ' unit=KM'
+                      ) = 'TRUE'""".formatted(ordinates), binders));
+        }
+
+        Statement render(SearchPlan plan, SearchPage page) {
+            boolean approximate = plan.strategy() != SearchPlan.Strategy.EXACT_PREFILTER;
+            boolean postFilter = plan.strategy() == SearchPlan.Strategy.ANN_POSTFILTER;
+            StringBuilder sql = new StringBuilder();
+            List<Binder> binders = new ArrayList<>();
+
+            if (approximate) {
+                sql.append("SELECT * FROM (\n");
+            }
+            Condition distance = distance();
+            sql.append("SELECT ").append(columns).append(", ").append(distance.predicate()).append(" AS distance\n")
+                .append("FROM ").append(from).append('\n');
+            binders.addAll(distance.binders());
+            List<Condition> inner = new ArrayList<>();
+            if (!query.isLexical()) {
+                inner.add(new Condition("t.description_embedding IS NOT NULL", List.of()));
+            }
+            inner.addAll(conditions);
+            if (!postFilter) {
+                inner.addAll(filters);
+            }
+            inner.addAll(pageConditions(page, !approximate));
+            for (int i = 0; i < inner.size(); i++) {
+                sql.append(i == 0 ? "WHERE " : "  AND ").append(inner.get(i).predicate()).append('\n');
+                binders.addAll(inner.get(i).binders());
+            }
+            sql.append("ORDER BY distance\n");
+
+            if (approximate) {
+                sql.append("FETCH APPROX FIRST ? ROWS ONLY\n) t\n");
+                binders.add((stmt, index) -> stmt.setInt(index, Math.max(plan.fetchSize(), page.limit())));
+                for (int i = 0; postFilter && i < filters.size(); i++) {
+                    sql.append(i == 0 ? "WHERE " : "  AND ").append(filters.get(i).predicate()).append('\n');
+                    binders.addAll(filters.get(i).binders());
+                }
+                sql.append("ORDER BY distance\n");
+            }
+            sql.append("FETCH FIRST ? ROWS ONLY");
+            binders.add((stmt, index) -> stmt.setInt(index, page.limit()));
+            return new Statement(sql.toString(), binders);
+        }
+
+        /**
+         * Excluded IDs and, when {@code cutoff}, the distance cutoff. An approximate statement
+         * leaves the cutoff to the caller, which can then tell a page cut by distance from one
+         * whose candidates ran out.
+         */
+        private List<Condition> pageConditions(SearchPage page, boolean cutoff) {
+            List<Condition> pageConditions = new ArrayList<>();
+            List<Long> excluded = List.copyOf(page.excludedIds());
+            for (int from = 0; from < excluded.size(); from += MAX_IN_LIST) {
+                List<Long> chunk = excluded.subList(from, Math.min(excluded.size(), from + MAX_IN_LIST));
+                pageConditions.add(new Condition(
+                    "t.id NOT IN (" + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")",
+                    chunk.stream().<Binder>map(id -> (stmt, index) -> stmt.setLong(index, id)).toList()
+                ));
+            }
+            if (!cutoff) {
+                return pageConditions;
+            }
+            Condition distance = distance();
+            List<Binder> binders = new ArrayList<>(distance.binders());
+            if (query.isLexical()) {
+                // Rows without any keyword are not matches, whatever the page's distance cutoff.
+                pageConditions.add(new Condition(distance.predicate() + " < 1", binders));
+            } else {
+                binders.add((stmt, index) -> stmt.setDouble(index, page.maxDistance()));
+                pageConditions.add(new Condition(distance.predicate() + " <= ?", binders));
+            }
+            return pageConditions;
+        }
+
+        private Condition distance() {
+            if (!query.isLexical()) {
+                return new Condition("VECTOR_DISTANCE(t.description_embedding, ?, COSINE)", List.of(
+                    (stmt, index) -> stmt.setObject(index, query.embedding().toFloatArray(), OracleType.VECTOR)
+                ));
+            }
+            List<String> keywords = query.keywords();
+            if (keywords.isEmpty()) {
+                return new Condition("1", List.of());
+            }
+            String matches = String.join(" + ", Collections.nCopies(keywords.size(),
+                "CASE WHEN INSTR(LOWER(" + text + "), ?) > 0 THEN 1 ELSE 0 END"));
+            return new Condition(
+                "(1 - (" + matches + ") / " + keywords.size() + ")",
+                keywords.stream().<Binder>map(keyword -> (stmt, index) -> stmt.setString(index, keyword)).toList()
+            );
+        }
+    }
+}
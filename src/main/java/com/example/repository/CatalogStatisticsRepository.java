@@ -0,0 +1,86 @@
+package com.example.repository;
+
+import com.example.model.ItemType;
+import com.example.search.TableStatistics;
+import com.example.tracing.TravelTracer;
+import io.micronaut.data.connection.annotation.Connectable;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+@Singleton
+@Connectable
+public class CatalogStatisticsRepository {
+    private static final Logger LOG = LoggerFactory.getLogger(CatalogStatisticsRepository.class);
+
+    private final DataSource dataSource;
+    private final TravelTracer tracer;
+
+    public CatalogStatisticsRepository(DataSource dataSource, TravelTracer tracer) {
+        this.dataSource = dataSource;
+        this.tracer = tracer;
+    }
+
+    /**
+     * Counts searchable rows (rows with an embedding) per destination and, for hotels, per price bucket.
+     * Empty when the statistics could not be read.
+     */
+    public Optional<TableStatistics> load(ItemType type) {
+        String sql = switch (type) {
+            case DESTINATION -> """
+                SELECT NULL AS destination_id, NULL AS price_bucket, COUNT(*) AS row_count
+                FROM destinations
+                WHERE description_embedding IS NOT NULL
+                """;
+            case HOTEL -> """
+                SELECT destination_id, FLOOR(price_per_night / %d) AS price_bucket, COUNT(*) AS row_count
+                FROM hotels
+                WHERE description_embedding IS NOT NULL
+                GROUP BY destination_id, FLOOR(price_per_night / %d)
+                """.formatted(TableStatistics.PRICE_BUCKET_CHF, TableStatistics.PRICE_BUCKET_CHF);
+            case ACTIVITY -> """
+                SELECT destination_id, NULL AS price_bucket, COUNT(*) AS row_count
+                FROM activities
+                WHERE description_embedding IS NOT NULL
+                GROUP BY destination_id
+                """;
+        };
+        return tracer.statement("SELECT", type.table(), span -> {
+            long rows = 0;
+            Map<Long, Long> rowsPerDestination = new HashMap<>();
+            Map<Long, Map<Long, Long>> priceBuckets = new HashMap<>();
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    long count = rs.getLong("row_count");
+                    rows += count;
+                    long destinationId = rs.getLong("destination_id");
+                    if (rs.wasNull()) {
+                        continue;
+                    }
+                    rowsPerDestination.merge(destinationId, count, Long::sum);
+                    long priceBucket = rs.getLong("price_bucket");
+                    if (!rs.wasNull()) {
+                        priceBuckets.computeIfAbsent(destinationId, ignored -> new HashMap<>()).put(priceBucket, count);
+                    }
+                }
+            } catch (SQLException e) {
+                LOG.error("Error loading search statistics for {}", type.table(), e);
+                TravelTracer.recordError(span, e);
+                return Optional.empty();
+            }
+            span.setAttribute(TravelTracer.RESULT_COUNT, rows);
+            return Optional.of(new TableStatistics(rows, Map.copyOf(rowsPerDestination), Map.copyOf(priceBuckets)));
+        });
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.repository;
+
+import com.example.model.CatalogRecord;
+import com.example.model.ItemType;
+import com.example.tracing.TravelTracer;
+import io.micronaut.data.connection.annotation.Connectable;
+import io.micronaut.data.model.geo.Point;
+import jakarta.inject.Singleton;
+import oracle.jdbc.OracleType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads and writes whole catalog rows, vectors and locations included, by natural key: a
+ * destination by name, a hotel or activity by destination name and name. IDs are not carried
+ * over, so an archive loads into a schema whose identity columns have other values.
+ */
+@Singleton
+@Connectable
+public class CatalogTransferRepository {
+    private static final Logger LOG = LoggerFactory.getLogger(CatalogTransferRepository.class);
+    private static final int FETCH_SIZE = 1000;
+    private static final String LOCATION = """
+        CASE WHEN s.longitude IS NULL THEN NULL
+             ELSE MDSYS.SDO_GEOMETRY(2001, 4326, MDSYS.SDO_POINT_TYPE(s.longitude, s.latitude, NULL), NULL, NULL) END""";
+
+    private final DataSource dataSource;
+    private final TravelTracer tracer;
+
+    public CatalogTransferRepository(DataSource dataSource, TravelTracer tracer) {
+        this.dataSource = dataSource;
+        this.tracer = tracer;
+    }
+
+    @FunctionalInterface
+    public interface RecordHandler {
+        void accept(CatalogRecord record) throws IOException;
+    }
+
+    /**
+     * Streams every row of {@code type} to {@code handler} in ID order.
+     *
+     * @return false when the query failed part way
+     */
+    public boolean forEach(ItemType type, RecordHandler handler) throws IOException {
+        String sql = switch (type) {
+            case DESTINATION -> """
+                SELECT NULL AS destination_name, t.name, t.region, NULL AS price_per_night, NULL AS season,
+                       t.description, t.location.sdo_point.x AS longitude, t.location.sdo_point.y AS latitude,
+                       t.description_embedding, t.embedding_source_hash, t.embedding_model
+                FROM destinations t
+                ORDER BY t.id
+                """;
+            case HOTEL -> """
+                SELECT d.name AS destination_name, t.name, NULL AS region, t.price_per_night, NULL AS season,
+                       t.description, t.location.sdo_point.x AS longitude, t.location.sdo_point.y AS latitude,
+                       t.description_embedding, t.embedding_source_hash, t.embedding_model
+                FROM hotels t
+                JOIN destinations d ON d.id = t.destination_id
+                ORDER BY t.id
+                """;
+            case ACTIVITY -> """
+                SELECT d.name AS destination_name, t.name, NULL AS region, NULL AS price_per_night, t.season,
+                       t.description, t.location.sdo_point.x AS longitude, t.location.sdo_point.y AS latitude,
+                       t.description_embedding, t.embedding_source_hash, t.embedding_model
+                FROM activities t
+                JOIN destinations d ON d.id = t.destination_id
+                ORDER BY t.id
+                """;
+        };
+        try {
+            return tracer.statement("SELECT", type.table(), span -> {
+                long count = 0;
+                try (Connection conn = dataSource.getConnection();
+                     PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setFetchSize(FETCH_SIZE);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            handler.accept(mapRecord(type, rs));
+                            count++;
+                        }
+                    }
+                    return true;
+                } catch (SQLException e) {
+                    LOG.error("Error exporting {} after {} rows", type.table(), count, e);
+                    TravelTracer.recordError(span, e);
+                    return false;
+                } catch (IOException e) {
+                    // The consumer went away; not a database error.
+                    throw new UncheckedIOException(e);
+                } finally {
+                    span.setAttribute(TravelTracer.RESULT_COUNT, count);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Inserts or updates {@code records}, all of {@code type}, as one batch in one transaction,
+     * so a failed batch leaves no row changed. Hotels and activities whose destination does not
+     * exist are skipped.
+     *
+     * @return the number of rows inserted or updated, or empty if the batch failed
+     */
+    public Optional<Integer> merge(ItemType type, List<CatalogRecord> records) {
+        if (records.isEmpty()) {
+            return Optional.of(0);
+        }
+        String sql = switch (type) {
+            case DESTINATION -> """
+                MERGE INTO destinations t
+                USING (SELECT ? AS name, ? AS region, ? AS description, ? AS longitude, ? AS latitude,
+                              ? AS description_embedding, ? AS embedding_source_hash, ? AS embedding_model
+                       FROM dual) s
+                ON (t.name = s.name)
+                WHEN MATCHED THEN UPDATE SET
+                    t.region = s.region, t.description = s.description, t.location = %1$s,
+                    t.description_embedding = s.description_embedding,
+                    t.embedding_source_hash = s.embedding_source_hash, t.embedding_model = s.embedding_model
+                WHEN NOT MATCHED THEN INSERT
+                    (name, region, description, location, description_embedding, embedding_source_hash, embedding_model)
+                    VALUES (s.name, s.region, s.description, %1$s,
+                            s.description_embedding, s.embedding_source_hash, s.embedding_model)
+                """.formatted(LOCATION);
+            case HOTEL -> """
+                MERGE INTO hotels t
+                USING (SELECT d.id AS destination_id, ? AS name, ? AS price_per_night, ? AS description,
+                              ? AS longitude, ? AS latitude, ? AS description_embedding,
+                              ? AS embedding_source_hash, ? AS embedding_model
+                       FROM destinations d WHERE d.name = ?) s
+                ON (t.destination_id = s.destination_id AND t.name = s.name)
+                WHEN MATCHED THEN UPDATE SET
+                    t.price_per_night = s.price_per_night, t.description = s.description, t.location = %1$s,
+                    t.description_embedding = s.description_embedding,
+                    t.embedding_source_hash = s.embedding_source_hash, t.embedding_model = s.embedding_model
+                WHEN NOT MATCHED THEN INSERT
+                    (destination_id, name, price_per_night, description, location,
+                     description_embedding, embedding_source_hash, embedding_model)
+                    VALUES (s.destination_id, s.name, s.price_per_night, s.description, %1$s,
+                            s.description_embedding, s.embedding_source_hash, s.embedding_model)
+                """.formatted(LOCATION);
+            case ACTIVITY -> """
+                MERGE INTO activities t
+                USING (SELECT d.id AS destination_id, ? AS name, ? AS season, ? AS description,
+                              ? AS longitude, ? AS latitude, ? AS description_embedding,
+                              ? AS embedding_source_hash, ? AS embedding_model
+                       FROM destinations d WHERE d.name = ?) s
+                ON (t.destination_id = s.destination_id AND t.name = s.name)
+                WHEN MATCHED THEN UPDATE SET
+                    t.season = s.season, t.description = s.description, t.location = %1$s,
+                    t.description_embedding = s.description_embedding,
+                    t.embedding_source_hash = s.embedding_source_hash, t.embedding_model = s.embedding_model
+                WHEN NOT MATCHED THEN INSERT
+                    (destination_id, name, season, description, location,
+                     description_embedding, embedding_source_hash, embedding_model)
+                    VALUES (s.destination_id, s.name, s.season, s.description, %1$s,
+                            s.description_embedding, s.embedding_source_hash, s.embedding_model)
+                """.formatted(LOCATION);
+        };
+        return tracer.statement("MERGE", type.table(), span -> {
+            int merged = 0;
+            try (Connection conn = dataSource.getConnection()) {
+                conn.setAutoCommit(false);
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    for (CatalogRecord record : records) {
+                        bind(stmt, record);
+                        stmt.addBatch();
+                    }
+                    for (int count : stmt.executeBatch()) {
+                        merged += Math.max(count, 0);
+                    }
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+                span.setAttribute(TravelTracer.RESULT_COUNT, merged);
+                return Optional.of(merged);
+            } catch (SQLException e) {
+                LOG.error("Error importing a batch of {} {}", records.size(), type.table(), e);
+                TravelTracer.recordError(span, e);
+                return Optional.empty();
+            }
+        });
+    }
+
+    private void bind(PreparedStatement stmt, CatalogRecord record) throws SQLException {
+        int index = 1;
+        stmt.setString(index++, record.name());
+        switch (record.type()) {
+            case DESTINATION -> stmt.setString(index++, record.region());
+            case HOTEL -> stmt.setDouble(index++, record.pricePerNight());
+            case ACTIVITY -> stmt.setString(index++, record.season());
+        }
+        // description is a CLOB: setString fails with ORA-01461 past 4000 bytes.
+        String description = record.description();
+        if (description != null) {
+            stmt.setCharacterStream(index++, new StringReader(description), description.length());
+        } else {
+            stmt.setNull(index++, Types.CLOB);
+        }
+        Point location = record.location();
+        if (location != null) {
+            stmt.setDouble(index++, location.x());
+            stmt.setDouble(index++, location.y());
+        } else {
+            stmt.setNull(index++, Types.NUMERIC);
+            stmt.setNull(index++, Types.NUMERIC);
+        }
+        stmt.setObject(index++, record.embedding(), OracleType.VECTOR);
+        stmt.setString(index++, record.embeddingSourceHash());
+        stmt.setString(index++, record.embeddingModel());
+        if (record.type() != ItemType.DESTINATION) {
+            stmt.setString(index, record.destinationName());
+        }
+    }
+
+    private CatalogRecord mapRecord(ItemType type, ResultSet rs) throws SQLException {
+        double longitude = rs.getDouble("longitude");
+        Point location = rs.wasNull() ? null : new Point(longitude, rs.getDouble("latitude"));
+        double price = rs.getDouble("price_per_night");
+        Double pricePerNight = rs.wasNull() ? null : price;
+        return new CatalogRecord(
+            type,
+            rs.getString("destination_name"),
+            rs.getString("name"),
+            rs.getString("region"),
+            pricePerNight,
+            rs.getString("season"),
+            rs.getString("description"),
+            location,
+            rs.getObject("description_embedding", float[].class),
+            rs.getString("embedding_source_hash"),
+            rs.getString("embedding_model")
+        );
+    }
+}
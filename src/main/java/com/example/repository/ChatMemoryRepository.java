@@ -0,0 +1,228 @@
+package com.example.repository;
+
+import com.example.tracing.TravelTracer;
+import io.micronaut.data.connection.annotation.Connectable;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Serialized chat memory per conversation in {@code chat_memory}. A missing conversation has
+ * revision {@link #NO_REVISION}.
+ */
+@Singleton
+@Connectable
+public class ChatMemoryRepository {
+    private static final Logger LOG = LoggerFactory.getLogger(ChatMemoryRepository.class);
+    private static final String TABLE = "chat_memory";
+    public static final long NO_REVISION = 0;
+
+    private final DataSource dataSource;
+    private final TravelTracer tracer;
+
+    public ChatMemoryRepository(DataSource dataSource, TravelTracer tracer) {
+        this.dataSource = dataSource;
+        this.tracer = tracer;
+    }
+
+    /**
+     * @return the stored conversation, one with no messages and {@link #NO_REVISION} when there
+     * is none, or empty when it could not be read
+     */
+    public Optional<StoredConversation> find(String conversationId) {
+        String sql = "SELECT messages, revision FROM " + TABLE + " WHERE conversation_id = ?";
+        return tracer.statement("SELECT", TABLE, span -> {
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, conversationId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        return Optional.of(new StoredConversation(conversationId, rs.getBytes("messages"), rs.getLong("revision")));
+                    }
+                    return Optional.of(new StoredConversation(conversationId, null, NO_REVISION));
+                }
+            } catch (SQLException e) {
+                LOG.error("Error reading chat memory of conversation {}", conversationId, e);
+                TravelTracer.recordError(span, e);
+                return Optional.empty();
+            }
+        });
+    }
+
+    /**
+     * @return the stored revision, {@link #NO_REVISION} when there is none, or empty when it
+     * could not be read
+     */
+    public Optional<Long> findRevision(String conversationId) {
+        String sql = "SELECT revision FROM " + TABLE + " WHERE conversation_id = ?";
+        return tracer.statement("SELECT", TABLE, span -> {
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, conversationId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return Optional.of(rs.next() ? rs.getLong("revision") : NO_REVISION);
+                }
+            } catch (SQLException e) {
+                LOG.error("Error reading chat memory revision of conversation {}", conversationId, e);
+                TravelTracer.recordError(span, e);
+                return Optional.empty();
+            }
+        });
+    }
+
+    /**
+     * Inserts or replaces these conversations in one transaction. When that fails, each is
+     * written on its own, so one conversation that cannot be stored does not hold back the rest.
+     *
+     * @return the IDs of the conversations that were not written
+     */
+    public Set<String> saveAll(List<StoredConversation> conversations) {
+        if (conversations.isEmpty()) {
+            return Set.of();
+        }
+        return tracer.statement("UPDATE", TABLE, span -> {
+            Set<String> failed = new LinkedHashSet<>();
+            try (Connection conn = dataSource.getConnection()) {
+                conn.setAutoCommit(false);
+                try {
+                    try {
+                        save(conn, conversations);
+                    } catch (SQLException e) {
+                        if (conversations.size() == 1) {
+                            throw e;
+                        }
+                        LOG.warn("Error saving chat memory of {} conversations, writing them one by one", conversations.size(), e);
+                        for (StoredConversation conversation : conversations) {
+                            try {
+                                save(conn, List.of(conversation));
+                            } catch (SQLException single) {
+                                LOG.error("Error saving chat memory of conversation {}", conversation.conversationId(), single);
+                                TravelTracer.recordError(span, single);
+                                failed.add(conversation.conversationId());
+                            }
+                        }
+                    }
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                LOG.error("Error saving chat memory of {} conversation(s)", conversations.size(), e);
+                TravelTracer.recordError(span, e);
+                return conversations.stream().map(StoredConversation::conversationId).collect(Collectors.toSet());
+            }
+            span.setAttribute(TravelTracer.RESULT_COUNT, conversations.size() - failed.size());
+            return failed;
+        });
+    }
+
+    /**
+     * Updates existing rows and inserts the rest, then commits; rolls back on failure. The
+     * messages are streamed, since a bind over 2000 bytes would otherwise go as LONG RAW.
+     */
+    private void save(Connection conn, List<StoredConversation> conversations) throws SQLException {
+        String update = "UPDATE " + TABLE + " SET messages = ?, revision = ?, updated_at = SYSTIMESTAMP WHERE conversation_id = ?";
+        String insert = "INSERT INTO " + TABLE + " (messages, revision, conversation_id) VALUES (?, ?, ?)";
+        try {
+            List<StoredConversation> missing = new ArrayList<>();
+            try (PreparedStatement stmt = conn.prepareStatement(update)) {
+                for (StoredConversation conversation : conversations) {
+                    bind(stmt, conversation);
+                    stmt.addBatch();
+                }
+                int[] counts = stmt.executeBatch();
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] == 0) {
+                        missing.add(conversations.get(i));
+                    }
+                }
+            }
+            if (!missing.isEmpty()) {
+                try (PreparedStatement stmt = conn.prepareStatement(insert)) {
+                    for (StoredConversation conversation : missing) {
+                        bind(stmt, conversation);
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                }
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        }
+    }
+
+    private void bind(PreparedStatement stmt, StoredConversation conversation) throws SQLException {
+        byte[] messages = conversation.messages();
+        stmt.setBinaryStream(1, new ByteArrayInputStream(messages), messages.length);
+        stmt.setLong(2, conversation.revision());
+        stmt.setString(3, conversation.conversationId());
+    }
+
+    /**
+     * @return false when the batch failed
+     */
+    public boolean deleteAll(Collection<String> conversationIds) {
+        if (conversationIds.isEmpty()) {
+            return true;
+        }
+        String sql = "DELETE FROM " + TABLE + " WHERE conversation_id = ?";
+        return tracer.statement("DELETE", TABLE, span -> {
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (String conversationId : conversationIds) {
+                    stmt.setString(1, conversationId);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                span.setAttribute(TravelTracer.RESULT_COUNT, conversationIds.size());
+                return true;
+            } catch (SQLException e) {
+                LOG.error("Error deleting chat memory of {} conversation(s)", conversationIds.size(), e);
+                TravelTracer.recordError(span, e);
+                return false;
+            }
+        });
+    }
+
+    /**
+     * @return the number of conversations not written for {@code idleTimeout}, now deleted
+     */
+    public int deleteIdle(Duration idleTimeout) {
+        String sql = "DELETE FROM " + TABLE + " WHERE updated_at < SYSTIMESTAMP - NUMTODSINTERVAL(?, 'SECOND')";
+        return tracer.statement("DELETE", TABLE, span -> {
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setLong(1, idleTimeout.toSeconds());
+                int deleted = stmt.executeUpdate();
+                span.setAttribute(TravelTracer.RESULT_COUNT, deleted);
+                return deleted;
+            } catch (SQLException e) {
+                LOG.error("Error deleting chat memory idle for {}", idleTimeout, e);
+                TravelTracer.recordError(span, e);
+                return 0;
+            }
+        });
+    }
+
+    /**
+     * {@code messages} is null when nothing is stored.
+     */
+    public record StoredConversation(String conversationId, byte[] messages, long revision) {
+    }
+}
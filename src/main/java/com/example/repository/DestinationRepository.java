@@ -14,10 +14,6 @@ import java.util.Optional;
 @JdbcRepository(dialect = Dialect.ORACLE)
 public interface DestinationRepository extends CrudRepository<DestinationEntity, Long> {
 
-    double MAX_COSINE_DISTANCE = 2.0;
-
-    List<DestinationEntity> findTop5ByDescriptionEmbeddingNear(Vector embedding, Double maxDistance);
-
     List<DestinationEntity> findTop5ByLocationNear(Point point, double distance);
 
     List<DestinationEntity> findByDescriptionEmbeddingIsNull();
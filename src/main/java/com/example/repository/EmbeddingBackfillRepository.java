@@ -1,5 +1,7 @@
 package com.example.repository;
 
+import com.example.model.ItemType;
+import com.example.tracing.TravelTracer;
 import io.micronaut.data.connection.annotation.Connectable;
 import jakarta.inject.Singleton;
 import oracle.jdbc.OracleType;
@@ -13,119 +15,360 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 @Singleton
 @Connectable
 public class EmbeddingBackfillRepository {
     private static final Logger LOG = LoggerFactory.getLogger(EmbeddingBackfillRepository.class);
+    // List-partitioned by destination_id (V9), so their vector indexes are LOCAL: one per destination.
+    private static final Set<ItemType> PARTITIONED = Set.of(ItemType.HOTEL, ItemType.ACTIVITY);
+    /** Maintained by the V14 triggers: a row needs work when its embedding is not of its current text and model. */
+    private static final String STALE = "t.description_embedding IS NULL OR t.embedded_version IS NULL"
+        + " OR t.embedded_version <> t.text_version OR t.embedding_model IS NULL OR t.embedding_model <> ?";
 
     private final DataSource dataSource;
+    private final TravelTracer tracer;
 
-    public EmbeddingBackfillRepository(DataSource dataSource) {
+    public EmbeddingBackfillRepository(DataSource dataSource, TravelTracer tracer) {
         this.dataSource = dataSource;
+        this.tracer = tracer;
     }
 
-    public List<DestinationEmbeddingSeed> findDestinationsWithoutEmbedding() {
-        String sql = "SELECT id, name, region, description FROM destinations WHERE description_embedding IS NULL";
-        List<DestinationEmbeddingSeed> results = new ArrayList<>();
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-            while (rs.next()) {
-                results.add(new DestinationEmbeddingSeed(
-                    rs.getLong("id"),
-                    rs.getString("name"),
-                    rs.getString("region"),
-                    rs.getString("description")
-                ));
+    /**
+     * Rows whose embedding is missing, unverified, generated from an older text version or by
+     * another model; up-to-date rows are not read, descriptions included.
+     */
+    public List<DestinationEmbeddingSeed> findDestinationSeeds(String embeddingModel) {
+        String sql = """
+            SELECT id, name, region, description, embedding_source_hash, embedding_model,
+                   text_version, embedded_version,
+                   CASE WHEN description_embedding IS NULL THEN 0 ELSE 1 END AS has_embedding
+            FROM destinations t
+            WHERE %s
+            """.formatted(STALE);
+        return tracer.statement("SELECT", "destinations", span -> {
+            List<DestinationEmbeddingSeed> results = new ArrayList<>();
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, embeddingModel);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        results.add(new DestinationEmbeddingSeed(
+                            rs.getLong("id"),
+                            rs.getString("name"),
+                            rs.getString("region"),
+                            rs.getString("description"),
+                            rs.getInt("has_embedding") == 1,
+                            rs.getString("embedding_source_hash"),
+                            rs.getString("embedding_model"),
+                            rs.getLong("text_version"),
+                            embeddedVersion(rs)
+                        ));
+                    }
+                }
+            } catch (SQLException e) {
+                LOG.error("Error finding destination embedding seeds", e);
+                TravelTracer.recordError(span, e);
             }
-        } catch (SQLException e) {
-            LOG.error("Error finding destinations without embeddings", e);
-        }
-        return results;
+            span.setAttribute(TravelTracer.RESULT_COUNT, results.size());
+            return results;
+        });
     }
 
-    public List<HotelEmbeddingSeed> findHotelsWithoutEmbedding() {
+    public List<HotelEmbeddingSeed> findHotelSeeds(String embeddingModel) {
         String sql = """
-            SELECT h.id, h.name, h.description, d.name AS destination_name
-            FROM hotels h
-            JOIN destinations d ON h.destination_id = d.id
-            WHERE h.description_embedding IS NULL
-            """;
-        List<HotelEmbeddingSeed> results = new ArrayList<>();
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-            while (rs.next()) {
-                results.add(new HotelEmbeddingSeed(
-                    rs.getLong("id"),
-                    rs.getString("name"),
-                    rs.getString("destination_name"),
-                    rs.getString("description")
-                ));
+            SELECT t.id, t.name, t.description, d.name AS destination_name,
+                   t.embedding_source_hash, t.embedding_model, t.text_version, t.embedded_version,
+                   CASE WHEN t.description_embedding IS NULL THEN 0 ELSE 1 END AS has_embedding
+            FROM hotels t
+            JOIN destinations d ON t.destination_id = d.id
+            WHERE %s
+            """.formatted(STALE);
+        return tracer.statement("SELECT", "hotels", span -> {
+            List<HotelEmbeddingSeed> results = new ArrayList<>();
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, embeddingModel);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        results.add(new HotelEmbeddingSeed(
+                            rs.getLong("id"),
+                            rs.getString("name"),
+                            rs.getString("destination_name"),
+                            rs.getString("description"),
+                            rs.getInt("has_embedding") == 1,
+                            rs.getString("embedding_source_hash"),
+                            rs.getString("embedding_model"),
+                            rs.getLong("text_version"),
+                            embeddedVersion(rs)
+                        ));
+                    }
+                }
+            } catch (SQLException e) {
+                LOG.error("Error finding hotel embedding seeds", e);
+                TravelTracer.recordError(span, e);
             }
-        } catch (SQLException e) {
-            LOG.error("Error finding hotels without embeddings", e);
-        }
-        return results;
+            span.setAttribute(TravelTracer.RESULT_COUNT, results.size());
+            return results;
+        });
     }
 
-    public List<ActivityEmbeddingSeed> findActivitiesWithoutEmbedding() {
+    public List<ActivityEmbeddingSeed> findActivitySeeds(String embeddingModel) {
         String sql = """
-            SELECT a.id, a.name, a.season, a.description, d.name AS destination_name
-            FROM activities a
-            JOIN destinations d ON a.destination_id = d.id
-            WHERE a.description_embedding IS NULL
-            """;
-        List<ActivityEmbeddingSeed> results = new ArrayList<>();
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-            while (rs.next()) {
-                results.add(new ActivityEmbeddingSeed(
-                    rs.getLong("id"),
-                    rs.getString("name"),
-                    rs.getString("destination_name"),
-                    rs.getString("season"),
-                    rs.getString("description")
-                ));
+            SELECT t.id, t.name, t.season, t.description, d.name AS destination_name,
+                   t.embedding_source_hash, t.embedding_model, t.text_version, t.embedded_version,
+                   CASE WHEN t.description_embedding IS NULL THEN 0 ELSE 1 END AS has_embedding
+            FROM activities t
+            JOIN destinations d ON t.destination_id = d.id
+            WHERE %s
+            """.formatted(STALE);
+        return tracer.statement("SELECT", "activities", span -> {
+            List<ActivityEmbeddingSeed> results = new ArrayList<>();
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, embeddingModel);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        results.add(new ActivityEmbeddingSeed(
+                            rs.getLong("id"),
+                            rs.getString("name"),
+                            rs.getString("destination_name"),
+                            rs.getString("season"),
+                            rs.getString("description"),
+                            rs.getInt("has_embedding") == 1,
+                            rs.getString("embedding_source_hash"),
+                            rs.getString("embedding_model"),
+                            rs.getLong("text_version"),
+                            embeddedVersion(rs)
+                        ));
+                    }
+                }
+            } catch (SQLException e) {
+                LOG.error("Error finding activity embedding seeds", e);
+                TravelTracer.recordError(span, e);
             }
-        } catch (SQLException e) {
-            LOG.error("Error finding activities without embeddings", e);
-        }
-        return results;
+            span.setAttribute(TravelTracer.RESULT_COUNT, results.size());
+            return results;
+        });
     }
 
-    public void updateDestinationEmbedding(Long id, float[] embedding) {
-        updateEmbedding("destinations", id, embedding);
+    /**
+     * Stores an embedding generated from text version {@code textVersion}. If the text changed
+     * meanwhile, the row stays stale and is picked up by the next refresh.
+     */
+    public void updateEmbedding(ItemType type, Long id, float[] embedding, String sourceHash, String embeddingModel, long textVersion) {
+        String sql = "UPDATE " + type.table()
+            + " SET description_embedding = ?, embedding_source_hash = ?, embedding_model = ?, embedded_version = ? WHERE id = ?";
+        tracer.statement("UPDATE", type.table(), span -> {
+            span.setAttribute(TravelTracer.ITEM_ID, id);
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setObject(1, embedding, OracleType.VECTOR);
+                stmt.setString(2, sourceHash);
+                stmt.setString(3, embeddingModel);
+                stmt.setLong(4, textVersion);
+                stmt.setLong(5, id);
+                stmt.executeUpdate();
+            } catch (SQLException e) {
+                LOG.error("Error updating embedding for {} id={}", type.table(), id, e);
+                TravelTracer.recordError(span, e);
+            }
+            return null;
+        });
     }
 
-    public void updateHotelEmbedding(Long id, float[] embedding) {
-        updateEmbedding("hotels", id, embedding);
+    public int clearEmbeddingsWithOtherDimensions(ItemType type, int dimensions) {
+        String sql = "UPDATE " + type.table()
+            + " SET description_embedding = NULL, embedding_source_hash = NULL, embedding_model = NULL"
+            + " WHERE description_embedding IS NOT NULL AND VECTOR_DIMENSION_COUNT(description_embedding) <> ?";
+        return tracer.statement("UPDATE", type.table(), span -> {
+            int cleared = 0;
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, dimensions);
+                cleared = stmt.executeUpdate();
+            } catch (SQLException e) {
+                LOG.error("Error clearing {} embeddings with other dimensions", type.table(), e);
+                TravelTracer.recordError(span, e);
+            }
+            span.setAttribute(TravelTracer.RESULT_COUNT, cleared);
+            return cleared;
+        });
     }
 
-    public void updateActivityEmbedding(Long id, float[] embedding) {
-        updateEmbedding("activities", id, embedding);
+    public boolean hasEmbeddings(ItemType type) {
+        String sql = "SELECT COUNT(*) FROM " + type.table() + " WHERE description_embedding IS NOT NULL AND ROWNUM = 1";
+        return tracer.statement("SELECT", type.table(), span -> {
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql);
+                 ResultSet rs = stmt.executeQuery()) {
+                return rs.next() && rs.getInt(1) > 0;
+            } catch (SQLException e) {
+                LOG.error("Error checking embeddings of {}", type.table(), e);
+                TravelTracer.recordError(span, e);
+                return false;
+            }
+        });
     }
 
-    private void updateEmbedding(String tableName, Long id, float[] embedding) {
-        String sql = "UPDATE " + tableName + " SET description_embedding = ? WHERE id = ?";
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setObject(1, embedding, OracleType.VECTOR);
-            stmt.setLong(2, id);
-            stmt.executeUpdate();
-        } catch (SQLException e) {
-            LOG.error("Error updating embedding for {} id={}", tableName, id, e);
-        }
+    public boolean hasVectorIndex(ItemType type) {
+        String sql = "SELECT COUNT(*) FROM user_indexes WHERE index_name = ?";
+        return tracer.statement("SELECT", "user_indexes", span -> {
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, vectorIndexName(type).toUpperCase(Locale.ROOT));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next() && rs.getInt(1) > 0;
+                }
+            } catch (SQLException e) {
+                LOG.error("Error checking vector index on {}", type.table(), e);
+                TravelTracer.recordError(span, e);
+                return false;
+            }
+        });
     }
 
-    public record DestinationEmbeddingSeed(Long id, String name, String region, String description) {
+    /**
+     * Builds the IVF index from the vectors currently stored, so it is created after the backfill
+     * rather than by a migration, when the rows have no embeddings and the dimension is not known yet.
+     */
+    public boolean createVectorIndex(ItemType type) {
+        String sql = "CREATE VECTOR INDEX " + vectorIndexName(type) + " ON " + type.table() + " (description_embedding)"
+            + " ORGANIZATION NEIGHBOR PARTITIONS DISTANCE COSINE WITH TARGET ACCURACY 90"
+            + (PARTITIONED.contains(type) ? " LOCAL" : "");
+        return tracer.statement("CREATE INDEX", type.table(), span -> {
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.execute();
+                return true;
+            } catch (SQLException e) {
+                LOG.error("Error creating vector index on {}", type.table(), e);
+                TravelTracer.recordError(span, e);
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Drops the IVF index, whose centroids only fit vectors of the dimension it was built for.
+     */
+    public void dropVectorIndex(ItemType type) {
+        String sql = "DROP INDEX " + vectorIndexName(type);
+        tracer.statement("DROP INDEX", type.table(), span -> {
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.execute();
+            } catch (SQLException e) {
+                LOG.error("Error dropping vector index on {}", type.table(), e);
+                TravelTracer.recordError(span, e);
+            }
+            return null;
+        });
     }
 
-    public record HotelEmbeddingSeed(Long id, String name, String destinationName, String description) {
+    private static Long embeddedVersion(ResultSet rs) throws SQLException {
+        long version = rs.getLong("embedded_version");
+        return rs.wasNull() ? null : version;
     }
 
-    public record ActivityEmbeddingSeed(Long id, String name, String destinationName, String season, String description) {
+    private static String vectorIndexName(ItemType type) {
+        return "idx_" + type.table() + "_description_embedding";
+    }
+
+    /**
+     * Marks a stored embedding as generated from text version {@code textVersion} without
+     * re-embedding: for rows verified once against their fingerprint, or embedded before
+     * fingerprints existed.
+     */
+    public void updateFingerprint(ItemType type, Long id, String sourceHash, String embeddingModel, long textVersion) {
+        String sql = "UPDATE " + type.table()
+            + " SET embedding_source_hash = ?, embedding_model = ?, embedded_version = ? WHERE id = ? AND text_version = ?";
+        tracer.statement("UPDATE", type.table(), span -> {
+            span.setAttribute(TravelTracer.ITEM_ID, id);
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, sourceHash);
+                stmt.setString(2, embeddingModel);
+                stmt.setLong(3, textVersion);
+                stmt.setLong(4, id);
+                stmt.setLong(5, textVersion);
+                stmt.executeUpdate();
+            } catch (SQLException e) {
+                LOG.error("Error updating embedding fingerprint for {} id={}", type.table(), id, e);
+                TravelTracer.recordError(span, e);
+            }
+            return null;
+        });
+    }
+
+    public sealed interface EmbeddingSeed permits DestinationEmbeddingSeed, HotelEmbeddingSeed, ActivityEmbeddingSeed {
+        Long id();
+
+        String text();
+
+        boolean hasEmbedding();
+
+        String sourceHash();
+
+        String embeddingModel();
+
+        long textVersion();
+
+        /** Text version the stored embedding was generated from; null until verified. */
+        Long embeddedVersion();
+    }
+
+    public record DestinationEmbeddingSeed(
+        Long id,
+        String name,
+        String region,
+        String description,
+        boolean hasEmbedding,
+        String sourceHash,
+        String embeddingModel,
+        long textVersion,
+        Long embeddedVersion
+    ) implements EmbeddingSeed {
+        @Override
+        public String text() {
+            return name + " " + region + ". " + description;
+        }
+    }
+
+    public record HotelEmbeddingSeed(
+        Long id,
+        String name,
+        String destinationName,
+        String description,
+        boolean hasEmbedding,
+        String sourceHash,
+        String embeddingModel,
+        long textVersion,
+        Long embeddedVersion
+    ) implements EmbeddingSeed {
+        @Override
+        public String text() {
+            return name + " in " + destinationName + ". " + description;
+        }
+    }
+
+    public record ActivityEmbeddingSeed(
+        Long id,
+        String name,
+        String destinationName,
+        String season,
+        String description,
+        boolean hasEmbedding,
+        String sourceHash,
+        String embeddingModel,
+        long textVersion,
+        Long embeddedVersion
+    ) implements EmbeddingSeed {
+        @Override
+        public String text() {
+            return name + " in " + destinationName + " (" + season + "). " + description;
+        }
     }
 }
@@ -12,23 +12,6 @@ import java.util.List;
 @JdbcRepository(dialect = Dialect.ORACLE)
 public interface HotelRepository extends CrudRepository<HotelEntity, Long> {
 
-    List<HotelEntity> findTop5ByDescriptionEmbeddingNear(Vector embedding, Double maxDistance);
-
-    List<HotelEntity> findTop5ByDestinationIdAndDescriptionEmbeddingNear(Long destinationId, Vector embedding, Double maxDistance);
-
-    List<HotelEntity> findTop5ByPricePerNightLessThanEqualsAndDescriptionEmbeddingNear(
-        Double maxPrice,
-        Vector embedding,
-        Double maxDistance
-    );
-
-    List<HotelEntity> findTop5ByDestinationIdAndPricePerNightLessThanEqualsAndDescriptionEmbeddingNear(
-        Long destinationId,
-        Double maxPrice,
-        Vector embedding,
-        Double maxDistance
-    );
-
     List<HotelEntity> findByDescriptionEmbeddingIsNull();
 
     @Query(value = "UPDATE hotels SET description_embedding = :embedding WHERE id = :id", nativeQuery = true)
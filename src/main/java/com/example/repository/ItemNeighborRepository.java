@@ -0,0 +1,156 @@
+package com.example.repository;
+
+import com.example.model.ItemNeighbor;
+import com.example.model.ItemType;
+import com.example.tracing.TravelTracer;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.data.connection.annotation.Connectable;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The {@code item_neighbors} table: rebuilt per item type inside the database, read by item.
+ */
+@Singleton
+@Connectable
+public class ItemNeighborRepository {
+    private static final Logger LOG = LoggerFactory.getLogger(ItemNeighborRepository.class);
+    private static final String TABLE = "item_neighbors";
+
+    private final DataSource dataSource;
+    private final TravelTracer tracer;
+
+    public ItemNeighborRepository(DataSource dataSource, TravelTracer tracer) {
+        this.dataSource = dataSource;
+        this.tracer = tracer;
+    }
+
+    /**
+     * Replaces the neighbors of every {@code source} row in one transaction, so readers see
+     * either the old or the new set: the {@code perType} most similar rows of each item type,
+     * over the whole catalog and among rows within {@code radiusKm}.
+     *
+     * @return the number of neighbor rows written, empty when the rebuild failed
+     */
+    public Optional<Integer> rebuild(ItemType source, int perType, double radiusKm) {
+        return tracer.statement("INSERT", TABLE, span -> {
+            int written = 0;
+            try (Connection conn = dataSource.getConnection()) {
+                conn.setAutoCommit(false);
+                try {
+                    try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM " + TABLE + " WHERE item_type = ?")) {
+                        stmt.setString(1, source.value());
+                        stmt.executeUpdate();
+                    }
+                    for (ItemType target : ItemType.values()) {
+                        for (boolean nearby : new boolean[] {false, true}) {
+                            try (PreparedStatement stmt = conn.prepareStatement(rebuildSql(source, target, nearby))) {
+                                int index = 1;
+                                if (nearby) {
+                                    stmt.setDouble(index++, radiusKm);
+                                }
+                                stmt.setInt(index, perType);
+                                written += stmt.executeUpdate();
+                            }
+                        }
+                    }
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                LOG.error("Error rebuilding {} neighbors", source.value(), e);
+                TravelTracer.recordError(span, e);
+                return Optional.empty();
+            }
+            span.setAttribute(TravelTracer.RESULT_COUNT, written);
+            return Optional.of(written);
+        });
+    }
+
+    /**
+     * The stored neighbors of one item, most similar first, optionally of one type only.
+     */
+    public List<ItemNeighbor> find(ItemType type, long id, boolean nearby, @Nullable ItemType neighborType, int limit) {
+        String sql = "SELECT neighbor_type, neighbor_id, distance, km FROM " + TABLE
+            + " WHERE item_type = ? AND item_id = ? AND nearby = ?"
+            + (neighborType != null ? " AND neighbor_type = ?" : "")
+            + " ORDER BY distance, neighbor_type, neighbor_rank FETCH FIRST ? ROWS ONLY";
+        return tracer.statement("SELECT", TABLE, span -> {
+            span.setAttribute(TravelTracer.ITEM_ID, id);
+            List<ItemNeighbor> neighbors = new ArrayList<>();
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                int index = 1;
+                stmt.setString(index++, type.value());
+                stmt.setLong(index++, id);
+                stmt.setInt(index++, nearby ? 1 : 0);
+                if (neighborType != null) {
+                    stmt.setString(index++, neighborType.value());
+                }
+                stmt.setInt(index, limit);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Optional<ItemType> neighbor = ItemType.from(rs.getString("neighbor_type"));
+                        if (neighbor.isEmpty()) {
+                            continue;
+                        }
+                        double km = rs.getDouble("km");
+                        neighbors.add(new ItemNeighbor(neighbor.get(), rs.getLong("neighbor_id"), rs.getDouble("distance"),
+                            rs.wasNull() ? null : km));
+                    }
+                }
+            } catch (SQLException e) {
+                LOG.error("Error finding neighbors of {} id={}", type.value(), id, e);
+                TravelTracer.recordError(span, e);
+            }
+            span.setAttribute(TravelTracer.RESULT_COUNT, neighbors.size());
+            return neighbors;
+        });
+    }
+
+    /**
+     * One source table against one target table, as a correlated top-N per source row. The
+     * whole-catalog variant may use the target's vector index; the nearby one is narrowed
+     * through the spatial index first and ranked exactly, like radius searches.
+     */
+    private String rebuildSql(ItemType source, ItemType target, boolean nearby) {
+        String self = source == target ? "\n      AND t.id <> s.id" : "";
+        String within = nearby
+            ? "\n      AND t.location IS NOT NULL"
+                + "\n      AND SDO_WITHIN_DISTANCE(t.location, s.location, 'distance=' || ? || ' unit=KM') = 'TRUE'"
+            : "";
+        return """
+            INSERT INTO item_neighbors (item_type, item_id, nearby, neighbor_type, neighbor_rank, neighbor_id, distance, km)
+            SELECT '%1$s', s.id, %3$d, '%2$s',
+                   ROW_NUMBER() OVER (PARTITION BY s.id ORDER BY n.distance, n.id),
+                   n.id, n.distance,
+                   CASE WHEN s.location IS NULL OR n.location IS NULL THEN NULL
+                        ELSE SDO_GEOM.SDO_DISTANCE(s.location, n.location, 0.005, 'unit=KM') END
+            FROM %4$s s,
+            LATERAL (
+                SELECT t.id, t.location, VECTOR_DISTANCE(t.description_embedding, s.description_embedding, COSINE) AS distance
+                FROM %5$s t
+                WHERE t.description_embedding IS NOT NULL%6$s%7$s
+                ORDER BY distance
+                FETCH %8$sFIRST ? ROWS ONLY
+            ) n
+            WHERE s.description_embedding IS NOT NULL%9$s
+            """.formatted(
+            source.value(), target.value(), nearby ? 1 : 0, source.table(), target.table(), self, within,
+            nearby ? "" : "APPROX ", nearby ? "\n  AND s.location IS NOT NULL" : "");
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.repository;
+
+import com.example.tracing.TravelTracer;
+import io.micronaut.data.connection.annotation.Connectable;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+/**
+ * The {@code job_runs} table: a row lock per job, so that of several instances only one runs it.
+ */
+@Singleton
+@Connectable
+public class JobRunRepository {
+    private static final Logger LOG = LoggerFactory.getLogger(JobRunRepository.class);
+    private static final String TABLE = "job_runs";
+
+    private final DataSource dataSource;
+    private final TravelTracer tracer;
+
+    public JobRunRepository(DataSource dataSource, TravelTracer tracer) {
+        this.dataSource = dataSource;
+        this.tracer = tracer;
+    }
+
+    /**
+     * Runs {@code work} while holding the row lock of {@code job}, unless another instance holds
+     * it or completed the job less than {@code minInterval} ago. The completion time is recorded
+     * when {@code work} returns true. {@code work} uses its own connections; this one only keeps
+     * the lock.
+     *
+     * @return whether {@code work} ran here and returned true
+     */
+    public boolean runExclusive(String job, Duration minInterval, BooleanSupplier work) {
+        String lock = "SELECT completed_at FROM " + TABLE + " WHERE job = ?"
+            + " AND (completed_at IS NULL OR completed_at < SYSTIMESTAMP - NUMTODSINTERVAL(?, 'SECOND'))"
+            + " FOR UPDATE SKIP LOCKED";
+        String complete = "UPDATE " + TABLE + " SET completed_at = SYSTIMESTAMP WHERE job = ?";
+        return tracer.statement("SELECT", TABLE, span -> {
+            try (Connection conn = dataSource.getConnection()) {
+                conn.setAutoCommit(false);
+                try {
+                    try (PreparedStatement stmt = conn.prepareStatement(lock)) {
+                        stmt.setString(1, job);
+                        stmt.setLong(2, minInterval.toSeconds());
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            if (!rs.next()) {
+                                LOG.debug("Job {} running elsewhere or completed within {}, skipping", job, minInterval);
+                                return false;
+                            }
+                        }
+                    }
+                    if (!work.getAsBoolean()) {
+                        return false;
+                    }
+                    try (PreparedStatement stmt = conn.prepareStatement(complete)) {
+                        stmt.setString(1, job);
+                        stmt.executeUpdate();
+                    }
+                    conn.commit();
+                    return true;
+                } finally {
+                    // Releases the lock when the job was skipped or failed; a no-op after commit.
+                    conn.rollback();
+                    conn.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                LOG.error("Error locking job {}", job, e);
+                TravelTracer.recordError(span, e);
+                return false;
+            }
+        });
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.repository;
 
 import com.example.model.WishlistItem;
+import com.example.tracing.TravelTracer;
 import io.micronaut.data.connection.annotation.Connectable;
 import jakarta.inject.Singleton;
 import org.slf4j.Logger;
@@ -10,6 +11,7 @@ import javax.sql.DataSource;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 @Singleton
 @Connectable
@@ -18,59 +20,97 @@ public class WishlistRepository {
     private static final String SELECT_WISHLIST = "SELECT id, item_type, item_id FROM wishlist_items";
 
     private final DataSource dataSource;
+    private final TravelTracer tracer;
 
-    public WishlistRepository(DataSource dataSource) {
+    public WishlistRepository(DataSource dataSource, TravelTracer tracer) {
         this.dataSource = dataSource;
+        this.tracer = tracer;
     }
 
-    public WishlistItem save(WishlistItem item) {
-        String sql = "INSERT INTO wishlist_items (item_type, item_id) VALUES (?, ?)";
-
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, new String[]{"id"})) {
-
-            stmt.setString(1, item.itemType());
-            stmt.setLong(2, item.itemId());
-            stmt.executeUpdate();
+    /**
+     * @return the number of rows inserted, empty when the batch failed
+     */
+    public Optional<Integer> saveAll(List<WishlistItem> items) {
+        String sql = """
+            MERGE INTO wishlist_items w
+            USING (SELECT ? AS item_type, ? AS item_id FROM dual) s
+            ON (w.item_type = s.item_type AND w.item_id = s.item_id)
+            WHEN NOT MATCHED THEN INSERT (item_type, item_id) VALUES (s.item_type, s.item_id)
+            """;
+        return executeBatch("MERGE", sql, items, "Error saving wishlist items");
+    }
 
-            try (ResultSet rs = stmt.getGeneratedKeys()) {
-                if (rs.next()) {
-                    return new WishlistItem(rs.getLong(1), item.itemType(), item.itemId());
-                }
-            }
-        } catch (SQLException e) {
-            LOG.error("Error saving wishlist item", e);
-        }
-        return null;
+    /**
+     * @return the number of rows deleted, empty when the batch failed
+     */
+    public Optional<Integer> deleteAll(List<WishlistItem> items) {
+        String sql = "DELETE FROM wishlist_items WHERE item_type = ? AND item_id = ?";
+        return executeBatch("DELETE", sql, items, "Error deleting wishlist items");
     }
 
     public List<WishlistItem> findAll() {
-        List<WishlistItem> results = new ArrayList<>();
+        return tracer.statement("SELECT", "wishlist_items", span -> {
+            List<WishlistItem> results = new ArrayList<>();
 
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(SELECT_WISHLIST);
-             ResultSet rs = stmt.executeQuery()) {
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(SELECT_WISHLIST);
+                 ResultSet rs = stmt.executeQuery()) {
 
-            while (rs.next()) {
-                results.add(mapWishlistItem(rs));
+                while (rs.next()) {
+                    results.add(mapWishlistItem(rs));
+                }
+            } catch (SQLException e) {
+                LOG.error("Error finding all wishlist items", e);
+                TravelTracer.recordError(span, e);
             }
-        } catch (SQLException e) {
-            LOG.error("Error finding all wishlist items", e);
-        }
-        return results;
+            span.setAttribute(TravelTracer.RESULT_COUNT, results.size());
+            return results;
+        });
     }
 
     public void deleteAll() {
         String sql = "DELETE FROM wishlist_items";
 
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        tracer.statement("DELETE", "wishlist_items", span -> {
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+                int deleted = stmt.executeUpdate();
+                span.setAttribute(TravelTracer.RESULT_COUNT, deleted);
+                LOG.debug("Deleted {} wishlist items", deleted);
+            } catch (SQLException e) {
+                LOG.error("Error deleting all wishlist items", e);
+                TravelTracer.recordError(span, e);
+            }
+            return null;
+        });
+    }
 
-            int deleted = stmt.executeUpdate();
-            LOG.debug("Deleted {} wishlist items", deleted);
-        } catch (SQLException e) {
-            LOG.error("Error deleting all wishlist items", e);
+    private Optional<Integer> executeBatch(String operation, String sql, List<WishlistItem> items, String errorMessage) {
+        if (items.isEmpty()) {
+            return Optional.of(0);
         }
+        return tracer.statement(operation, "wishlist_items", span -> {
+            int changed = 0;
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+                for (WishlistItem item : items) {
+                    stmt.setString(1, item.itemType());
+                    stmt.setLong(2, item.itemId());
+                    stmt.addBatch();
+                }
+                for (int count : stmt.executeBatch()) {
+                    changed += Math.max(count, 0);
+                }
+            } catch (SQLException e) {
+                LOG.error(errorMessage, e);
+                TravelTracer.recordError(span, e);
+                return Optional.empty();
+            }
+            span.setAttribute(TravelTracer.RESULT_COUNT, changed);
+            return Optional.of(changed);
+        });
     }
 
     private WishlistItem mapWishlistItem(ResultSet rs) throws SQLException {
@@ -0,0 +1,26 @@
+package com.example.search;
+
+/**
+ * How one vector search page is executed. {@code fetchSize} is the number of candidates the
+ * approximate search returns before the page is cut to its limit.
+ */
+public record SearchPlan(
+    Strategy strategy,
+    int fetchSize,
+    long estimatedRows,
+    String reason
+) {
+
+    public enum Strategy {
+        /** Filters first, then exact distances over the remaining rows: full recall, cost grows with the matching rows. */
+        EXACT_PREFILTER,
+        /** Approximate search with the filters inside the query, fetching more candidates than the page needs. */
+        ANN_OVERFETCH,
+        /** Approximate search without the filters, then the filters over the fetched candidates. */
+        ANN_POSTFILTER
+    }
+
+    public static SearchPlan exact(long estimatedRows, String reason) {
+        return new SearchPlan(Strategy.EXACT_PREFILTER, 0, estimatedRows, reason);
+    }
+}
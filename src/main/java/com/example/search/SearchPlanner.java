@@ -0,0 +1,164 @@
+package com.example.search;
+
+import com.example.model.ItemType;
+import com.example.model.SearchPage;
+import com.example.repository.CatalogStatisticsRepository;
+import com.example.service.BackgroundJobs;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Picks how a filtered vector search runs from the number of rows its filters are estimated
+ * to keep:
+ * <ul>
+ *   <li>few matching rows: filter first and compute exact distances ({@code EXACT_PREFILTER});</li>
+ *   <li>filters that keep most rows: approximate search over everything, over-fetching by the
+ *   inverse selectivity, then filter ({@code ANN_POSTFILTER});</li>
+ *   <li>otherwise: approximate search with the filters inside the query, over-fetching by the
+ *   inverse selectivity up to {@code app.search.planner.max-fetch} ({@code ANN_OVERFETCH}).</li>
+ * </ul>
+ * Statistics are per-destination row counts and a per-destination price histogram, reloaded
+ * every {@code app.search.planner.statistics-refresh}. Chosen plans are counted in
+ * {@code travel.search.plans} by strategy, with {@code retry=true} for {@link #widen} plans.
+ */
+@Singleton
+public class SearchPlanner {
+    private static final Logger LOG = LoggerFactory.getLogger(SearchPlanner.class);
+    private static final double OVERFETCH_MARGIN = 1.5;
+
+    private final CatalogStatisticsRepository statisticsRepository;
+    private final long exactScanMaxRows;
+    private final double postFilterMinSelectivity;
+    private final int maxFetch;
+    private final MeterRegistry meterRegistry;
+    private final BackgroundJobs backgroundJobs;
+    private final ReentrantLock loading = new ReentrantLock();
+    private volatile Map<ItemType, TableStatistics> statistics;
+
+    public SearchPlanner(
+        CatalogStatisticsRepository statisticsRepository,
+        MeterRegistry meterRegistry,
+        BackgroundJobs backgroundJobs,
+        @Value("${app.search.planner.exact-scan-max-rows:2000}") long exactScanMaxRows,
+        @Value("${app.search.planner.post-filter-min-selectivity:0.5}") double postFilterMinSelectivity,
+        @Value("${app.search.planner.max-fetch:500}") int maxFetch
+    ) {
+        this.statisticsRepository = statisticsRepository;
+        this.exactScanMaxRows = exactScanMaxRows;
+        this.postFilterMinSelectivity = postFilterMinSelectivity;
+        this.maxFetch = maxFetch;
+        this.meterRegistry = meterRegistry;
+        this.backgroundJobs = backgroundJobs;
+    }
+
+    public SearchPlan plan(ItemType type, @Nullable Long destinationId, @Nullable Double maxPrice, boolean near, SearchPage page) {
+        SearchPlan plan = choose(type, destinationId, maxPrice, near, page.limit());
+        LOG.debug("Search plan for {} (destinationId={}, maxPrice={}, near={}, limit={}): {} fetch={} - {}",
+            type.table(), destinationId, maxPrice, near, page.limit(), plan.strategy(), plan.fetchSize(), plan.reason());
+        count(type, plan, false);
+        return plan;
+    }
+
+    /**
+     * A second attempt for an approximate plan whose candidates ran out before the page was
+     * full: the same strategy over {@code exact-scan-max-rows} candidates, so a retry never reads
+     * more than an exact plan would have. Empty when the plan already fetched that many.
+     */
+    public Optional<SearchPlan> widen(ItemType type, SearchPlan plan) {
+        if (plan.strategy() == SearchPlan.Strategy.EXACT_PREFILTER || plan.fetchSize() >= exactScanMaxRows) {
+            return Optional.empty();
+        }
+        SearchPlan wider = new SearchPlan(plan.strategy(), (int) exactScanMaxRows, plan.estimatedRows(),
+            "short page from " + plan.fetchSize() + " candidates");
+        count(type, wider, true);
+        return Optional.of(wider);
+    }
+
+    private void count(ItemType type, SearchPlan plan, boolean retry) {
+        meterRegistry.counter("travel.search.plans",
+            "table", type.table(), "strategy", plan.strategy().name(), "retry", String.valueOf(retry)).increment();
+    }
+
+    private SearchPlan choose(ItemType type, @Nullable Long destinationId, @Nullable Double maxPrice, boolean near, int limit) {
+        TableStatistics table = statistics().getOrDefault(type, TableStatistics.EMPTY);
+        long matching = table.estimateRows(destinationId, maxPrice);
+        if (near) {
+            return SearchPlan.exact(matching, "the radius filter is resolved through the spatial index first");
+        }
+        if (matching <= exactScanMaxRows) {
+            return SearchPlan.exact(matching, "about " + matching + " matching rows, at most "
+                + exactScanMaxRows + " are scanned exactly");
+        }
+
+        double selectivity = (double) matching / table.rows();
+        if (destinationId == null && maxPrice == null) {
+            return new SearchPlan(SearchPlan.Strategy.ANN_POSTFILTER, limit, matching,
+                matching + " rows and no filters");
+        }
+        int postFilterFetch = (int) Math.ceil(limit / selectivity * OVERFETCH_MARGIN);
+        String share = String.format("filters keep about %.0f%% of %d rows (%d)", selectivity * 100, table.rows(), matching);
+        if (selectivity >= postFilterMinSelectivity && postFilterFetch <= maxFetch) {
+            return new SearchPlan(SearchPlan.Strategy.ANN_POSTFILTER, postFilterFetch, matching,
+                share + ", so " + postFilterFetch + " unfiltered neighbors are expected to leave " + limit);
+        }
+        int fetch = Math.min(maxFetch, postFilterFetch);
+        return new SearchPlan(SearchPlan.Strategy.ANN_OVERFETCH, fetch, matching,
+            share + ": too many for an exact scan, too selective to filter afterwards"
+                + (destinationId != null ? "; the destination prunes to its local index partition" : ""));
+    }
+
+    @Scheduled(
+        fixedDelay = "${app.search.planner.statistics-refresh:10m}",
+        initialDelay = "${app.search.planner.statistics-refresh:10m}"
+    )
+    void refreshStatistics() {
+        if (!backgroundJobs.enter()) {
+            return;
+        }
+        try {
+            statistics = load(statistics);
+        } finally {
+            backgroundJobs.exit();
+        }
+    }
+
+    private Map<ItemType, TableStatistics> statistics() {
+        Map<ItemType, TableStatistics> current = statistics;
+        if (current != null) {
+            return current;
+        }
+        loading.lock();
+        try {
+            if (statistics == null) {
+                statistics = load(null);
+            }
+            return statistics;
+        } finally {
+            loading.unlock();
+        }
+    }
+
+    /**
+     * Loads statistics for every table, keeping the previous ones for a table that fails to load.
+     */
+    private Map<ItemType, TableStatistics> load(@Nullable Map<ItemType, TableStatistics> previous) {
+        Map<ItemType, TableStatistics> loaded = new EnumMap<>(ItemType.class);
+        for (ItemType type : ItemType.values()) {
+            statisticsRepository.load(type)
+                .or(() -> previous == null ? Optional.empty() : Optional.ofNullable(previous.get(type)))
+                .ifPresent(table -> loaded.put(type, table));
+        }
+        LOG.debug("Loaded search statistics: {}", loaded.keySet());
+        return loaded;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.search;
+
+import io.micronaut.core.annotation.Nullable;
+
+import java.util.Map;
+
+/**
+ * Row counts of one catalog table, counting only rows with an embedding: per destination and,
+ * for hotels, per destination and {@link #PRICE_BUCKET_CHF} price bucket.
+ */
+public record TableStatistics(
+    long rows,
+    Map<Long, Long> rowsPerDestination,
+    Map<Long, Map<Long, Long>> priceBucketsPerDestination
+) {
+    public static final int PRICE_BUCKET_CHF = 25;
+    public static final TableStatistics EMPTY = new TableStatistics(0, Map.of(), Map.of());
+
+    /**
+     * Estimated rows matching the filters. Prices are assumed to be spread evenly within a bucket.
+     */
+    public long estimateRows(@Nullable Long destinationId, @Nullable Double maxPrice) {
+        if (maxPrice == null) {
+            return destinationId == null ? rows : rowsPerDestination.getOrDefault(destinationId, 0L);
+        }
+        double matching = 0;
+        for (Map.Entry<Long, Map<Long, Long>> destination : priceBucketsPerDestination.entrySet()) {
+            if (destinationId != null && !destinationId.equals(destination.getKey())) {
+                continue;
+            }
+            for (Map.Entry<Long, Long> bucket : destination.getValue().entrySet()) {
+                double low = bucket.getKey() * (double) PRICE_BUCKET_CHF;
+                double share = Math.clamp((maxPrice - low) / PRICE_BUCKET_CHF, 0.0, 1.0);
+                matching += share * bucket.getValue();
+            }
+        }
+        return Math.round(matching);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.service;
+
+import jakarta.inject.Singleton;
+
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Gate for the scheduled jobs that use the database, so they can be held off while a CRaC
+ * checkpoint is taken. The connection pool is suspended then: a poll caught mid-run would
+ * block the checkpoint or end up in the image holding a dead connection.
+ * <pre>
+ * if (!backgroundJobs.enter()) {
+ *     return;
+ * }
+ * try { ... } finally { backgroundJobs.exit(); }
+ * </pre>
+ */
+@Singleton
+public class BackgroundJobs {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition idle = lock.newCondition();
+    private boolean paused;
+    private int running;
+
+    /**
+     * @return whether the job may run now; if so it must call {@link #exit()} when done
+     */
+    public boolean enter() {
+        lock.lock();
+        try {
+            if (paused) {
+                return false;
+            }
+            running++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void exit() {
+        lock.lock();
+        try {
+            if (--running == 0) {
+                idle.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops new runs and waits for the ones in progress.
+     *
+     * @return whether every running job finished within {@code timeout}; the gate stays
+     * paused either way until {@link #resume()}
+     */
+    public boolean pause(Duration timeout) throws InterruptedException {
+        lock.lock();
+        try {
+            paused = true;
+            long remaining = timeout.toNanos();
+            while (running > 0) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = idle.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void resume() {
+        lock.lock();
+        try {
+            paused = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.service;
+
+import com.example.model.CatalogChange;
+
+import java.util.List;
+
+/**
+ * Catalog rows changed, possibly on another instance. {@code version} is the highest change
+ * log ID delivered so far. When {@code missedChanges} is set, this instance could not read the
+ * log for longer than it is kept, so {@code changes} is incomplete and caches must drop
+ * everything.
+ */
+public record CatalogChangeEvent(long version, List<CatalogChange> changes, boolean missedChanges) {
+}
@@ -0,0 +1,193 @@
+package com.example.service;
+
+import com.example.model.CatalogChange;
+import com.example.repository.CatalogChangeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.context.event.ApplicationEventPublisher;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Polls the {@code catalog_changes} log every {@code app.catalog.changes.poll-interval} and
+ * publishes new entries as a {@link CatalogChangeEvent}, so every instance drops cached catalog
+ * data within about one poll interval of a commit on any instance, without a message broker.
+ * <p>
+ * Identity values are handed out before commit, so a change can become visible after one with
+ * a higher ID. The poller therefore reads from the highest ID below which it has seen every
+ * entry, remembers what it already delivered above it, and waits up to
+ * {@code app.catalog.changes.commit-grace} for a missing ID before treating it as rolled back.
+ * <p>
+ * A poll reads at most {@code app.catalog.changes.max-per-poll} entries. A larger backlog (a
+ * bulk import, say) is skipped: the poller jumps to the newest entry and tells caches to drop
+ * everything, which is cheaper than one invalidation per row.
+ */
+@Singleton
+@Requires(property = "app.catalog.changes.enabled", notEquals = "false")
+public class CatalogChangeLog {
+    private static final Logger LOG = LoggerFactory.getLogger(CatalogChangeLog.class);
+
+    private final CatalogChangeRepository repository;
+    private final ApplicationEventPublisher<CatalogChangeEvent> publisher;
+    private final BackgroundJobs backgroundJobs;
+    private final int batchSize;
+    private final int maxPerPoll;
+    private final Duration commitGrace;
+    private final Duration retention;
+    private final Counter delivered;
+    private final Counter missed;
+    private final ReentrantLock polling = new ReentrantLock();
+
+    /** Every change up to this ID has been delivered or given up on; -1 until initialized. */
+    private long floor = -1;
+    /** Changes delivered above {@code floor}, with the time each was first read. */
+    private final TreeMap<Long, Long> deliveredAboveFloor = new TreeMap<>();
+    private long version;
+    private long lastReadAt;
+
+    public CatalogChangeLog(
+        CatalogChangeRepository repository,
+        ApplicationEventPublisher<CatalogChangeEvent> publisher,
+        MeterRegistry meterRegistry,
+        BackgroundJobs backgroundJobs,
+        @Value("${app.catalog.changes.batch-size:1000}") int batchSize,
+        @Value("${app.catalog.changes.max-per-poll:10000}") int maxPerPoll,
+        @Value("${app.catalog.changes.commit-grace:30s}") Duration commitGrace,
+        @Value("${app.catalog.changes.retention:1h}") Duration retention
+    ) {
+        this.repository = repository;
+        this.publisher = publisher;
+        this.backgroundJobs = backgroundJobs;
+        this.batchSize = batchSize;
+        this.maxPerPoll = Math.max(batchSize, maxPerPoll);
+        this.commitGrace = commitGrace;
+        this.retention = retention;
+        this.delivered = meterRegistry.counter("travel.catalog.changes", "outcome", "delivered");
+        this.missed = meterRegistry.counter("travel.catalog.changes", "outcome", "missed");
+    }
+
+    @Scheduled(fixedDelay = "${app.catalog.changes.poll-interval:2s}")
+    void poll() {
+        if (!backgroundJobs.enter()) {
+            return;
+        }
+        try {
+            pollOnce();
+        } finally {
+            backgroundJobs.exit();
+        }
+    }
+
+    private void pollOnce() {
+        if (!polling.tryLock()) {
+            return;
+        }
+        try {
+            long now = System.nanoTime();
+            if (floor < 0) {
+                restart(now, null);
+                return;
+            }
+            if (now - lastReadAt > retention.toNanos()) {
+                restart(now, "Could not read catalog changes for over " + retention);
+                return;
+            }
+            // Nothing counts as delivered until every page was read, so a failed read is retried whole.
+            List<CatalogChange> read = new ArrayList<>();
+            long after = floor;
+            while (true) {
+                Optional<List<CatalogChange>> page = repository.findAfter(after, batchSize);
+                if (page.isEmpty()) {
+                    return;
+                }
+                read.addAll(page.get());
+                if (read.size() > maxPerPoll) {
+                    restart(now, "More than " + maxPerPoll + " catalog changes pending");
+                    return;
+                }
+                if (page.get().size() < batchSize) {
+                    break;
+                }
+                after = page.get().getLast().id();
+            }
+            List<CatalogChange> fresh = new ArrayList<>();
+            for (CatalogChange change : read) {
+                if (deliveredAboveFloor.putIfAbsent(change.id(), now) == null) {
+                    fresh.add(change);
+                }
+            }
+            lastReadAt = now;
+            advanceFloor(now);
+            if (!fresh.isEmpty()) {
+                version = Math.max(version, fresh.getLast().id());
+                delivered.increment(fresh.size());
+                LOG.debug("{} catalog change(s) up to {}", fresh.size(), version);
+                publisher.publishEvent(new CatalogChangeEvent(version, List.copyOf(fresh), false));
+            }
+        } finally {
+            polling.unlock();
+        }
+    }
+
+    @Scheduled(
+        fixedDelay = "${app.catalog.changes.prune-interval:5m}",
+        initialDelay = "${app.catalog.changes.prune-interval:5m}"
+    )
+    void prune() {
+        if (!backgroundJobs.enter()) {
+            return;
+        }
+        try {
+            int deleted = repository.deleteOlderThan(retention);
+            if (deleted > 0) {
+                LOG.debug("Pruned {} catalog change(s) older than {}", deleted, retention);
+            }
+        } finally {
+            backgroundJobs.exit();
+        }
+    }
+
+    /**
+     * Starts reading after the newest change. On first start ({@code reason} null) caches are
+     * still empty. Otherwise entries this instance never read may have been pruned, or there are
+     * too many to deliver one by one, so caches are told to drop everything.
+     */
+    private void restart(long now, String reason) {
+        Optional<Long> latest = repository.findLatestId();
+        if (latest.isEmpty()) {
+            return;
+        }
+        floor = latest.get();
+        deliveredAboveFloor.clear();
+        lastReadAt = now;
+        version = Math.max(version, floor);
+        if (reason != null) {
+            LOG.warn("{}, invalidating all cached catalog data", reason);
+            missed.increment();
+            publisher.publishEvent(new CatalogChangeEvent(version, List.of(), true));
+        }
+    }
+
+    private void advanceFloor(long now) {
+        while (!deliveredAboveFloor.isEmpty()) {
+            Map.Entry<Long, Long> first = deliveredAboveFloor.firstEntry();
+            if (first.getKey() != floor + 1 && now - first.getValue() < commitGrace.toNanos()) {
+                return;
+            }
+            floor = first.getKey();
+            deliveredAboveFloor.pollFirstEntry();
+        }
+    }
+}
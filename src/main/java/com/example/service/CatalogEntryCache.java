@@ -0,0 +1,310 @@
+package com.example.service;
+
+import com.example.model.CatalogChange;
+import com.example.model.CatalogEntry;
+import com.example.model.ItemType;
+import com.example.repository.CatalogLookupRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.context.event.ApplicationEventListener;
+import jakarta.inject.Singleton;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Read-through cache of catalog display fields ({@link CatalogEntry}) by row ID, so wishlist
+ * reads and changes do not load whole rows, embeddings included, on every tool call.
+ * <p>
+ * Each item type holds at most {@code app.catalog.cache.max-entries} rows in an open-addressing
+ * table of primitive {@code long} IDs with parallel field arrays, allocated once at startup: no
+ * boxed keys or per-entry nodes, so heap use is the fixed arrays plus the name strings whatever
+ * the catalog size. A full table evicts with the CLOCK algorithm (a row read since the hand last
+ * passed gets a second chance). IDs without a row are not cached, so inserts never leave stale
+ * entries. Rows updated or deleted on any instance are dropped when the change log delivers
+ * them ({@link CatalogChangeEvent}); local writers may also call {@link #invalidateAll}.
+ */
+@Singleton
+public class CatalogEntryCache implements ApplicationEventListener<CatalogChangeEvent> {
+    private final CatalogLookupRepository catalogLookupRepository;
+    private final boolean enabled;
+    private final Map<ItemType, Segment> segments = new EnumMap<>(ItemType.class);
+    private final Counter hits;
+    private final Counter misses;
+
+    public CatalogEntryCache(
+        CatalogLookupRepository catalogLookupRepository,
+        MeterRegistry meterRegistry,
+        @Value("${app.catalog.cache.enabled:true}") boolean enabled,
+        @Value("${app.catalog.cache.max-entries:100000}") int maxEntries
+    ) {
+        this.catalogLookupRepository = catalogLookupRepository;
+        this.enabled = enabled && maxEntries > 0;
+        this.hits = meterRegistry.counter("travel.catalog.cache", "outcome", "hit");
+        this.misses = meterRegistry.counter("travel.catalog.cache", "outcome", "miss");
+        if (this.enabled) {
+            for (ItemType type : ItemType.values()) {
+                Segment segment = new Segment(type, maxEntries, meterRegistry.counter("travel.catalog.cache.evictions", "type", type.value()));
+                segments.put(type, segment);
+                Gauge.builder("travel.catalog.cache.size", segment, Segment::size).tag("type", type.value()).register(meterRegistry);
+            }
+        }
+    }
+
+    public Optional<CatalogEntry> get(ItemType type, long id) {
+        return Optional.ofNullable(get(type, List.of(id)).get(id));
+    }
+
+    /**
+     * Entries for these IDs, loading the ones not cached in one query; IDs without a row are
+     * left out.
+     */
+    public Map<Long, CatalogEntry> get(ItemType type, Collection<Long> ids) {
+        if (!enabled) {
+            return catalogLookupRepository.findEntries(type, ids);
+        }
+        Segment segment = segments.get(type);
+        Map<Long, CatalogEntry> entries = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        long generation = segment.getAll(ids, entries, missing);
+        hits.increment(entries.size());
+        if (missing.isEmpty()) {
+            return entries;
+        }
+        misses.increment(missing.size());
+        Map<Long, CatalogEntry> loaded = catalogLookupRepository.findEntries(type, missing);
+        segment.putAll(loaded.values(), generation);
+        entries.putAll(loaded);
+        return entries;
+    }
+
+    public void invalidate(ItemType type, long id) {
+        if (enabled) {
+            segments.get(type).remove(id);
+        }
+    }
+
+    public void invalidateAll() {
+        segments.values().forEach(Segment::clear);
+    }
+
+    @Override
+    public void onApplicationEvent(CatalogChangeEvent event) {
+        if (event.missedChanges()) {
+            invalidateAll();
+            return;
+        }
+        for (CatalogChange change : event.changes()) {
+            invalidate(change.type(), change.itemId());
+        }
+    }
+
+    /**
+     * One item type's table. Linear probing at a load factor of at most one half; removal
+     * shifts the following run back instead of leaving tombstones.
+     */
+    private static final class Segment {
+        private final ItemType type;
+        private final int capacity;
+        private final int mask;
+        private final int shift;
+        private final Counter evictions;
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final boolean[] used;
+        private final boolean[] referenced;
+        private final long[] ids;
+        private final String[] names;
+        /** Region of a destination, season of an activity. */
+        private final String[] details;
+        /** Price per night of a hotel, NaN when unknown or not a hotel. */
+        private final double[] prices;
+        private int size;
+        private int hand;
+        /** Bumped by every removal, so a load that started before it does not store stale rows. */
+        private long generation;
+
+        Segment(ItemType type, int capacity, Counter evictions) {
+            int slots = Integer.highestOneBit(Math.max(2, capacity * 2 - 1)) << 1;
+            this.type = type;
+            this.capacity = capacity;
+            this.mask = slots - 1;
+            this.shift = Long.SIZE - Integer.numberOfTrailingZeros(slots);
+            this.evictions = evictions;
+            this.used = new boolean[slots];
+            this.referenced = new boolean[slots];
+            this.ids = new long[slots];
+            this.names = new String[slots];
+            this.details = new String[slots];
+            this.prices = new double[slots];
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return size;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long getAll(Collection<Long> keys, Map<Long, CatalogEntry> found, List<Long> missing) {
+            lock.lock();
+            try {
+                for (Long id : keys) {
+                    int slot = find(id);
+                    if (slot < 0) {
+                        missing.add(id);
+                    } else {
+                        referenced[slot] = true;
+                        found.put(id, entry(slot));
+                    }
+                }
+                return generation;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void putAll(Collection<CatalogEntry> entries, long loadedAt) {
+            lock.lock();
+            try {
+                if (generation != loadedAt) {
+                    return;
+                }
+                for (CatalogEntry entry : entries) {
+                    put(entry);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void remove(long id) {
+            lock.lock();
+            try {
+                generation++;
+                int slot = find(id);
+                if (slot >= 0) {
+                    delete(slot);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void clear() {
+            lock.lock();
+            try {
+                generation++;
+                Arrays.fill(used, false);
+                Arrays.fill(referenced, false);
+                Arrays.fill(names, null);
+                Arrays.fill(details, null);
+                size = 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void put(CatalogEntry entry) {
+            int slot = find(entry.id());
+            if (slot < 0) {
+                if (size == capacity) {
+                    evict();
+                }
+                slot = home(entry.id());
+                while (used[slot]) {
+                    slot = (slot + 1) & mask;
+                }
+                used[slot] = true;
+                ids[slot] = entry.id();
+                size++;
+            }
+            referenced[slot] = true;
+            names[slot] = entry.name();
+            details[slot] = type == ItemType.ACTIVITY ? entry.season() : entry.region();
+            prices[slot] = entry.pricePerNight() == null ? Double.NaN : entry.pricePerNight();
+        }
+
+        private CatalogEntry entry(int slot) {
+            return new CatalogEntry(
+                type,
+                ids[slot],
+                names[slot],
+                type == ItemType.DESTINATION ? details[slot] : null,
+                Double.isNaN(prices[slot]) ? null : prices[slot],
+                type == ItemType.ACTIVITY ? details[slot] : null
+            );
+        }
+
+        private int find(long id) {
+            int slot = home(id);
+            while (used[slot]) {
+                if (ids[slot] == id) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private int home(long id) {
+            return (int) ((id * 0x9E3779B97F4A7C15L) >>> shift);
+        }
+
+        /**
+         * Clears reference bits from the hand onwards until it reaches an unreferenced row,
+         * which is dropped. Ends within two sweeps since the table is full.
+         */
+        private void evict() {
+            while (true) {
+                if (used[hand]) {
+                    if (!referenced[hand]) {
+                        delete(hand);
+                        evictions.increment();
+                        return;
+                    }
+                    referenced[hand] = false;
+                }
+                hand = (hand + 1) & mask;
+            }
+        }
+
+        private void delete(int slot) {
+            int gap = slot;
+            int next = (slot + 1) & mask;
+            while (used[next]) {
+                int home = home(ids[next]);
+                if (((next - home) & mask) >= ((next - gap) & mask)) {
+                    move(next, gap);
+                    gap = next;
+                }
+                next = (next + 1) & mask;
+            }
+            used[gap] = false;
+            referenced[gap] = false;
+            names[gap] = null;
+            details[gap] = null;
+            size--;
+        }
+
+        private void move(int from, int to) {
+            used[to] = true;
+            referenced[to] = referenced[from];
+            ids[to] = ids[from];
+            names[to] = names[from];
+            details[to] = details[from];
+            prices[to] = prices[from];
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.service;
+
+import io.micronaut.context.event.ApplicationEventListener;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counter bumped whenever what catalog searches return may have changed (new embeddings,
+ * rebuilt vector indexes, catalog changes logged by any instance); results cached under an
+ * older version are stale.
+ */
+@Singleton
+public class CatalogVersion implements ApplicationEventListener<CatalogChangeEvent> {
+    private static final Logger LOG = LoggerFactory.getLogger(CatalogVersion.class);
+
+    private final AtomicLong version = new AtomicLong();
+
+    public long current() {
+        return version.get();
+    }
+
+    public void bump(String reason) {
+        long next = version.incrementAndGet();
+        LOG.debug("Catalog version {}: {}", next, reason);
+    }
+
+    @Override
+    public void onApplicationEvent(CatalogChangeEvent event) {
+        bump(event.missedChanges() ? "catalog changes missed" : event.changes().size() + " catalog change(s) up to " + event.version());
+    }
+}
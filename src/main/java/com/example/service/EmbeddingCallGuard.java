@@ -0,0 +1,278 @@
+package com.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.scheduling.TaskExecutors;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Tail-latency and outage protection for embedding provider calls.
+ * <ul>
+ *   <li>Hedging: when a call has not answered by the observed p95 latency, an identical second
+ *   call is sent and whichever succeeds first is used.</li>
+ *   <li>Circuit breaker: when at least half of the recent calls failed or timed out, calls fail
+ *   fast for {@code open-duration}; then one probe call decides whether to close again.</li>
+ * </ul>
+ */
+@Singleton
+public class EmbeddingCallGuard {
+    private static final Logger LOG = LoggerFactory.getLogger(EmbeddingCallGuard.class);
+    private static final int LATENCY_WINDOW = 200;
+    private static final int MIN_LATENCY_SAMPLES = 20;
+    private static final double HEDGE_PERCENTILE = 0.95;
+
+    private enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final ExecutorService executor;
+    private final Duration timeout;
+    private final boolean hedgingEnabled;
+    private final Duration initialHedgeDelay;
+    private final Duration minHedgeDelay;
+    private final int breakerWindow;
+    private final int breakerMinimumCalls;
+    private final double breakerFailureRate;
+    private final Duration breakerOpenDuration;
+    private final Counter hedges;
+    private final Counter hedgeWins;
+    private final Counter trips;
+    private final Counter rejected;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final long[] latencies = new long[LATENCY_WINDOW];
+    private int latencyCount;
+    private int nextLatency;
+    private final boolean[] outcomes;
+    private int outcomeCount;
+    private int nextOutcome;
+    private int failures;
+    private State state = State.CLOSED;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    public EmbeddingCallGuard(
+        @Named(TaskExecutors.VIRTUAL) ExecutorService executor,
+        MeterRegistry meterRegistry,
+        @Value("${app.embeddings.timeout:10s}") Duration timeout,
+        @Value("${app.embeddings.hedge.enabled:true}") boolean hedgingEnabled,
+        @Value("${app.embeddings.hedge.initial-delay:500ms}") Duration initialHedgeDelay,
+        @Value("${app.embeddings.hedge.min-delay:50ms}") Duration minHedgeDelay,
+        @Value("${app.embeddings.breaker.window:20}") int breakerWindow,
+        @Value("${app.embeddings.breaker.minimum-calls:10}") int breakerMinimumCalls,
+        @Value("${app.embeddings.breaker.failure-rate:0.5}") double breakerFailureRate,
+        @Value("${app.embeddings.breaker.open-duration:30s}") Duration breakerOpenDuration
+    ) {
+        this.executor = executor;
+        this.timeout = timeout;
+        this.hedgingEnabled = hedgingEnabled;
+        this.initialHedgeDelay = initialHedgeDelay;
+        this.minHedgeDelay = minHedgeDelay;
+        this.breakerWindow = breakerWindow;
+        this.breakerMinimumCalls = breakerMinimumCalls;
+        this.breakerFailureRate = breakerFailureRate;
+        this.breakerOpenDuration = breakerOpenDuration;
+        this.outcomes = new boolean[breakerWindow];
+        this.hedges = meterRegistry.counter("travel.embedding.hedges");
+        this.hedgeWins = meterRegistry.counter("travel.embedding.hedge.wins");
+        this.trips = meterRegistry.counter("travel.embedding.breaker.trips");
+        this.rejected = meterRegistry.counter("travel.embedding.breaker.rejected");
+        Gauge.builder("travel.embedding.breaker.open", this, guard -> guard.isOpen() ? 1 : 0).register(meterRegistry);
+    }
+
+    /**
+     * Runs the provider call under the breaker, hedged when {@code hedge} is set.
+     *
+     * @throws EmbeddingUnavailableException when the breaker is open or the call fails or times out
+     */
+    public float[] call(Supplier<float[]> call, boolean hedge) {
+        if (!tryAcquire()) {
+            rejected.increment();
+            throw new EmbeddingUnavailableException("Embedding provider circuit breaker is open");
+        }
+        long start = System.nanoTime();
+        try {
+            float[] result = hedge && hedgingEnabled ? hedged(call) : single(call);
+            onSuccess(System.nanoTime() - start);
+            return result;
+        } catch (TimeoutException e) {
+            onFailure();
+            throw new EmbeddingUnavailableException("Embedding provider did not answer within " + timeout);
+        } catch (ExecutionException e) {
+            onFailure();
+            throw new EmbeddingUnavailableException("Embedding provider call failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            onFailure();
+            throw new EmbeddingUnavailableException("Interrupted waiting for the embedding provider", e);
+        }
+    }
+
+    public boolean isOpen() {
+        lock.lock();
+        try {
+            return state != State.CLOSED;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private float[] single(Supplier<float[]> call) throws ExecutionException, InterruptedException, TimeoutException {
+        Future<float[]> future = executor.submit(call::get);
+        try {
+            return future.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } finally {
+            // A submitted task, unlike supplyAsync, is interrupted by cancel(true).
+            future.cancel(true);
+        }
+    }
+
+    private float[] hedged(Supplier<float[]> call) throws ExecutionException, InterruptedException, TimeoutException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        CompletionService<float[]> attempts = new ExecutorCompletionService<>(executor);
+        Future<float[]> primary = attempts.submit(call::get);
+        Future<float[]> hedge = null;
+        try {
+            Future<float[]> done = attempts.poll(hedgeDelayNanos(), TimeUnit.NANOSECONDS);
+            if (done != null) {
+                return done.get();
+            }
+            hedges.increment();
+            hedge = attempts.submit(call::get);
+            ExecutionException failure = null;
+            for (int pending = 2; pending > 0; pending--) {
+                done = attempts.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    throw new TimeoutException();
+                }
+                try {
+                    float[] result = done.get();
+                    if (done == hedge) {
+                        hedgeWins.increment();
+                    }
+                    return result;
+                } catch (ExecutionException e) {
+                    failure = e;
+                }
+            }
+            throw failure;
+        } finally {
+            primary.cancel(true);
+            if (hedge != null) {
+                hedge.cancel(true);
+            }
+        }
+    }
+
+    private long hedgeDelayNanos() {
+        lock.lock();
+        try {
+            if (latencyCount < MIN_LATENCY_SAMPLES) {
+                return initialHedgeDelay.toNanos();
+            }
+            long[] sorted = Arrays.copyOf(latencies, latencyCount);
+            Arrays.sort(sorted);
+            long p95 = sorted[Math.min(sorted.length - 1, (int) (sorted.length * HEDGE_PERCENTILE))];
+            return Math.max(minHedgeDelay.toNanos(), p95);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean tryAcquire() {
+        lock.lock();
+        try {
+            if (state == State.OPEN && System.nanoTime() - openedAt >= breakerOpenDuration.toNanos()) {
+                state = State.HALF_OPEN;
+                probeInFlight = false;
+            }
+            if (state == State.CLOSED) {
+                return true;
+            }
+            if (state == State.HALF_OPEN && !probeInFlight) {
+                probeInFlight = true;
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onSuccess(long latencyNanos) {
+        lock.lock();
+        try {
+            latencies[nextLatency] = latencyNanos;
+            nextLatency = (nextLatency + 1) % LATENCY_WINDOW;
+            latencyCount = Math.min(latencyCount + 1, LATENCY_WINDOW);
+            if (state == State.HALF_OPEN) {
+                LOG.info("Embedding provider recovered, closing circuit breaker");
+                state = State.CLOSED;
+                resetOutcomes();
+            } else {
+                recordOutcome(false);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onFailure() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                open("probe call failed");
+                return;
+            }
+            recordOutcome(true);
+            if (state == State.CLOSED && outcomeCount >= breakerMinimumCalls && failures >= breakerFailureRate * outcomeCount) {
+                open(failures + " of the last " + outcomeCount + " calls failed");
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recordOutcome(boolean failure) {
+        if (outcomeCount == breakerWindow && outcomes[nextOutcome]) {
+            failures--;
+        }
+        outcomes[nextOutcome] = failure;
+        if (failure) {
+            failures++;
+        }
+        nextOutcome = (nextOutcome + 1) % breakerWindow;
+        outcomeCount = Math.min(outcomeCount + 1, breakerWindow);
+    }
+
+    private void resetOutcomes() {
+        Arrays.fill(outcomes, false);
+        outcomeCount = 0;
+        nextOutcome = 0;
+        failures = 0;
+    }
+
+    private void open(String reason) {
+        LOG.warn("Opening embedding provider circuit breaker for {}: {}", breakerOpenDuration, reason);
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+        probeInFlight = false;
+        resetOutcomes();
+        trips.increment();
+    }
+}
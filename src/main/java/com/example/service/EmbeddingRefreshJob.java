@@ -0,0 +1,176 @@
+package com.example.service;
+
+import com.example.model.ItemType;
+import com.example.repository.EmbeddingBackfillRepository;
+import com.example.repository.EmbeddingBackfillRepository.EmbeddingSeed;
+import com.example.repository.JobRunRepository;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Re-embeds stale catalog rows every {@code app.embeddings.refresh-interval}. With several
+ * instances, the {@code job_runs} row lock lets one refresh at a time, and none within half an
+ * interval of another's completed refresh, so each row is embedded once.
+ */
+@Singleton
+public class EmbeddingRefreshJob {
+    private static final Logger LOG = LoggerFactory.getLogger(EmbeddingRefreshJob.class);
+    private static final String JOB = "embedding_refresh";
+
+    private final EmbeddingService embeddingService;
+    private final EmbeddingBackfillRepository embeddingBackfillRepository;
+    private final CatalogVersion catalogVersion;
+    private final BackgroundJobs backgroundJobs;
+    private final JobRunRepository jobRunRepository;
+    private final Duration refreshInterval;
+    private final ReentrantLock running = new ReentrantLock();
+
+    public EmbeddingRefreshJob(
+        EmbeddingService embeddingService,
+        EmbeddingBackfillRepository embeddingBackfillRepository,
+        CatalogVersion catalogVersion,
+        BackgroundJobs backgroundJobs,
+        JobRunRepository jobRunRepository,
+        @Value("${app.embeddings.refresh-interval:15m}") Duration refreshInterval
+    ) {
+        this.embeddingService = embeddingService;
+        this.embeddingBackfillRepository = embeddingBackfillRepository;
+        this.catalogVersion = catalogVersion;
+        this.backgroundJobs = backgroundJobs;
+        this.jobRunRepository = jobRunRepository;
+        this.refreshInterval = refreshInterval;
+    }
+
+    @Scheduled(
+        fixedDelay = "${app.embeddings.refresh-interval:15m}",
+        initialDelay = "${app.embeddings.refresh-interval:15m}"
+    )
+    void scheduledRefresh() {
+        if (!backgroundJobs.enter()) {
+            return;
+        }
+        try {
+            // Half an interval, since fixedDelay counts from the end of the last run.
+            jobRunRepository.runExclusive(JOB, refreshInterval.dividedBy(2), () -> refresh().failed() == 0);
+        } finally {
+            backgroundJobs.exit();
+        }
+    }
+
+    public RefreshReport refresh() {
+        if (!running.tryLock()) {
+            LOG.debug("Embedding refresh already running, skipping");
+            return new RefreshReport(0, 0, 0);
+        }
+        try {
+            String model = embeddingService.modelName();
+            clearOtherDimensions();
+            RefreshReport destinations = refresh(ItemType.DESTINATION, embeddingBackfillRepository.findDestinationSeeds(model), model);
+            RefreshReport hotels = refresh(ItemType.HOTEL, embeddingBackfillRepository.findHotelSeeds(model), model);
+            RefreshReport activities = refresh(ItemType.ACTIVITY, embeddingBackfillRepository.findActivitySeeds(model), model);
+            RefreshReport total = destinations.plus(hotels).plus(activities);
+            for (ItemType type : ItemType.values()) {
+                createMissingVectorIndex(type);
+            }
+
+            if (total.reembedded() > 0) {
+                catalogVersion.bump(total.reembedded() + " rows re-embedded");
+            }
+
+            if (total.reembedded() + total.failed() > 0) {
+                LOG.info("Embedding refresh: {} re-embedded, {} verified, {} failed "
+                        + "(destinations {}/{}, hotels {}/{}, activities {}/{} re-embedded/verified)",
+                    total.reembedded(), total.skipped(), total.failed(),
+                    destinations.reembedded(), destinations.skipped(),
+                    hotels.reembedded(), hotels.skipped(),
+                    activities.reembedded(), activities.skipped());
+            } else if (total.skipped() > 0) {
+                LOG.info("All embeddings up to date ({} verified against their fingerprint)", total.skipped());
+            } else {
+                LOG.debug("All embeddings up to date");
+            }
+            return total;
+        } finally {
+            running.unlock();
+        }
+    }
+
+    /**
+     * Vectors of another dimension cannot be compared with query vectors, so after switching
+     * embedding models they are dropped up front, together with the vector index built for them;
+     * search then skips those rows until re-embedded and the index is rebuilt.
+     */
+    private void clearOtherDimensions() {
+        int dimensions;
+        try {
+            dimensions = embeddingService.dimensions();
+        } catch (RuntimeException e) {
+            LOG.warn("Could not determine embedding dimensions, keeping existing embeddings", e);
+            return;
+        }
+        for (ItemType type : ItemType.values()) {
+            int cleared = embeddingBackfillRepository.clearEmbeddingsWithOtherDimensions(type, dimensions);
+            if (cleared > 0) {
+                LOG.info("Cleared {} {} embeddings that are not {}-dimensional", cleared, type.value(), dimensions);
+                catalogVersion.bump(cleared + " " + type.value() + " embeddings cleared");
+                if (embeddingBackfillRepository.hasVectorIndex(type)) {
+                    embeddingBackfillRepository.dropVectorIndex(type);
+                }
+            }
+        }
+    }
+
+    private void createMissingVectorIndex(ItemType type) {
+        if (!embeddingBackfillRepository.hasVectorIndex(type) && embeddingBackfillRepository.hasEmbeddings(type)
+            && embeddingBackfillRepository.createVectorIndex(type)) {
+            LOG.info("Created vector index on {}", type.table());
+        }
+    }
+
+    /**
+     * {@code seeds} are only the rows the database reports as stale. One whose stored vector
+     * still matches its fingerprint (unverified since V14, or text rewritten unchanged) is
+     * marked current without re-embedding.
+     */
+    private RefreshReport refresh(ItemType type, List<? extends EmbeddingSeed> seeds, String model) {
+        int reembedded = 0;
+        int skipped = 0;
+        int failed = 0;
+        for (EmbeddingSeed seed : seeds) {
+            String text = seed.text();
+            String hash = ContentHash.sha256(text);
+            if (seed.hasEmbedding() && seed.sourceHash() == null) {
+                // Embedded before fingerprints existed: adopt the current text instead of paying to re-embed.
+                embeddingBackfillRepository.updateFingerprint(type, seed.id(), hash, model, seed.textVersion());
+                skipped++;
+            } else if (seed.hasEmbedding() && hash.equals(seed.sourceHash()) && model.equals(seed.embeddingModel())) {
+                embeddingBackfillRepository.updateFingerprint(type, seed.id(), hash, model, seed.textVersion());
+                skipped++;
+            } else {
+                try {
+                    float[] embedding = embeddingService.generateDocumentEmbedding(text);
+                    embeddingBackfillRepository.updateEmbedding(type, seed.id(), embedding, hash, model, seed.textVersion());
+                    reembedded++;
+                } catch (RuntimeException e) {
+                    LOG.warn("Error embedding {} id={}", type.value(), seed.id(), e);
+                    failed++;
+                }
+            }
+        }
+        return new RefreshReport(reembedded, skipped, failed);
+    }
+
+    public record RefreshReport(int reembedded, int skipped, int failed) {
+
+        RefreshReport plus(RefreshReport other) {
+            return new RefreshReport(reembedded + other.reembedded, skipped + other.skipped, failed + other.failed);
+        }
+    }
+}
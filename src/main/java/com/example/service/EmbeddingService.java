@@ -1,19 +1,163 @@
 package com.example.service;
 
-import dev.langchain4j.data.embedding.Embedding;
+import com.example.model.SearchQuery;
+import com.example.tracing.TravelTracer;
 import dev.langchain4j.model.embedding.EmbeddingModel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.context.annotation.Value;
 import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Singleton
 public class EmbeddingService {
+    public static final String LOCAL_PROVIDER = "local";
+    private static final Logger LOG = LoggerFactory.getLogger(EmbeddingService.class);
+
     private final EmbeddingModel embeddingModel;
+    private final TravelTracer tracer;
+    private final LocalEmbeddingStore localEmbeddingStore;
+    private final EmbeddingCallGuard guard;
+    private final MeterRegistry meterRegistry;
+    private final String modelName;
+    private final boolean remote;
+    private final int maxCachedQueries;
+    private final Map<String, float[]> recentQueries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock recentQueriesLock = new ReentrantLock();
+    private volatile int dimensions;
 
-    public EmbeddingService(EmbeddingModel embeddingModel) {
+    public EmbeddingService(
+        EmbeddingModel embeddingModel,
+        TravelTracer tracer,
+        LocalEmbeddingStore localEmbeddingStore,
+        EmbeddingCallGuard guard,
+        MeterRegistry meterRegistry,
+        @Value("${app.embeddings.provider:openai}") String provider,
+        @Value("${langchain4j.open-ai.embedding-model.model-name:unknown}") String remoteModelName,
+        @Value("${app.embeddings.query-cache.max-entries:1000}") int maxCachedQueries
+    ) {
         this.embeddingModel = embeddingModel;
+        this.tracer = tracer;
+        this.localEmbeddingStore = localEmbeddingStore;
+        this.guard = guard;
+        this.meterRegistry = meterRegistry;
+        this.remote = !LOCAL_PROVIDER.equals(provider);
+        this.modelName = remote ? remoteModelName : LocalEmbeddingModelFactory.MODEL_NAME;
+        this.maxCachedQueries = maxCachedQueries;
+    }
+
+    public String modelName() {
+        return modelName;
+    }
+
+    public int dimensions() {
+        if (dimensions == 0) {
+            dimensions = embeddingModel.dimension();
+        }
+        return dimensions;
+    }
+
+    /**
+     * What a search for {@code text} ranks by. Recent queries reuse their vector; when the provider
+     * is unavailable and the query is not cached, the search degrades to keyword matching.
+     */
+    public SearchQuery searchQuery(String text) {
+        String key = queryKey(text);
+        float[] cached = cachedQuery(key);
+        if (cached != null) {
+            if (guard.isOpen()) {
+                meterRegistry.counter("travel.embedding.fallback", "mode", "cached").increment();
+            }
+            return SearchQuery.semantic(cached);
+        }
+        try {
+            float[] vector = generateEmbedding(text);
+            cacheQuery(key, vector);
+            return SearchQuery.semantic(vector);
+        } catch (EmbeddingUnavailableException e) {
+            LOG.warn("Falling back to keyword search: {}", e.getMessage());
+            meterRegistry.counter("travel.embedding.fallback", "mode", "lexical").increment();
+            return SearchQuery.lexical(text);
+        }
+    }
+
+    /**
+     * Makes {@link #searchQuery} answer {@code text} with {@code vector}, without a provider call.
+     * Warmup runs the search tools this way, with a vector already stored in the catalog.
+     */
+    public void rememberQuery(String text, float[] vector) {
+        cacheQuery(queryKey(text), vector);
+    }
+
+    public void forgetQuery(String text) {
+        recentQueriesLock.lock();
+        try {
+            recentQueries.remove(queryKey(text));
+        } finally {
+            recentQueriesLock.unlock();
+        }
     }
 
+    /**
+     * Embeds a search query. Remote calls are hedged; every call goes through the circuit breaker.
+     *
+     * @throws EmbeddingUnavailableException when the provider fails, times out, or its breaker is open
+     */
     public float[] generateEmbedding(String text) {
-        Embedding embedding = embeddingModel.embed(text).content();
-        return embedding.vector();
+        return embed(text, remote);
+    }
+
+    private float[] embed(String text, boolean hedge) {
+        return tracer.embedding(modelName, span -> {
+            span.setAttribute(TravelTracer.EMBEDDING_TEXT_LENGTH, text.length());
+            float[] vector = guard.call(() -> embeddingModel.embed(text).content().vector(), hedge);
+            span.setAttribute(TravelTracer.EMBEDDING_DIMENSIONS, vector.length);
+            return vector;
+        });
+    }
+
+    /**
+     * Embeds catalog text, reusing a vector from the local store when the same text was
+     * already embedded with the same model.
+     */
+    public float[] generateDocumentEmbedding(String text) {
+        return localEmbeddingStore.get(modelName, text).orElseGet(() -> {
+            float[] vector = embed(text, false);
+            localEmbeddingStore.put(modelName, text, vector);
+            return vector;
+        });
+    }
+
+    private static String queryKey(String text) {
+        return text.strip().toLowerCase(Locale.ROOT);
+    }
+
+    private float[] cachedQuery(String key) {
+        recentQueriesLock.lock();
+        try {
+            return recentQueries.get(key);
+        } finally {
+            recentQueriesLock.unlock();
+        }
+    }
+
+    private void cacheQuery(String key, float[] vector) {
+        recentQueriesLock.lock();
+        try {
+            recentQueries.put(key, vector);
+            Iterator<String> leastRecentlyUsed = recentQueries.keySet().iterator();
+            while (recentQueries.size() > maxCachedQueries) {
+                leastRecentlyUsed.next();
+                leastRecentlyUsed.remove();
+            }
+        } finally {
+            recentQueriesLock.unlock();
+        }
     }
 }
@@ -0,0 +1,15 @@
+package com.example.service;
+
+/**
+ * The embedding provider failed, timed out, or is skipped while its circuit breaker is open.
+ */
+public class EmbeddingUnavailableException extends RuntimeException {
+
+    public EmbeddingUnavailableException(String message) {
+        super(message);
+    }
+
+    public EmbeddingUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.service;
+
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.embedding.onnx.allminilml6v2.AllMiniLmL6V2EmbeddingModel;
+import io.micronaut.context.annotation.Factory;
+import io.micronaut.context.annotation.Primary;
+import io.micronaut.context.annotation.Requires;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+
+/**
+ * In-process all-MiniLM-L6-v2 encoder (ONNX Runtime on CPU, 384 dimensions), used instead of the
+ * remote OpenAI model when {@code app.embeddings.provider=local}.
+ */
+@Factory
+@Requires(property = "app.embeddings.provider", value = EmbeddingService.LOCAL_PROVIDER)
+public class LocalEmbeddingModelFactory {
+    public static final String MODEL_NAME = "all-minilm-l6-v2";
+
+    @Primary
+    @Singleton
+    @Named(EmbeddingService.LOCAL_PROVIDER)
+    EmbeddingModel localEmbeddingModel() {
+        return new AllMiniLmL6V2EmbeddingModel();
+    }
+}
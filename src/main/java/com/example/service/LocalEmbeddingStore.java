@@ -0,0 +1,337 @@
+package com.example.service;
+
+import io.micronaut.context.annotation.Value;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Append-only, memory-mapped store of document embeddings keyed by SHA-256 of the text, with one
+ * data file of fixed-width float32 vectors and one index file per embedding model.
+ * <p>
+ * The files belong to one process: each data file is locked exclusively while open, and a
+ * second process pointed at the same directory turns its store off instead of corrupting it.
+ */
+@Singleton
+public class LocalEmbeddingStore {
+    private static final Logger LOG = LoggerFactory.getLogger(LocalEmbeddingStore.class);
+    private static final int MAGIC = 0x53544156;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int KEY_BYTES = 32;
+    private static final int INDEX_ENTRY_BYTES = KEY_BYTES + Integer.BYTES;
+    private static final int SEGMENT_VECTORS = 4096;
+
+    private volatile boolean enabled;
+    private final Path directory;
+    private final Map<String, ModelFile> files = new ConcurrentHashMap<>();
+
+    public LocalEmbeddingStore(
+        @Value("${app.embeddings.store.enabled:true}") boolean enabled,
+        @Value("${app.embeddings.store.path:data/embedding-store}") String directory
+    ) {
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+    }
+
+    public Optional<float[]> get(String model, String text) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        try {
+            ModelFile file = existingFile(model);
+            return file == null ? Optional.empty() : file.get(Key.of(text));
+        } catch (IOException | UncheckedIOException e) {
+            LOG.warn("Error reading local embedding store for model {}", model, e);
+            return Optional.empty();
+        }
+    }
+
+    public void put(String model, String text, float[] vector) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            ModelFile file = files.computeIfAbsent(model, name -> open(name, vector.length));
+            if (file.dimensions != vector.length) {
+                LOG.warn("Not storing {}-dimensional embedding in {}-dimensional store for model {}",
+                    vector.length, file.dimensions, model);
+                return;
+            }
+            file.put(Key.of(text), vector);
+        } catch (IOException | UncheckedIOException e) {
+            LOG.warn("Error writing local embedding store for model {}", model, e);
+        }
+    }
+
+    /**
+     * Closes the files; they reopen on next use. A read or write racing with this finds its
+     * file closed and acts as if the store were empty.
+     */
+    @PreDestroy
+    public void close() {
+        files.values().forEach(ModelFile::close);
+        files.clear();
+    }
+
+    private ModelFile existingFile(String model) throws IOException {
+        ModelFile file = files.get(model);
+        if (file != null || !Files.exists(dataPath(model))) {
+            return file;
+        }
+        return files.computeIfAbsent(model, name -> open(name, -1));
+    }
+
+    private ModelFile open(String model, int dimensions) {
+        try {
+            Files.createDirectories(directory);
+            ModelFile file;
+            try {
+                file = ModelFile.open(dataPath(model), indexPath(model), dimensions);
+            } catch (StoreInUseException e) {
+                enabled = false;
+                LOG.error("Local embedding store {} is used by another process, disabling it here; "
+                    + "give each process its own app.embeddings.store.path", directory);
+                throw e;
+            }
+            LOG.info("Opened local embedding store for model {}: {} vectors of {} dimensions",
+                model, file.count, file.dimensions);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path dataPath(String model) {
+        return directory.resolve(fileName(model) + ".f32");
+    }
+
+    private Path indexPath(String model) {
+        return directory.resolve(fileName(model) + ".idx");
+    }
+
+    private String fileName(String model) {
+        return model.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    private record Key(long a, long b, long c, long d) {
+
+        static Key of(String text) {
+            return of(ByteBuffer.wrap(ContentHash.sha256Bytes(text)));
+        }
+
+        static Key of(ByteBuffer buffer) {
+            return new Key(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+        }
+
+        void writeTo(ByteBuffer buffer) {
+            buffer.putLong(a).putLong(b).putLong(c).putLong(d);
+        }
+    }
+
+    private static final class StoreInUseException extends IOException {
+
+        StoreInUseException(Path path) {
+            super(path + " is locked by another process");
+        }
+    }
+
+    private static final class ModelFile {
+        private final FileChannel data;
+        private final FileLock fileLock;
+        private final FileChannel index;
+        private final int dimensions;
+        private final int vectorBytes;
+        private final Map<Key, Integer> slots = new HashMap<>();
+        private final List<MappedByteBuffer> segments = new ArrayList<>();
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private int count;
+        private boolean closed;
+
+        private ModelFile(FileChannel data, FileLock fileLock, FileChannel index, int dimensions) {
+            this.data = data;
+            this.fileLock = fileLock;
+            this.index = index;
+            this.dimensions = dimensions;
+            this.vectorBytes = dimensions * Float.BYTES;
+        }
+
+        static ModelFile open(Path dataPath, Path indexPath, int dimensions) throws IOException {
+            FileChannel data = FileChannel.open(dataPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            FileChannel index = null;
+            try {
+                FileLock fileLock = lock(data, dataPath);
+                index = FileChannel.open(indexPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                int fileDimensions = data.size() >= HEADER_BYTES ? readHeader(data) : writeHeader(data, dimensions);
+                ModelFile file = new ModelFile(data, fileLock, index, fileDimensions);
+                file.loadIndex();
+                return file;
+            } catch (IOException | RuntimeException e) {
+                data.close();
+                if (index != null) {
+                    index.close();
+                }
+                throw e;
+            }
+        }
+
+        private static FileLock lock(FileChannel data, Path dataPath) throws IOException {
+            try {
+                FileLock fileLock = data.tryLock();
+                if (fileLock == null) {
+                    throw new StoreInUseException(dataPath);
+                }
+                return fileLock;
+            } catch (OverlappingFileLockException e) {
+                throw new StoreInUseException(dataPath);
+            }
+        }
+
+        private static int readHeader(FileChannel data) throws IOException {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            data.read(header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Unsupported embedding store file format");
+            }
+            return header.getInt();
+        }
+
+        private static int writeHeader(FileChannel data, int dimensions) throws IOException {
+            if (dimensions <= 0) {
+                throw new IOException("Embedding store has no header and no dimensions were given");
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION).putInt(dimensions).putInt(0);
+            header.flip();
+            data.write(header, 0);
+            return dimensions;
+        }
+
+        private void loadIndex() throws IOException {
+            long entries = index.size() / INDEX_ENTRY_BYTES;
+            ByteBuffer buffer = ByteBuffer.allocate((int) (entries * INDEX_ENTRY_BYTES));
+            index.read(buffer, 0);
+            buffer.flip();
+            for (long i = 0; i < entries; i++) {
+                Key key = Key.of(buffer);
+                int slot = buffer.getInt();
+                slots.put(key, slot);
+                count = Math.max(count, slot + 1);
+            }
+            if (count > 0) {
+                mapSegments(count - 1);
+            }
+        }
+
+        Optional<float[]> get(Key key) {
+            lock.readLock().lock();
+            try {
+                Integer slot = closed ? null : slots.get(key);
+                if (slot == null) {
+                    return Optional.empty();
+                }
+                float[] vector = new float[dimensions];
+                vectorBuffer(slot).asFloatBuffer().get(vector);
+                return isZero(vector) ? Optional.empty() : Optional.of(vector);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void put(Key key, float[] vector) throws IOException {
+            lock.writeLock().lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                Integer existing = slots.get(key);
+                if (existing != null) {
+                    float[] stored = new float[dimensions];
+                    vectorBuffer(existing).asFloatBuffer().get(stored);
+                    if (isZero(stored)) {
+                        // Written to the index but lost from the data file in a crash: repair in place.
+                        vectorBuffer(existing).asFloatBuffer().put(vector);
+                    }
+                    return;
+                }
+                int slot = count;
+                mapSegments(slot);
+                vectorBuffer(slot).asFloatBuffer().put(vector);
+
+                ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_BYTES);
+                key.writeTo(entry);
+                entry.putInt(slot);
+                entry.flip();
+                index.write(entry, index.size());
+
+                slots.put(key, slot);
+                count++;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void mapSegments(int slot) throws IOException {
+            while (segments.size() <= slot / SEGMENT_VECTORS) {
+                long position = HEADER_BYTES + (long) segments.size() * SEGMENT_VECTORS * vectorBytes;
+                segments.add(data.map(FileChannel.MapMode.READ_WRITE, position, (long) SEGMENT_VECTORS * vectorBytes));
+            }
+        }
+
+        /**
+         * An index entry can outlive an unflushed vector after a crash; such a slot reads as zeros.
+         */
+        private static boolean isZero(float[] vector) {
+            for (float value : vector) {
+                if (value != 0f) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private ByteBuffer vectorBuffer(int slot) {
+            int offset = (slot % SEGMENT_VECTORS) * vectorBytes;
+            return segments.get(slot / SEGMENT_VECTORS).slice(offset, vectorBytes).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        void close() {
+            lock.writeLock().lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                segments.forEach(MappedByteBuffer::force);
+                segments.clear();
+                fileLock.release();
+                data.close();
+                index.close();
+            } catch (IOException e) {
+                LOG.warn("Error closing local embedding store", e);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.service;
+
+import com.example.model.GeoRadius;
+import com.example.model.ItemType;
+import com.example.model.SearchQuery;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.core.annotation.Nullable;
+import jakarta.inject.Singleton;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the query (vector or keywords), filters and already-returned IDs of recent searches, so a follow-up
+ * page neither re-embeds the query nor repeats earlier rows. Bounded in size (LRU) and age.
+ */
+@Singleton
+public class SearchCursorCache {
+    private final int maxEntries;
+    private final Duration ttl;
+    private final Map<String, Entry> cursors = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public SearchCursorCache(
+        @Value("${app.search.cursor.max-entries:1000}") int maxEntries,
+        @Value("${app.search.cursor.ttl:30m}") Duration ttl
+    ) {
+        this.maxEntries = maxEntries;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Stores the cursor under {@code id}, or under a new ID when {@code id} is null, and returns the ID.
+     */
+    public String save(@Nullable String id, Cursor cursor) {
+        String cursorId = id != null ? id : Long.toString(ThreadLocalRandom.current().nextLong(Long.MAX_VALUE), 36);
+        lock.lock();
+        try {
+            cursors.put(cursorId, new Entry(cursor, System.currentTimeMillis() + ttl.toMillis()));
+            Iterator<String> leastRecentlyUsed = cursors.keySet().iterator();
+            while (cursors.size() > maxEntries) {
+                leastRecentlyUsed.next();
+                leastRecentlyUsed.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return cursorId;
+    }
+
+    public Optional<Cursor> get(String id) {
+        lock.lock();
+        try {
+            Entry entry = cursors.get(id);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            if (entry.expiresAt() < System.currentTimeMillis()) {
+                cursors.remove(id);
+                return Optional.empty();
+            }
+            return Optional.of(entry.cursor());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void remove(String id) {
+        lock.lock();
+        try {
+            cursors.remove(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            cursors.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public record Cursor(
+        ItemType type,
+        SearchQuery query,
+        @Nullable Long destinationId,
+        @Nullable Double maxPrice,
+        @Nullable GeoRadius near,
+        double maxDistance,
+        Set<Long> returnedIds
+    ) {
+
+        public Cursor withReturned(Collection<Long> ids) {
+            Set<Long> returned = new LinkedHashSet<>(returnedIds);
+            returned.addAll(ids);
+            return new Cursor(type, query, destinationId, maxPrice, near, maxDistance, Set.copyOf(returned));
+        }
+    }
+
+    private record Entry(Cursor cursor, long expiresAt) {
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.service;
+
+import com.example.model.ItemType;
+import com.example.repository.ItemNeighborRepository;
+import com.example.repository.JobRunRepository;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Rebuilds the {@code item_neighbors} table behind the findSimilar tool: for every catalog row,
+ * the {@code app.similar.neighbors} most similar rows of each item type, over the whole catalog
+ * and within {@code app.similar.radius-km}. The work runs inside the database, one transaction
+ * per item type, and is skipped while the catalog version has not moved since the last build.
+ * With several instances, the {@code job_runs} row lock lets one rebuild at a time, and none
+ * within half a refresh interval of another's completed rebuild.
+ */
+@Singleton
+@Requires(property = "app.similar.job.enabled", notEquals = "false")
+public class SimilarItemsJob {
+    private static final Logger LOG = LoggerFactory.getLogger(SimilarItemsJob.class);
+    private static final long NEVER_BUILT = -1;
+    private static final String JOB = "item_neighbors";
+
+    private final ItemNeighborRepository itemNeighborRepository;
+    private final JobRunRepository jobRunRepository;
+    private final CatalogVersion catalogVersion;
+    private final BackgroundJobs backgroundJobs;
+    private final int neighbors;
+    private final double radiusKm;
+    private final Duration refreshInterval;
+    private final ReentrantLock running = new ReentrantLock();
+    private volatile long builtVersion = NEVER_BUILT;
+
+    public SimilarItemsJob(
+        ItemNeighborRepository itemNeighborRepository,
+        JobRunRepository jobRunRepository,
+        CatalogVersion catalogVersion,
+        BackgroundJobs backgroundJobs,
+        @Value("${app.similar.neighbors:10}") int neighbors,
+        @Value("${app.similar.radius-km:50}") double radiusKm,
+        @Value("${app.similar.refresh-interval:1h}") Duration refreshInterval
+    ) {
+        this.itemNeighborRepository = itemNeighborRepository;
+        this.jobRunRepository = jobRunRepository;
+        this.catalogVersion = catalogVersion;
+        this.backgroundJobs = backgroundJobs;
+        this.neighbors = neighbors;
+        this.radiusKm = radiusKm;
+        this.refreshInterval = refreshInterval;
+    }
+
+    @Scheduled(
+        fixedDelay = "${app.similar.refresh-interval:1h}",
+        initialDelay = "${app.similar.initial-delay:5m}"
+    )
+    void scheduledRebuild() {
+        if (catalogVersion.current() == builtVersion) {
+            LOG.debug("Item neighbors up to date, skipping rebuild");
+            return;
+        }
+        if (!backgroundJobs.enter()) {
+            return;
+        }
+        try {
+            // Half an interval, since fixedDelay counts from the end of the last run.
+            jobRunRepository.runExclusive(JOB, refreshInterval.dividedBy(2), this::rebuild);
+        } finally {
+            backgroundJobs.exit();
+        }
+    }
+
+    /**
+     * @return whether every item type was rebuilt
+     */
+    public boolean rebuild() {
+        if (!running.tryLock()) {
+            LOG.debug("Item neighbor rebuild already running, skipping");
+            return false;
+        }
+        try {
+            long version = catalogVersion.current();
+            long started = System.nanoTime();
+            int written = 0;
+            boolean complete = true;
+            for (ItemType type : ItemType.values()) {
+                Optional<Integer> rows = itemNeighborRepository.rebuild(type, neighbors, radiusKm);
+                if (rows.isEmpty()) {
+                    complete = false;
+                } else {
+                    written += rows.get();
+                }
+            }
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            if (complete) {
+                builtVersion = version;
+                LOG.info("Rebuilt item neighbors: {} rows in {} ms", written, millis);
+            } else {
+                LOG.warn("Item neighbor rebuild incomplete after {} ms ({} rows written), retrying next run", millis, written);
+            }
+            return complete;
+        } finally {
+            running.unlock();
+        }
+    }
+}
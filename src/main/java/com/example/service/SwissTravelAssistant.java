@@ -1,7 +1,9 @@
 package com.example.service;
 
 import com.example.tools.TravelTools;
+import dev.langchain4j.service.MemoryId;
 import dev.langchain4j.service.SystemMessage;
+import dev.langchain4j.service.UserMessage;
 import io.micronaut.langchain4j.annotation.AiService;
 
 @AiService(tools = TravelTools.class)
@@ -17,6 +19,7 @@ public interface SwissTravelAssistant {
             - For every new user request that asks for destinations, hotels, or activities, call the appropriate search tool again. Do not reuse earlier search results as a substitute for a tool call.
             - Supported location anchors for nearby search are: Zermatt, Interlaken, Lucerne, Lausanne, St. Moritz, Lugano, and Zurich.
             - For requests with a location constraint such as "in Zurich", "near Lucerne", "around Interlaken", or "within 40 km of Zermatt", use the matching nearby tool: searchNearbyDestinations, searchNearbyHotels, or searchNearbyActivities.
+            - For requests along a route such as "between Lucerne and Interlaken" or "on the way from Zurich to Lugano", call searchAlongRoute once with the anchors in travel order instead of several nearby searches.
             - Use nearby tools for location-constrained requests even when the location might be unsupported. The tool will validate the location anchor.
             - Never answer a location-constrained request with generic search results while claiming they are in or near that location.
             - If a nearby tool says the location is unsupported, explain that the demo currently supports only the listed location anchors.
@@ -24,7 +27,11 @@ public interface SwissTravelAssistant {
             - When users ask about places to visit without a location constraint, use searchDestinations.
             - When users ask about accommodations without a location constraint, use searchHotels (you can filter by destination and price).
             - When users ask about things to do without a location constraint, use searchActivities.
+            - When the user asks for more options from the same search, call moreResults with the cursor from that search result instead of searching again with a reworded query.
+            - When the user asks for something similar to an item whose ID you already have ("something like the Matterhorn View Hotel"), call findSimilar with its type and ID instead of a new search.
+            - Search results contain short summaries. When the user asks for more detail about one specific item, call getItemDetails with its type and ID.
             - When users express interest in something, proactively add it to their wishlist using addToWishlist
+            - When several items should be added or removed at once, use a single addAllToWishlist or removeFromWishlist call instead of one call per item
             - Present search results in a clear, friendly format with relevant details
             - Use 1-2 relevant emojis to make responses warm and engaging
             - Be proactive but don't overexplain what you're doing - just do it and show results
@@ -39,5 +46,5 @@ public interface SwissTravelAssistant {
 
             Be helpful and enthusiastic.
             """)
-    String chat(String userMessage);
+    String chat(@MemoryId String conversationId, @UserMessage String userMessage);
 }
@@ -0,0 +1,108 @@
+package com.example.service;
+
+import com.example.jfr.WishlistMutationEvent;
+import com.example.model.CatalogEntry;
+import com.example.model.ItemType;
+import com.example.model.WishlistChange;
+import com.example.model.WishlistItem;
+import com.example.repository.WishlistRepository;
+import io.opentelemetry.api.trace.Span;
+import jakarta.inject.Singleton;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+@Singleton
+public class WishlistService {
+    private final WishlistRepository wishlistRepository;
+    private final CatalogEntryCache catalogEntries;
+
+    public WishlistService(WishlistRepository wishlistRepository, CatalogEntryCache catalogEntries) {
+        this.wishlistRepository = wishlistRepository;
+        this.catalogEntries = catalogEntries;
+    }
+
+    /**
+     * Adds the items that exist in the catalog.
+     *
+     * @throws WishlistUpdateException when the wishlist could not be written
+     */
+    public WishlistChange add(List<WishlistItem> items) {
+        return mutate("add", items, true, wishlistRepository::saveAll);
+    }
+
+    /**
+     * Removes the items by type and ID, including ones whose catalog row no longer exists.
+     *
+     * @throws WishlistUpdateException when the wishlist could not be written
+     */
+    public WishlistChange remove(List<WishlistItem> items) {
+        return mutate("remove", items, false, wishlistRepository::deleteAll);
+    }
+
+    private WishlistChange mutate(
+        String operation,
+        List<WishlistItem> items,
+        boolean requireCatalogRow,
+        Function<List<WishlistItem>, Optional<Integer>> apply
+    ) {
+        WishlistMutationEvent event = new WishlistMutationEvent(operation, items.size());
+        RuntimeException failure = null;
+        event.begin();
+        try {
+            Resolved resolved = resolve(items, requireCatalogRow);
+            int changed = apply.apply(resolved.found())
+                .orElseThrow(() -> new WishlistUpdateException("Could not " + operation + " wishlist items"));
+            event.changed(changed, resolved.notFound().size());
+            return new WishlistChange(changed, resolved.names(), resolved.notFound());
+        } catch (RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            event.complete(Span.current(), failure);
+        }
+    }
+
+    /**
+     * Splits the items into valid and not found ones. Without {@code requireCatalogRow}, an item
+     * whose catalog row is gone stays valid and is named by type and ID.
+     */
+    private Resolved resolve(List<WishlistItem> items, boolean requireCatalogRow) {
+        Map<ItemType, Set<Long>> idsByType = new EnumMap<>(ItemType.class);
+        List<WishlistItem> notFound = new ArrayList<>();
+        for (WishlistItem item : items) {
+            Optional<ItemType> type = ItemType.from(item.itemType());
+            if (type.isEmpty() || item.itemId() == null) {
+                notFound.add(item);
+            } else {
+                idsByType.computeIfAbsent(type.get(), ignored -> new LinkedHashSet<>()).add(item.itemId());
+            }
+        }
+
+        List<WishlistItem> found = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        for (Map.Entry<ItemType, Set<Long>> entry : idsByType.entrySet()) {
+            ItemType type = entry.getKey();
+            Map<Long, CatalogEntry> existing = catalogEntries.get(type, entry.getValue());
+            for (Long id : entry.getValue()) {
+                CatalogEntry catalogEntry = existing.get(id);
+                if (catalogEntry == null && requireCatalogRow) {
+                    notFound.add(new WishlistItem(type.value(), id));
+                } else {
+                    found.add(new WishlistItem(type.value(), id));
+                    names.add(catalogEntry != null ? catalogEntry.name() : type.value() + " ID:" + id);
+                }
+            }
+        }
+        return new Resolved(found, names, notFound);
+    }
+
+    private record Resolved(List<WishlistItem> found, List<String> names, List<WishlistItem> notFound) {
+    }
+}
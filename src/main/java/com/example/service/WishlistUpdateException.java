@@ -0,0 +1,11 @@
+package com.example.service;
+
+/**
+ * A wishlist batch failed to write, so the change must not be reported as made.
+ */
+public class WishlistUpdateException extends RuntimeException {
+
+    public WishlistUpdateException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.tools;
+
+import com.example.service.CatalogVersion;
+import com.example.tracing.TravelTracer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.context.annotation.Value;
+import io.opentelemetry.api.trace.Span;
+import jakarta.inject.Singleton;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Results of read-only catalog tools, keyed by tool name and normalized arguments and shared
+ * across conversations. Bounded in size (LRU) and age, and an entry is stale once the
+ * {@link CatalogVersion} it was computed under has moved on. Tools that change state or read
+ * per-conversation state (wishlist, moreResults) must not go through this cache.
+ */
+@Singleton
+public class ToolResultCache {
+    private final CatalogVersion catalogVersion;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int maxEntries;
+    private final Duration ttl;
+    private final Map<Key, Entry> results = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public ToolResultCache(
+        CatalogVersion catalogVersion,
+        MeterRegistry meterRegistry,
+        @Value("${app.tools.cache.enabled:true}") boolean enabled,
+        @Value("${app.tools.cache.max-entries:2000}") int maxEntries,
+        @Value("${app.tools.cache.ttl:10m}") Duration ttl
+    ) {
+        this.catalogVersion = catalogVersion;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Returns the cached result of {@code tool} for these arguments, or computes and caches it.
+     * Concurrent misses for the same key each compute; the last one wins.
+     */
+    public <T> T get(String tool, List<?> arguments, Span span, Supplier<T> compute) {
+        return get(tool, arguments, span, compute, result -> true);
+    }
+
+    /**
+     * Like {@link #get(String, List, Span, Supplier)}, but a computed result is only stored when
+     * {@code cacheable} accepts it.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String tool, List<?> arguments, Span span, Supplier<T> compute, Predicate<? super T> cacheable) {
+        if (!enabled) {
+            return compute.get();
+        }
+        Key key = new Key(tool, arguments.stream().map(ToolResultCache::normalize).toList());
+        long version = catalogVersion.current();
+        Optional<Object> cached = lookup(key, version);
+        span.setAttribute(TravelTracer.TOOL_CACHE_HIT, cached.isPresent());
+        count(tool, cached.isPresent() ? "hit" : "miss");
+        if (cached.isPresent()) {
+            return (T) cached.get();
+        }
+
+        T result = compute.get();
+        if (!cacheable.test(result)) {
+            return result;
+        }
+        lock.lock();
+        try {
+            results.put(key, new Entry(result, version, System.currentTimeMillis() + ttl.toMillis()));
+            Iterator<Key> leastRecentlyUsed = results.keySet().iterator();
+            while (results.size() > maxEntries) {
+                leastRecentlyUsed.next();
+                leastRecentlyUsed.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return result;
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            results.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Optional<Object> lookup(Key key, long version) {
+        lock.lock();
+        try {
+            Entry entry = results.get(key);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            if (entry.version() != version || entry.expiresAt() < System.currentTimeMillis()) {
+                results.remove(key);
+                return Optional.empty();
+            }
+            return Optional.of(entry.result());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void count(String tool, String outcome) {
+        Counter.builder("travel.tool.cache")
+            .tag("tool", tool)
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    /**
+     * Case, surrounding and repeated whitespace in text arguments do not change a catalog
+     * search, and numbers compare by value ({@code 15} and {@code 15.0} are the same radius).
+     * A missing argument stays null, distinct from an empty string.
+     */
+    static String normalize(Object argument) {
+        return switch (argument) {
+            case null -> null;
+            case String text -> text.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+            case Number number -> Double.toString(number.doubleValue());
+            default -> argument.toString();
+        };
+    }
+
+    /**
+     * The arguments are kept as a list, not joined into one string, so that no argument value
+     * can make two different argument lists look alike. {@code toList()} allows nulls.
+     */
+    private record Key(String tool, List<String> arguments) {
+    }
+
+    private record Entry(Object result, long version, long expiresAt) {
+    }
+}
@@ -1,24 +1,45 @@
 package com.example.tools;
 
-import com.example.entity.ActivityEntity;
-import com.example.entity.DestinationEntity;
-import com.example.entity.HotelEntity;
+import com.example.model.ActivitySummary;
+import com.example.model.CatalogEntry;
+import com.example.model.DestinationSummary;
+import com.example.model.GeoCorridor;
+import com.example.model.GeoRadius;
+import com.example.model.HotelSummary;
+import com.example.model.ItemNeighbor;
+import com.example.model.ItemType;
+import com.example.model.RouteMatches;
+import com.example.model.SearchPage;
+import com.example.model.SearchQuery;
+import com.example.model.WishlistChange;
 import com.example.model.WishlistItem;
-import com.example.repository.ActivityRepository;
-import com.example.repository.DestinationRepository;
-import com.example.repository.HotelRepository;
-import com.example.repository.SpatialSearchRepository;
+import com.example.repository.CatalogLookupRepository;
+import com.example.repository.CatalogSearchRepository;
+import com.example.repository.ItemNeighborRepository;
 import com.example.repository.WishlistRepository;
+import com.example.service.CatalogEntryCache;
 import com.example.service.EmbeddingService;
+import com.example.service.SearchCursorCache;
+import com.example.service.SearchCursorCache.Cursor;
+import com.example.service.WishlistService;
+import com.example.service.WishlistUpdateException;
+import com.example.tracing.TravelTracer;
 import dev.langchain4j.agent.tool.Tool;
+import io.micronaut.context.annotation.Value;
 import io.micronaut.data.model.geo.Point;
-import io.micronaut.data.model.vector.FloatVector;
-import io.micronaut.data.model.vector.Vector;
+import io.opentelemetry.api.trace.Span;
 import jakarta.inject.Singleton;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Singleton
 public class TravelTools {
@@ -26,258 +47,586 @@ public class TravelTools {
     private static final double DEFAULT_DESTINATION_RADIUS_KM = 50.0;
     private static final double DEFAULT_HOTEL_RADIUS_KM = 15.0;
     private static final double DEFAULT_ACTIVITY_RADIUS_KM = 40.0;
+    private static final double DEFAULT_ROUTE_WIDTH_KM = 15.0;
+    private static final int MAX_ROUTE_WAYPOINTS = 10;
+    private static final String KEYWORD_FALLBACK_NOTE = "Note: semantic search is unavailable right now, so these are "
+        + "keyword matches; distance is the share of query words not found.\n";
+    private static final String WISHLIST_UNAVAILABLE = "Error: the wishlist could not be updated right now. "
+        + "Tell the user and suggest trying again shortly.";
 
     private final EmbeddingService embeddingService;
-    private final DestinationRepository destinationRepository;
-    private final HotelRepository hotelRepository;
-    private final ActivityRepository activityRepository;
-    private final SpatialSearchRepository spatialSearchRepository;
+    private final CatalogSearchRepository catalogSearchRepository;
+    private final CatalogLookupRepository catalogLookupRepository;
+    private final CatalogEntryCache catalogEntries;
+    private final ItemNeighborRepository itemNeighborRepository;
     private final WishlistRepository wishlistRepository;
+    private final WishlistService wishlistService;
+    private final SearchCursorCache searchCursors;
+    private final ToolResultCache toolResults;
+    private final TravelTracer tracer;
+    private final int defaultLimit;
+    private final int maxLimit;
+    private final double defaultMaxDistance;
 
     public TravelTools(
         EmbeddingService embeddingService,
-        DestinationRepository destinationRepository,
-        HotelRepository hotelRepository,
-        ActivityRepository activityRepository,
-        SpatialSearchRepository spatialSearchRepository,
-        WishlistRepository wishlistRepository
+        CatalogSearchRepository catalogSearchRepository,
+        CatalogLookupRepository catalogLookupRepository,
+        CatalogEntryCache catalogEntries,
+        ItemNeighborRepository itemNeighborRepository,
+        WishlistRepository wishlistRepository,
+        WishlistService wishlistService,
+        SearchCursorCache searchCursors,
+        ToolResultCache toolResults,
+        TravelTracer tracer,
+        @Value("${app.search.default-limit:5}") int defaultLimit,
+        @Value("${app.search.max-limit:20}") int maxLimit,
+        @Value("${app.search.max-distance:1.0}") double defaultMaxDistance
     ) {
         this.embeddingService = embeddingService;
-        this.destinationRepository = destinationRepository;
-        this.hotelRepository = hotelRepository;
-        this.activityRepository = activityRepository;
-        this.spatialSearchRepository = spatialSearchRepository;
+        this.catalogSearchRepository = catalogSearchRepository;
+        this.catalogLookupRepository = catalogLookupRepository;
+        this.catalogEntries = catalogEntries;
+        this.itemNeighborRepository = itemNeighborRepository;
         this.wishlistRepository = wishlistRepository;
+        this.wishlistService = wishlistService;
+        this.searchCursors = searchCursors;
+        this.toolResults = toolResults;
+        this.tracer = tracer;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+        this.defaultMaxDistance = defaultMaxDistance;
     }
 
-    @Tool("Search for Swiss destinations by preference when there is no location constraint. For 'in', 'near', 'around', or 'within km of' requests, use searchNearbyDestinations instead.")
-    public String searchDestinations(String query) {
-        Vector queryVector = embedding(query);
-        List<DestinationEntity> results = destinationRepository.findTop5ByDescriptionEmbeddingNear(queryVector, MAX_COSINE_DISTANCE);
-        if (results.isEmpty()) {
-            return "No destinations found matching: " + query;
-        }
-        StringBuilder sb = new StringBuilder("Found destinations:\n");
-        for (DestinationEntity d : results) {
-            sb.append(String.format("- %s (ID:%d, %s): %s\n", d.name(), d.id(), d.region(), d.description()));
-        }
-        return sb.toString();
+    @Tool("Search for Swiss destinations by preference when there is no location constraint. For 'in', 'near', 'around', or 'within km of' requests, use searchNearbyDestinations instead. Optional: limit (default 5, max 20) and maxDistance (cosine distance cutoff between 0 and 2, default 1.0; lower is more similar).")
+    public String searchDestinations(String query, Integer limit, Double maxDistance) {
+        return tracer.tool("searchDestinations", span -> {
+            int pageSize = pageSize(limit);
+            double cutoff = maxDistance(maxDistance);
+            return withCursor(toolResults.get("searchDestinations", Arrays.asList(query, pageSize, cutoff), span, () -> {
+                Cursor cursor = new Cursor(ItemType.DESTINATION, searchQuery(query), null, null, null, cutoff, Set.of());
+                return firstPage("Found destinations:", "No destinations found matching: " + query, cursor, pageSize, span);
+            }, SearchResult::cacheable));
+        });
     }
 
-    @Tool("Search for Swiss destinations by preference near a location anchor. Supported anchors: Zermatt, Interlaken, Lucerne, Lausanne, St. Moritz, Lugano, Zurich. radiusKm defaults to 50.")
-    public String searchNearbyDestinations(String query, String nearDestinationName, Double radiusKm) {
-        Optional<Point> location = locationForDestination(nearDestinationName);
-        if (location.isEmpty()) {
-            return unsupportedLocation("nearby search", nearDestinationName);
-        }
+    @Tool("Search for Swiss destinations by preference near a location anchor. Supported anchors: Zermatt, Interlaken, Lucerne, Lausanne, St. Moritz, Lugano, Zurich. radiusKm defaults to 50. Optional: limit (default 5, max 20) and maxDistance (cosine distance cutoff between 0 and 2, default 1.0; lower is more similar).")
+    public String searchNearbyDestinations(String query, String nearDestinationName, Double radiusKm, Integer limit, Double maxDistance) {
+        return tracer.tool("searchNearbyDestinations", span -> {
+            span.setAttribute(TravelTracer.NEAR_DESTINATION, String.valueOf(nearDestinationName));
+            double radius = radiusOrDefault(radiusKm, DEFAULT_DESTINATION_RADIUS_KM);
+            span.setAttribute(TravelTracer.RADIUS_KM, radius);
+            int pageSize = pageSize(limit);
+            double cutoff = maxDistance(maxDistance);
+            List<Object> arguments = Arrays.asList(query, nearDestinationName, radius, pageSize, cutoff);
+            return withCursor(toolResults.get("searchNearbyDestinations", arguments, span, () -> {
+                Optional<Point> location = locationForDestination(nearDestinationName);
+                if (location.isEmpty()) {
+                    return new SearchResult(unsupportedLocation("nearby search", nearDestinationName), null);
+                }
+                Cursor cursor = new Cursor(
+                    ItemType.DESTINATION,
+                    searchQuery(query),
+                    null,
+                    null,
+                    geoRadius(location.get(), radius),
+                    cutoff,
+                    Set.of()
+                );
+                return firstPage(
+                    "Found nearby destinations:",
+                    "No destinations found within " + radius + " km of " + nearDestinationName + " matching: " + query,
+                    cursor,
+                    pageSize,
+                    span
+                );
+            }, SearchResult::cacheable));
+        });
+    }
 
-        double radius = radiusOrDefault(radiusKm, DEFAULT_DESTINATION_RADIUS_KM);
-        Point point = location.get();
-        List<DestinationEntity> results = spatialSearchRepository.searchDestinationsByVectorNear(
-            embedding(query),
-            point.x(),
-            point.y(),
-            radius
-        );
-
-        if (results.isEmpty()) {
-            return "No destinations found within " + radius + " km of " + nearDestinationName + " matching: " + query;
-        }
-        StringBuilder sb = new StringBuilder("Found nearby destinations:\n");
-        for (DestinationEntity d : results) {
-            sb.append(String.format("- %s (ID:%d, %s): %s\n", d.name(), d.id(), d.region(), d.description()));
-        }
-        return sb.toString();
+    @Tool("Search for hotels when there is no location constraint. Optional filters: destinationId, maxPrice (CHF/night). For 'in', 'near', 'around', or 'within km of' requests, use searchNearbyHotels instead. Optional: limit (default 5, max 20) and maxDistance (cosine distance cutoff between 0 and 2, default 1.0; lower is more similar).")
+    public String searchHotels(String query, Long destinationId, Double maxPrice, Integer limit, Double maxDistance) {
+        return tracer.tool("searchHotels", span -> {
+            if (destinationId != null) {
+                span.setAttribute(TravelTracer.DESTINATION_ID, destinationId);
+            }
+            if (maxPrice != null) {
+                span.setAttribute(TravelTracer.MAX_PRICE, maxPrice);
+            }
+            int pageSize = pageSize(limit);
+            double cutoff = maxDistance(maxDistance);
+            List<Object> arguments = Arrays.asList(query, destinationId, maxPrice, pageSize, cutoff);
+            return withCursor(toolResults.get("searchHotels", arguments, span, () -> {
+                Cursor cursor = new Cursor(ItemType.HOTEL, searchQuery(query), destinationId, maxPrice, null, cutoff, Set.of());
+                return firstPage("Found hotels:", "No hotels found matching: " + query, cursor, pageSize, span);
+            }, SearchResult::cacheable));
+        });
     }
 
-    @Tool("Search for hotels when there is no location constraint. Optional filters: destinationId, maxPrice (CHF/night). For 'in', 'near', 'around', or 'within km of' requests, use searchNearbyHotels instead.")
-    public String searchHotels(String query, Long destinationId, Double maxPrice) {
-        Vector queryVector = embedding(query);
-        List<HotelEntity> results;
-        if (destinationId != null && maxPrice != null) {
-            results = hotelRepository.findTop5ByDestinationIdAndPricePerNightLessThanEqualsAndDescriptionEmbeddingNear(
-                destinationId,
-                maxPrice,
-                queryVector,
-                MAX_COSINE_DISTANCE
-            );
-        } else if (destinationId != null) {
-            results = hotelRepository.findTop5ByDestinationIdAndDescriptionEmbeddingNear(destinationId, queryVector, MAX_COSINE_DISTANCE);
-        } else if (maxPrice != null) {
-            results = hotelRepository.findTop5ByPricePerNightLessThanEqualsAndDescriptionEmbeddingNear(maxPrice, queryVector, MAX_COSINE_DISTANCE);
-        } else {
-            results = hotelRepository.findTop5ByDescriptionEmbeddingNear(queryVector, MAX_COSINE_DISTANCE);
-        }
-        if (results.isEmpty()) {
-            return "No hotels found matching: " + query;
-        }
-        StringBuilder sb = new StringBuilder("Found hotels:\n");
-        for (HotelEntity h : results) {
-            sb.append(String.format("- %s (ID:%d, CHF %.0f/night): %s\n", h.name(), h.id(), h.pricePerNight(), h.description()));
-        }
-        return sb.toString();
+    @Tool("Search for hotels by preference near a location anchor. Supported anchors: Zermatt, Interlaken, Lucerne, Lausanne, St. Moritz, Lugano, Zurich. Optional maxPrice in CHF/night. radiusKm defaults to 15. Optional: limit (default 5, max 20) and maxDistance (cosine distance cutoff between 0 and 2, default 1.0; lower is more similar).")
+    public String searchNearbyHotels(String query, String nearDestinationName, Double radiusKm, Double maxPrice, Integer limit, Double maxDistance) {
+        return tracer.tool("searchNearbyHotels", span -> {
+            span.setAttribute(TravelTracer.NEAR_DESTINATION, String.valueOf(nearDestinationName));
+            double radius = radiusOrDefault(radiusKm, DEFAULT_HOTEL_RADIUS_KM);
+            span.setAttribute(TravelTracer.RADIUS_KM, radius);
+            if (maxPrice != null) {
+                span.setAttribute(TravelTracer.MAX_PRICE, maxPrice);
+            }
+            int pageSize = pageSize(limit);
+            double cutoff = maxDistance(maxDistance);
+            List<Object> arguments = Arrays.asList(query, nearDestinationName, radius, maxPrice, pageSize, cutoff);
+            return withCursor(toolResults.get("searchNearbyHotels", arguments, span, () -> {
+                Optional<Point> location = locationForDestination(nearDestinationName);
+                if (location.isEmpty()) {
+                    return new SearchResult(unsupportedLocation("nearby hotel search", nearDestinationName), null);
+                }
+                Cursor cursor = new Cursor(
+                    ItemType.HOTEL,
+                    searchQuery(query),
+                    null,
+                    maxPrice,
+                    geoRadius(location.get(), radius),
+                    cutoff,
+                    Set.of()
+                );
+                return firstPage(
+                    "Found nearby hotels:",
+                    "No hotels found within " + radius + " km of " + nearDestinationName + " matching: " + query,
+                    cursor,
+                    pageSize,
+                    span
+                );
+            }, SearchResult::cacheable));
+        });
     }
 
-    @Tool("Search for hotels by preference near a location anchor. Supported anchors: Zermatt, Interlaken, Lucerne, Lausanne, St. Moritz, Lugano, Zurich. Optional maxPrice in CHF/night. radiusKm defaults to 15.")
-    public String searchNearbyHotels(String query, String nearDestinationName, Double radiusKm, Double maxPrice) {
-        Optional<Point> location = locationForDestination(nearDestinationName);
-        if (location.isEmpty()) {
-            return unsupportedLocation("nearby hotel search", nearDestinationName);
-        }
+    @Tool("Search for activities when there is no location constraint. Optional filter: destinationId. For 'in', 'near', 'around', or 'within km of' requests, use searchNearbyActivities instead. Optional: limit (default 5, max 20) and maxDistance (cosine distance cutoff between 0 and 2, default 1.0; lower is more similar).")
+    public String searchActivities(String query, Long destinationId, Integer limit, Double maxDistance) {
+        return tracer.tool("searchActivities", span -> {
+            if (destinationId != null) {
+                span.setAttribute(TravelTracer.DESTINATION_ID, destinationId);
+            }
+            int pageSize = pageSize(limit);
+            double cutoff = maxDistance(maxDistance);
+            List<Object> arguments = Arrays.asList(query, destinationId, pageSize, cutoff);
+            return withCursor(toolResults.get("searchActivities", arguments, span, () -> {
+                Cursor cursor = new Cursor(ItemType.ACTIVITY, searchQuery(query), destinationId, null, null, cutoff, Set.of());
+                return firstPage("Found activities:", "No activities found matching: " + query, cursor, pageSize, span);
+            }, SearchResult::cacheable));
+        });
+    }
 
-        double radius = radiusOrDefault(radiusKm, DEFAULT_HOTEL_RADIUS_KM);
-        Point point = location.get();
-        List<HotelEntity> results = spatialSearchRepository.searchHotelsByVectorNear(
-            embedding(query),
-            point.x(),
-            point.y(),
-            radius,
-            maxPrice
-        );
-
-        if (results.isEmpty()) {
-            return "No hotels found within " + radius + " km of " + nearDestinationName + " matching: " + query;
-        }
-        StringBuilder sb = new StringBuilder("Found nearby hotels:\n");
-        for (HotelEntity h : results) {
-            sb.append(String.format("- %s (ID:%d, %s, CHF %.0f/night): %s\n",
-                h.name(),
-                h.id(),
-                destinationName(h.destinationId()),
-                h.pricePerNight(),
-                h.description()
-            ));
-        }
-        return sb.toString();
+    @Tool("Search for activities by preference near a location anchor. Supported anchors: Zermatt, Interlaken, Lucerne, Lausanne, St. Moritz, Lugano, Zurich. radiusKm defaults to 40. Optional: limit (default 5, max 20) and maxDistance (cosine distance cutoff between 0 and 2, default 1.0; lower is more similar).")
+    public String searchNearbyActivities(String query, String nearDestinationName, Double radiusKm, Integer limit, Double maxDistance) {
+        return tracer.tool("searchNearbyActivities", span -> {
+            span.setAttribute(TravelTracer.NEAR_DESTINATION, String.valueOf(nearDestinationName));
+            double radius = radiusOrDefault(radiusKm, DEFAULT_ACTIVITY_RADIUS_KM);
+            span.setAttribute(TravelTracer.RADIUS_KM, radius);
+            int pageSize = pageSize(limit);
+            double cutoff = maxDistance(maxDistance);
+            List<Object> arguments = Arrays.asList(query, nearDestinationName, radius, pageSize, cutoff);
+            return withCursor(toolResults.get("searchNearbyActivities", arguments, span, () -> {
+                Optional<Point> location = locationForDestination(nearDestinationName);
+                if (location.isEmpty()) {
+                    return new SearchResult(unsupportedLocation("nearby activity search", nearDestinationName), null);
+                }
+                Cursor cursor = new Cursor(
+                    ItemType.ACTIVITY,
+                    searchQuery(query),
+                    null,
+                    null,
+                    geoRadius(location.get(), radius),
+                    cutoff,
+                    Set.of()
+                );
+                return firstPage(
+                    "Found nearby activities:",
+                    "No activities found within " + radius + " km of " + nearDestinationName + " matching: " + query,
+                    cursor,
+                    pageSize,
+                    span
+                );
+            }, SearchResult::cacheable));
+        });
     }
 
-    @Tool("Search for activities when there is no location constraint. Optional filter: destinationId. For 'in', 'near', 'around', or 'within km of' requests, use searchNearbyActivities instead.")
-    public String searchActivities(String query, Long destinationId) {
-        Vector queryVector = embedding(query);
-        List<ActivityEntity> results = destinationId == null
-            ? activityRepository.findTop5ByDescriptionEmbeddingNear(queryVector, MAX_COSINE_DISTANCE)
-            : activityRepository.findTop5ByDestinationIdAndDescriptionEmbeddingNear(destinationId, queryVector, MAX_COSINE_DISTANCE);
-        if (results.isEmpty()) {
-            return "No activities found matching: " + query;
-        }
-        StringBuilder sb = new StringBuilder("Found activities:\n");
-        for (ActivityEntity a : results) {
-            sb.append(String.format("- %s (ID:%d, %s): %s\n", a.name(), a.id(), a.season(), a.description()));
-        }
-        return sb.toString();
+    @Tool("Search destinations, hotels, and activities along a route in one call, for requests like 'between Lucerne and Interlaken' or 'on the way from Zurich to Lugano'. waypoints: two or more location anchors in travel order (Zermatt, Interlaken, Lucerne, Lausanne, St. Moritz, Lugano, Zurich). widthKm: how far from the route results may be, default 15. Optional: limit per type (default 5, max 20) and maxDistance (cosine distance cutoff between 0 and 2, default 1.0; lower is more similar).")
+    public String searchAlongRoute(String query, List<String> waypoints, Double widthKm, Integer limit, Double maxDistance) {
+        return tracer.tool("searchAlongRoute", span -> {
+            span.setAttribute(TravelTracer.ROUTE, String.valueOf(waypoints));
+            double width = radiusOrDefault(widthKm, DEFAULT_ROUTE_WIDTH_KM);
+            span.setAttribute(TravelTracer.RADIUS_KM, width);
+            int pageSize = pageSize(limit);
+            double cutoff = maxDistance(maxDistance);
+            List<Object> arguments = new ArrayList<>(Arrays.asList(query, width, pageSize, cutoff));
+            if (waypoints != null) {
+                arguments.addAll(waypoints);
+            }
+            return toolResults.get("searchAlongRoute", arguments, span, () -> {
+                if (waypoints == null || waypoints.size() < 2 || waypoints.size() > MAX_ROUTE_WAYPOINTS) {
+                    return new SearchResult("Error: a route needs between 2 and " + MAX_ROUTE_WAYPOINTS + " waypoints.", null);
+                }
+                List<Point> points = new ArrayList<>();
+                for (String waypoint : waypoints) {
+                    Optional<Point> location = locationForDestination(waypoint);
+                    if (location.isEmpty()) {
+                        return new SearchResult(unsupportedLocation("route search", waypoint), null);
+                    }
+                    points.add(location.get());
+                }
+                SearchQuery routeQuery = searchQuery(query);
+                RouteMatches matches = catalogSearchRepository.searchAlongRoute(
+                    routeQuery, new GeoCorridor(points, width), new SearchPage(pageSize, cutoff));
+                span.setAttribute(TravelTracer.RESULT_COUNT, matches.size());
+                String route = String.join(" - ", waypoints);
+                String text = describeRoute(
+                    "Found along " + route + " (within " + width + " km of the route):",
+                    "Nothing found within " + width + " km of the route " + route + " matching: " + query,
+                    matches
+                );
+                boolean keywordsOnly = routeQuery.isLexical();
+                return new SearchResult(keywordsOnly ? KEYWORD_FALLBACK_NOTE + text : text, null, keywordsOnly);
+            }, SearchResult::cacheable).text();
+        });
     }
 
-    @Tool("Search for activities by preference near a location anchor. Supported anchors: Zermatt, Interlaken, Lucerne, Lausanne, St. Moritz, Lugano, Zurich. radiusKm defaults to 40.")
-    public String searchNearbyActivities(String query, String nearDestinationName, Double radiusKm) {
-        Optional<Point> location = locationForDestination(nearDestinationName);
-        if (location.isEmpty()) {
-            return unsupportedLocation("nearby activity search", nearDestinationName);
-        }
+    @Tool("Get more results for an earlier search without repeating it. cursor: the value from the earlier search result. Optional limit (default 5, max 20).")
+    public String moreResults(String cursor, Integer limit) {
+        return tracer.tool("moreResults", span -> {
+            Optional<Cursor> saved = cursor == null ? Optional.empty() : searchCursors.get(cursor);
+            if (saved.isEmpty()) {
+                return "This search cursor has expired. Run the search again.";
+            }
+            span.setAttribute(TravelTracer.ITEM_TYPE, saved.get().type().value());
+            Rows rows = fetch(saved.get(), pageSize(limit), span);
+            if (rows.full()) {
+                searchCursors.save(cursor, saved.get().withReturned(rows.ids()));
+            } else {
+                searchCursors.remove(cursor);
+            }
+            String text = describe("More results:", "No more results for this search.", rows.lines());
+            if (saved.get().query().isLexical()) {
+                text = KEYWORD_FALLBACK_NOTE + text;
+            }
+            return rows.full() ? text + cursorHint(cursor) : text;
+        });
+    }
 
-        double radius = radiusOrDefault(radiusKm, DEFAULT_ACTIVITY_RADIUS_KM);
-        Point point = location.get();
-        List<ActivityEntity> results = spatialSearchRepository.searchActivitiesByVectorNear(
-            embedding(query),
-            point.x(),
-            point.y(),
-            radius
-        );
-
-        if (results.isEmpty()) {
-            return "No activities found within " + radius + " km of " + nearDestinationName + " matching: " + query;
-        }
-        StringBuilder sb = new StringBuilder("Found nearby activities:\n");
-        for (ActivityEntity a : results) {
-            sb.append(String.format("- %s (ID:%d, %s, %s): %s\n",
-                a.name(),
-                a.id(),
-                destinationName(a.destinationId()),
-                a.season(),
-                a.description()
-            ));
-        }
-        return sb.toString();
+    @Tool("Get the full description of one destination, hotel, or activity. itemType: 'destination', 'hotel', or 'activity'. itemId: from search results. Search results only contain short summaries.")
+    public String getItemDetails(String itemType, Long itemId) {
+        return tracer.tool("getItemDetails", span -> {
+            span.setAttribute(TravelTracer.ITEM_TYPE, String.valueOf(itemType));
+            if (itemId != null) {
+                span.setAttribute(TravelTracer.ITEM_ID, itemId);
+            }
+            Optional<ItemType> type = ItemType.from(itemType);
+            if (type.isEmpty() || itemId == null) {
+                return "Error: unknown item " + itemType + " with ID " + itemId + ".";
+            }
+            return toolResults.get("getItemDetails", List.of(type.get().value(), itemId), span, () ->
+                catalogLookupRepository.findDetails(type.get(), itemId)
+                    .map(details -> details.name() + " (" + details.itemType() + " ID:" + details.id() + "): " + details.description())
+                    .orElse("Error: " + itemType + " with ID " + itemId + " not found."));
+        });
+    }
+
+    @Tool("Find items similar to one destination, hotel, or activity from earlier results, for follow-ups like 'something like the Matterhorn View Hotel'. itemType: 'destination', 'hotel', or 'activity'. itemId: from search results. Optional: similarType to return only 'destination', 'hotel', or 'activity' (default all types), nearbyOnly to keep only items within about 50 km, limit (default 5, max 20).")
+    public String findSimilar(String itemType, Long itemId, String similarType, Boolean nearbyOnly, Integer limit) {
+        return tracer.tool("findSimilar", span -> {
+            span.setAttribute(TravelTracer.ITEM_TYPE, String.valueOf(itemType));
+            if (itemId != null) {
+                span.setAttribute(TravelTracer.ITEM_ID, itemId);
+            }
+            Optional<ItemType> type = ItemType.from(itemType);
+            if (type.isEmpty() || itemId == null) {
+                return "Error: unknown item " + itemType + " with ID " + itemId + ".";
+            }
+            Optional<ItemType> neighborType = ItemType.from(similarType);
+            if (similarType != null && !similarType.isBlank() && neighborType.isEmpty()) {
+                return "Error: unknown similarType " + similarType + ". Use 'destination', 'hotel', or 'activity'.";
+            }
+            Optional<CatalogEntry> item = catalogEntries.get(type.get(), itemId);
+            if (item.isEmpty()) {
+                return "Error: " + itemType + " with ID " + itemId + " not found.";
+            }
+            boolean nearby = Boolean.TRUE.equals(nearbyOnly);
+            List<ItemNeighbor> neighbors = itemNeighborRepository.find(
+                type.get(), itemId, nearby, neighborType.orElse(null), pageSize(limit));
+            Map<ItemType, Set<Long>> idsByType = new EnumMap<>(ItemType.class);
+            for (ItemNeighbor neighbor : neighbors) {
+                idsByType.computeIfAbsent(neighbor.type(), ignored -> new HashSet<>()).add(neighbor.id());
+            }
+            Map<ItemType, Map<Long, CatalogEntry>> entries = new EnumMap<>(ItemType.class);
+            idsByType.forEach((neighborItemType, ids) -> entries.put(neighborItemType, catalogEntries.get(neighborItemType, ids)));
+
+            List<String> lines = new ArrayList<>();
+            for (ItemNeighbor neighbor : neighbors) {
+                CatalogEntry entry = entries.get(neighbor.type()).get(neighbor.id());
+                if (entry != null) {
+                    lines.add(line(entry, neighbor));
+                }
+            }
+            span.setAttribute(TravelTracer.RESULT_COUNT, lines.size());
+            String name = item.get().name() + " (" + type.get().value() + " ID:" + itemId + ")";
+            return describe("Similar to " + name + (nearby ? ", nearby:" : ":"),
+                "No similar items stored for " + name + " yet. Use a search tool instead.", lines);
+        });
     }
 
     @Tool("Add an item to the wishlist. itemType: 'destination', 'hotel', or 'activity'. itemId: from search results.")
     public String addToWishlist(String itemType, Long itemId) {
-        String type = itemType.toLowerCase();
-        String name = switch (type) {
-            case "destination" -> {
-                Optional<DestinationEntity> d = destinationRepository.findById(itemId);
-                yield d.map(DestinationEntity::name).orElse(null);
+        return tracer.tool("addToWishlist", span -> {
+            String type = itemType.toLowerCase();
+            span.setAttribute(TravelTracer.ITEM_TYPE, type);
+            span.setAttribute(TravelTracer.ITEM_ID, itemId);
+            WishlistChange change;
+            try {
+                change = wishlistService.add(List.of(new WishlistItem(type, itemId)));
+            } catch (WishlistUpdateException e) {
+                return WISHLIST_UNAVAILABLE;
             }
-            case "hotel" -> {
-                Optional<HotelEntity> h = hotelRepository.findById(itemId);
-                yield h.map(HotelEntity::name).orElse(null);
+            if (change.names().isEmpty()) {
+                return "Error: " + itemType + " with ID " + itemId + " not found.";
             }
-            case "activity" -> {
-                Optional<ActivityEntity> a = activityRepository.findById(itemId);
-                yield a.map(ActivityEntity::name).orElse(null);
+            return "Added to wishlist: " + change.names().getFirst();
+        });
+    }
+
+    @Tool("Add several items to the wishlist in one call. Pass the IDs from search results per type; lists may be empty.")
+    public String addAllToWishlist(List<Long> destinationIds, List<Long> hotelIds, List<Long> activityIds) {
+        return tracer.tool("addAllToWishlist", span -> {
+            WishlistChange change;
+            try {
+                change = wishlistService.add(wishlistItems(destinationIds, hotelIds, activityIds));
+            } catch (WishlistUpdateException e) {
+                return WISHLIST_UNAVAILABLE;
             }
-            default -> null;
-        };
-        if (name == null) {
-            return "Error: " + itemType + " with ID " + itemId + " not found.";
-        }
-        wishlistRepository.save(new WishlistItem(type, itemId));
-        return "Added to wishlist: " + name;
+            span.setAttribute(TravelTracer.RESULT_COUNT, change.changed());
+            return describeChange("Added to wishlist", change);
+        });
+    }
+
+    @Tool("Remove items from the wishlist. Pass the IDs per type; lists may be empty.")
+    public String removeFromWishlist(List<Long> destinationIds, List<Long> hotelIds, List<Long> activityIds) {
+        return tracer.tool("removeFromWishlist", span -> {
+            WishlistChange change;
+            try {
+                change = wishlistService.remove(wishlistItems(destinationIds, hotelIds, activityIds));
+            } catch (WishlistUpdateException e) {
+                return WISHLIST_UNAVAILABLE;
+            }
+            span.setAttribute(TravelTracer.RESULT_COUNT, change.changed());
+            return describeChange("Removed from wishlist", change);
+        });
     }
 
     @Tool("Get the user's wishlist with all saved destinations, hotels, and activities.")
     public String getWishlist() {
-        List<WishlistItem> items = wishlistRepository.findAll();
-        if (items.isEmpty()) {
-            return "Your wishlist is empty.";
+        return tracer.tool("getWishlist", span -> {
+            List<WishlistItem> items = wishlistRepository.findAll();
+            span.setAttribute(TravelTracer.RESULT_COUNT, items.size());
+            if (items.isEmpty()) {
+                return "Your wishlist is empty.";
+            }
+            Map<ItemType, Set<Long>> idsByType = new EnumMap<>(ItemType.class);
+            for (WishlistItem item : items) {
+                ItemType.from(item.itemType())
+                    .ifPresent(type -> idsByType.computeIfAbsent(type, ignored -> new LinkedHashSet<>()).add(item.itemId()));
+            }
+            Map<ItemType, Map<Long, CatalogEntry>> entries = new EnumMap<>(ItemType.class);
+            idsByType.forEach((type, ids) -> entries.put(type, catalogEntries.get(type, ids)));
+
+            StringBuilder sb = new StringBuilder("Your wishlist:\n");
+            for (WishlistItem item : items) {
+                Optional<ItemType> type = ItemType.from(item.itemType());
+                String line = type
+                    .map(itemType -> entries.get(itemType).get(item.itemId()))
+                    .map(this::line)
+                    .orElseGet(() -> "- Unknown item (" + item.itemType() + " ID:" + item.itemId() + ")");
+                sb.append(line).append("\n");
+            }
+            return sb.toString();
+        });
+    }
+
+    private List<WishlistItem> wishlistItems(List<Long> destinationIds, List<Long> hotelIds, List<Long> activityIds) {
+        List<WishlistItem> items = new ArrayList<>();
+        addWishlistItems(items, ItemType.DESTINATION, destinationIds);
+        addWishlistItems(items, ItemType.HOTEL, hotelIds);
+        addWishlistItems(items, ItemType.ACTIVITY, activityIds);
+        return items;
+    }
+
+    private void addWishlistItems(List<WishlistItem> items, ItemType type, List<Long> ids) {
+        if (ids != null) {
+            ids.forEach(id -> items.add(new WishlistItem(type.value(), id)));
+        }
+    }
+
+    private String describeChange(String action, WishlistChange change) {
+        StringBuilder sb = new StringBuilder();
+        if (change.names().isEmpty()) {
+            sb.append("Nothing changed.");
+        } else {
+            sb.append(action).append(": ").append(String.join(", ", change.names())).append(".");
+        }
+        for (WishlistItem item : change.notFound()) {
+            sb.append("\nError: ").append(item.itemType()).append(" with ID ").append(item.itemId()).append(" not found.");
+        }
+        return sb.toString();
+    }
+
+    private SearchQuery searchQuery(String query) {
+        return embeddingService.searchQuery(query);
+    }
+
+    private int pageSize(Integer limit) {
+        return limit == null || limit <= 0 ? defaultLimit : Math.min(limit, maxLimit);
+    }
+
+    /**
+     * The first page of a new search. A full page carries the cursor state for the next one;
+     * the cursor ID is only assigned in {@link #withCursor}, so a cached result never hands the
+     * same cursor to two callers.
+     */
+    private SearchResult firstPage(String header, String emptyMessage, Cursor cursor, int pageSize, Span span) {
+        Rows rows = fetch(cursor, pageSize, span);
+        String text = describe(header, emptyMessage, rows.lines());
+        boolean keywordsOnly = cursor.query().isLexical();
+        return new SearchResult(keywordsOnly ? KEYWORD_FALLBACK_NOTE + text : text,
+            rows.full() ? cursor.withReturned(rows.ids()) : null, keywordsOnly);
+    }
+
+    private String withCursor(SearchResult result) {
+        if (result.next() == null) {
+            return result.text();
         }
-        StringBuilder sb = new StringBuilder("Your wishlist:\n");
-        for (WishlistItem item : items) {
-            String detail = switch (item.itemType()) {
-                case "destination" -> {
-                    Optional<DestinationEntity> d = destinationRepository.findById(item.itemId());
-                    yield d.map(destination -> destination.name() + " (" + destination.region() + ")").orElse("Unknown destination");
+        return result.text() + cursorHint(searchCursors.save(null, result.next()));
+    }
+
+    private Rows fetch(Cursor cursor, int pageSize, Span span) {
+        SearchPage page = new SearchPage(pageSize, cursor.maxDistance(), cursor.returnedIds());
+        List<Long> ids = new ArrayList<>();
+        List<String> lines = new ArrayList<>();
+        switch (cursor.type()) {
+            case DESTINATION -> {
+                for (DestinationSummary d : catalogSearchRepository.searchDestinations(cursor.query(), cursor.near(), page)) {
+                    ids.add(d.id());
+                    lines.add(line(d));
                 }
-                case "hotel" -> {
-                    Optional<HotelEntity> h = hotelRepository.findById(item.itemId());
-                    yield h.map(hotel -> hotel.name() + " - CHF " + hotel.pricePerNight() + "/night").orElse("Unknown hotel");
+            }
+            case HOTEL -> {
+                for (HotelSummary h : catalogSearchRepository.searchHotels(
+                    cursor.query(), cursor.destinationId(), cursor.maxPrice(), cursor.near(), page)) {
+                    ids.add(h.id());
+                    lines.add(line(h));
                 }
-                case "activity" -> {
-                    Optional<ActivityEntity> a = activityRepository.findById(item.itemId());
-                    yield a.map(activity -> activity.name() + " (" + activity.season() + ")").orElse("Unknown activity");
+            }
+            case ACTIVITY -> {
+                for (ActivitySummary a : catalogSearchRepository.searchActivities(
+                    cursor.query(), cursor.destinationId(), cursor.near(), page)) {
+                    ids.add(a.id());
+                    lines.add(line(a));
                 }
-                default -> "Unknown item";
-            };
-            sb.append("- ").append(detail).append("\n");
+            }
         }
+        span.setAttribute(TravelTracer.RESULT_COUNT, ids.size());
+        // A full page may have more rows behind it; a short page means the search is exhausted.
+        return new Rows(ids, lines, ids.size() == pageSize);
+    }
+
+    private String line(DestinationSummary d) {
+        return String.format("- %s (destination ID:%d, %s, distance %.2f): %s", d.name(), d.id(), d.region(), d.distance(), d.summary());
+    }
+
+    private String line(HotelSummary h) {
+        return String.format("- %s (hotel ID:%d, %s, CHF %.0f/night, distance %.2f): %s",
+            h.name(), h.id(), h.destinationName(), h.pricePerNight(), h.distance(), h.summary());
+    }
+
+    private String line(ActivitySummary a) {
+        return String.format("- %s (activity ID:%d, %s, %s, distance %.2f): %s",
+            a.name(), a.id(), a.destinationName(), a.season(), a.distance(), a.summary());
+    }
+
+    private String line(CatalogEntry entry, ItemNeighbor neighbor) {
+        String detail = detail(entry);
+        return String.format("- %s (%s ID:%d%s, distance %.2f%s)", entry.name(), entry.type().value(), entry.id(),
+            detail == null ? "" : ", " + detail, neighbor.distance(),
+            neighbor.km() == null ? "" : String.format(", %.0f km away", neighbor.km()));
+    }
+
+    private String line(CatalogEntry entry) {
+        String detail = detail(entry);
+        return String.format("- %s (%s ID:%d%s)", entry.name(), entry.type().value(), entry.id(),
+            detail == null ? "" : ", " + detail);
+    }
+
+    private String detail(CatalogEntry entry) {
+        return switch (entry.type()) {
+            case DESTINATION -> entry.region();
+            case HOTEL -> entry.pricePerNight() == null ? null : String.format("CHF %.0f/night", entry.pricePerNight());
+            case ACTIVITY -> entry.season();
+        };
+    }
+
+    private String describeRoute(String header, String emptyMessage, RouteMatches matches) {
+        if (matches.size() == 0) {
+            return emptyMessage;
+        }
+        StringBuilder sb = new StringBuilder(header).append("\n");
+        appendSection(sb, "Destinations:", matches.destinations().stream().map(this::line).toList());
+        appendSection(sb, "Hotels:", matches.hotels().stream().map(this::line).toList());
+        appendSection(sb, "Activities:", matches.activities().stream().map(this::line).toList());
         return sb.toString();
     }
 
-    private Vector embedding(String query) {
-        return new FloatVector(embeddingService.generateEmbedding(query));
+    private void appendSection(StringBuilder sb, String title, List<String> lines) {
+        if (!lines.isEmpty()) {
+            sb.append(title).append("\n");
+            lines.forEach(line -> sb.append(line).append("\n"));
+        }
     }
 
-    private Optional<Point> locationForDestination(String destinationName) {
-        if (destinationName == null || destinationName.isBlank()) {
-            return Optional.empty();
+    private String describe(String header, String emptyMessage, List<String> lines) {
+        if (lines.isEmpty()) {
+            return emptyMessage;
         }
-        Optional<DestinationEntity> exact = destinationRepository.findByNameEqualsIgnoreCase(destinationName);
-        if (exact.isPresent()) {
-            return Optional.ofNullable(exact.get().location());
+        StringBuilder sb = new StringBuilder(header).append("\n");
+        lines.forEach(line -> sb.append(line).append("\n"));
+        return sb.toString();
+    }
+
+    private String cursorHint(String cursorId) {
+        return "More results available: call moreResults with cursor \"" + cursorId + "\".\n";
+    }
+
+    private double maxDistance(Double maxDistance) {
+        if (maxDistance == null || maxDistance <= 0) {
+            return defaultMaxDistance;
         }
+        return Math.min(maxDistance, MAX_COSINE_DISTANCE);
+    }
 
-        String normalized = destinationName.toLowerCase(Locale.ROOT);
-        return destinationRepository.findAll()
-            .stream()
-            .filter(destination -> destination.name().toLowerCase(Locale.ROOT).contains(normalized))
-            .map(DestinationEntity::location)
-            .filter(point -> point != null)
-            .findFirst();
+    private GeoRadius geoRadius(Point point, double radiusKm) {
+        return new GeoRadius(point.x(), point.y(), radiusKm);
     }
 
-    private String destinationName(Long destinationId) {
-        return destinationRepository.findById(destinationId)
-            .map(DestinationEntity::name)
-            .orElse("Unknown destination");
+    private Optional<Point> locationForDestination(String destinationName) {
+        if (destinationName == null || destinationName.isBlank()) {
+            return Optional.empty();
+        }
+        Map<String, Point> locations = catalogLookupRepository.findDestinationLocations();
+        String normalized = destinationName.strip().toLowerCase(Locale.ROOT);
+        return locations.entrySet()
+            .stream()
+            .filter(destination -> destination.getKey().toLowerCase(Locale.ROOT).equals(normalized))
+            .findFirst()
+            .or(() -> locations.entrySet()
+                .stream()
+                .filter(destination -> destination.getKey().toLowerCase(Locale.ROOT).contains(normalized))
+                .findFirst())
+            .map(Map.Entry::getValue);
     }
 
     private String unsupportedLocation(String searchType, String locationName) {
@@ -286,12 +635,26 @@ public class TravelTools {
     }
 
     private String supportedLocationAnchors() {
-        return destinationRepository.findAll()
-            .stream()
-            .map(DestinationEntity::name)
-            .sorted()
-            .reduce((left, right) -> left + ", " + right)
-            .orElse("none");
+        Set<String> names = catalogLookupRepository.findDestinationLocations().keySet();
+        return names.isEmpty() ? "none" : String.join(", ", names);
+    }
+
+    private record Rows(List<Long> ids, List<String> lines, boolean full) {
+    }
+
+    /**
+     * {@code keywordsOnly}: ranked by keyword matches while embeddings were unavailable, so not
+     * worth caching past the outage.
+     */
+    private record SearchResult(String text, Cursor next, boolean keywordsOnly) {
+
+        SearchResult(String text, Cursor next) {
+            this(text, next, false);
+        }
+
+        boolean cacheable() {
+            return !keywordsOnly;
+        }
     }
 
     private double radiusOrDefault(Double radiusKm, double defaultRadiusKm) {
@@ -0,0 +1,120 @@
+package com.example.tracing;
+
+import io.opentelemetry.exporter.otlp.http.trace.OtlpHttpSpanExporter;
+import io.opentelemetry.exporter.otlp.trace.OtlpGrpcSpanExporter;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * An OTLP span exporter that can be closed for a CRaC checkpoint and rebuilt, with the same
+ * settings, after restore. The exporter keeps a connection to the collector open, and an open
+ * socket fails the checkpoint. Installed by {@link CheckpointSpanExporterCustomizer}; since
+ * that runs inside the OpenTelemetry SDK rather than the bean context, the exporters are
+ * reached through {@link #suspendAll} and {@link #resumeAll}.
+ */
+public final class CheckpointSpanExporter implements SpanExporter {
+    private static final List<CheckpointSpanExporter> EXPORTERS = new CopyOnWriteArrayList<>();
+
+    private final Supplier<SpanExporter> factory;
+    private final ReentrantLock lock = new ReentrantLock();
+    /** Null while suspended or after shutdown. */
+    private volatile SpanExporter delegate;
+    private boolean shutdown;
+
+    private CheckpointSpanExporter(SpanExporter delegate, Supplier<SpanExporter> factory) {
+        this.delegate = delegate;
+        this.factory = factory;
+    }
+
+    /**
+     * @return {@code exporter} wrapped if it is an OTLP exporter, otherwise {@code exporter}
+     */
+    static SpanExporter wrap(SpanExporter exporter) {
+        Supplier<SpanExporter> factory;
+        if (exporter instanceof OtlpGrpcSpanExporter grpc) {
+            factory = () -> grpc.toBuilder().build();
+        } else if (exporter instanceof OtlpHttpSpanExporter http) {
+            factory = () -> http.toBuilder().build();
+        } else {
+            return exporter;
+        }
+        CheckpointSpanExporter wrapped = new CheckpointSpanExporter(exporter, factory);
+        EXPORTERS.add(wrapped);
+        return wrapped;
+    }
+
+    /**
+     * Sends what the exporters hold and closes them. Spans ended before {@link #resumeAll()}
+     * are dropped; with the HTTP server stopped for the checkpoint there are hardly any.
+     */
+    public static void suspendAll(Duration timeout) {
+        EXPORTERS.forEach(exporter -> exporter.suspend(timeout));
+    }
+
+    public static void resumeAll() {
+        EXPORTERS.forEach(CheckpointSpanExporter::resume);
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        SpanExporter current = delegate;
+        return current == null ? CompletableResultCode.ofSuccess() : current.export(spans);
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        SpanExporter current = delegate;
+        return current == null ? CompletableResultCode.ofSuccess() : current.flush();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        lock.lock();
+        try {
+            shutdown = true;
+            EXPORTERS.remove(this);
+            return close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void suspend(Duration timeout) {
+        lock.lock();
+        try {
+            SpanExporter current = delegate;
+            if (current != null) {
+                current.flush().join(timeout.toMillis(), TimeUnit.MILLISECONDS);
+                close().join(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void resume() {
+        lock.lock();
+        try {
+            if (!shutdown && delegate == null) {
+                delegate = factory.get();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private CompletableResultCode close() {
+        SpanExporter current = delegate;
+        delegate = null;
+        return current == null ? CompletableResultCode.ofSuccess() : current.shutdown();
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.tracing;
+
+import io.opentelemetry.sdk.autoconfigure.spi.AutoConfigurationCustomizer;
+import io.opentelemetry.sdk.autoconfigure.spi.AutoConfigurationCustomizerProvider;
+
+/**
+ * Wraps the exporter configured by {@code otel.traces.exporter} in a
+ * {@link CheckpointSpanExporter}. Loaded by the SDK autoconfiguration through
+ * {@code META-INF/services}.
+ */
+public class CheckpointSpanExporterCustomizer implements AutoConfigurationCustomizerProvider {
+
+    @Override
+    public void customize(AutoConfigurationCustomizer autoConfiguration) {
+        autoConfiguration.addSpanExporterCustomizer((exporter, config) -> CheckpointSpanExporter.wrap(exporter));
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.tracing;
+
+import dev.langchain4j.model.chat.listener.ChatModelErrorContext;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.chat.listener.ChatModelRequestContext;
+import dev.langchain4j.model.chat.listener.ChatModelResponseContext;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.TokenUsage;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import jakarta.inject.Singleton;
+
+@Singleton
+public class TravelAdvisorChatModelTracer implements ChatModelListener {
+    private static final String SPAN_ATTRIBUTE = TravelAdvisorChatModelTracer.class.getName() + ".span";
+    private static final AttributeKey<String> REQUEST_MODEL = AttributeKey.stringKey("gen_ai.request.model");
+    private static final AttributeKey<String> RESPONSE_MODEL = AttributeKey.stringKey("gen_ai.response.model");
+    private static final AttributeKey<Long> MESSAGE_COUNT = AttributeKey.longKey("gen_ai.request.message_count");
+    private static final AttributeKey<Long> TOOL_COUNT = AttributeKey.longKey("gen_ai.request.tool_count");
+    private static final AttributeKey<Long> INPUT_TOKENS = AttributeKey.longKey("gen_ai.usage.input_tokens");
+    private static final AttributeKey<Long> OUTPUT_TOKENS = AttributeKey.longKey("gen_ai.usage.output_tokens");
+    private static final AttributeKey<Long> TOOL_CALLS = AttributeKey.longKey("gen_ai.response.tool_calls");
+    private static final AttributeKey<String> FINISH_REASON = AttributeKey.stringKey("gen_ai.response.finish_reason");
+
+    private final TravelTracer tracer;
+
+    public TravelAdvisorChatModelTracer(TravelTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public void onRequest(ChatModelRequestContext context) {
+        String modelName = context.chatRequest().parameters().modelName();
+        Span span = tracer.startSpan("chat " + (modelName == null ? "model" : modelName), SpanKind.CLIENT);
+        if (modelName != null) {
+            span.setAttribute(REQUEST_MODEL, modelName);
+        }
+        span.setAttribute(MESSAGE_COUNT, context.chatRequest().messages().size());
+        if (context.chatRequest().toolSpecifications() != null) {
+            span.setAttribute(TOOL_COUNT, context.chatRequest().toolSpecifications().size());
+        }
+        context.attributes().put(SPAN_ATTRIBUTE, span);
+    }
+
+    @Override
+    public void onResponse(ChatModelResponseContext context) {
+        if (!(context.attributes().remove(SPAN_ATTRIBUTE) instanceof Span span)) {
+            return;
+        }
+
+        ChatResponse response = context.chatResponse();
+        if (response.modelName() != null) {
+            span.setAttribute(RESPONSE_MODEL, response.modelName());
+        }
+        if (response.finishReason() != null) {
+            span.setAttribute(FINISH_REASON, response.finishReason().name());
+        }
+        if (response.aiMessage() != null && response.aiMessage().hasToolExecutionRequests()) {
+            span.setAttribute(TOOL_CALLS, response.aiMessage().toolExecutionRequests().size());
+        }
+        TokenUsage tokenUsage = response.tokenUsage();
+        if (tokenUsage != null) {
+            if (tokenUsage.inputTokenCount() != null) {
+                span.setAttribute(INPUT_TOKENS, tokenUsage.inputTokenCount());
+            }
+            if (tokenUsage.outputTokenCount() != null) {
+                span.setAttribute(OUTPUT_TOKENS, tokenUsage.outputTokenCount());
+            }
+        }
+        span.end();
+    }
+
+    @Override
+    public void onError(ChatModelErrorContext context) {
+        if (context.attributes().remove(SPAN_ATTRIBUTE) instanceof Span span) {
+            TravelTracer.recordError(span, context.error());
+            span.end();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.tracing;
+
+import com.example.jfr.EmbeddingEvent;
+import com.example.jfr.StatementEvent;
+import com.example.jfr.ToolEvent;
+import com.example.jfr.TravelEvent;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import jakarta.inject.Singleton;
+
+import java.util.function.Function;
+
+@Singleton
+public class TravelTracer {
+    public static final AttributeKey<String> TOOL_NAME = AttributeKey.stringKey("travel.tool.name");
+    public static final AttributeKey<Boolean> TOOL_CACHE_HIT = AttributeKey.booleanKey("travel.tool.cache_hit");
+    public static final AttributeKey<Long> RESULT_COUNT = AttributeKey.longKey("travel.result.count");
+    public static final AttributeKey<Double> RADIUS_KM = AttributeKey.doubleKey("travel.filter.radius_km");
+    public static final AttributeKey<Double> MAX_PRICE = AttributeKey.doubleKey("travel.filter.max_price");
+    public static final AttributeKey<Long> DESTINATION_ID = AttributeKey.longKey("travel.filter.destination_id");
+    public static final AttributeKey<String> NEAR_DESTINATION = AttributeKey.stringKey("travel.filter.near_destination");
+    public static final AttributeKey<String> ROUTE = AttributeKey.stringKey("travel.filter.route");
+    public static final AttributeKey<String> ITEM_TYPE = AttributeKey.stringKey("travel.item.type");
+    public static final AttributeKey<Long> ITEM_ID = AttributeKey.longKey("travel.item.id");
+    public static final AttributeKey<Long> SEARCH_LIMIT = AttributeKey.longKey("travel.search.limit");
+    public static final AttributeKey<Double> SEARCH_MAX_DISTANCE = AttributeKey.doubleKey("travel.search.max_distance");
+    public static final AttributeKey<Long> SEARCH_EXCLUDED = AttributeKey.longKey("travel.search.excluded_count");
+    public static final AttributeKey<String> SEARCH_PLAN = AttributeKey.stringKey("travel.search.plan");
+    public static final AttributeKey<Long> SEARCH_FETCH_SIZE = AttributeKey.longKey("travel.search.fetch_size");
+    public static final AttributeKey<String> EMBEDDING_MODEL = AttributeKey.stringKey("gen_ai.request.model");
+    public static final AttributeKey<Long> EMBEDDING_TEXT_LENGTH = AttributeKey.longKey("travel.embedding.text_length");
+    public static final AttributeKey<Long> EMBEDDING_DIMENSIONS = AttributeKey.longKey("travel.embedding.dimensions");
+
+    private static final String INSTRUMENTATION_SCOPE = "com.example.swiss-travel-advisor";
+    private static final AttributeKey<String> DB_SYSTEM = AttributeKey.stringKey("db.system");
+    private static final AttributeKey<String> DB_OPERATION = AttributeKey.stringKey("db.operation");
+    private static final AttributeKey<String> DB_TABLE = AttributeKey.stringKey("db.sql.table");
+
+    /** The innermost operation traced on this thread, so {@link #recordError} can mark its JFR event. */
+    private static final ThreadLocal<Traced> CURRENT = new ThreadLocal<>();
+
+    private final Tracer tracer;
+
+    public TravelTracer(OpenTelemetry openTelemetry) {
+        this.tracer = openTelemetry.getTracer(INSTRUMENTATION_SCOPE);
+    }
+
+    public <T> T tool(String toolName, Function<Span, T> work) {
+        return trace("tool " + toolName, SpanKind.INTERNAL, new ToolEvent(toolName), span -> {
+            span.setAttribute(TOOL_NAME, toolName);
+            return work.apply(span);
+        });
+    }
+
+    public <T> T embedding(String modelName, Function<Span, T> work) {
+        return trace("embedding " + modelName, SpanKind.CLIENT, new EmbeddingEvent(modelName), span -> {
+            span.setAttribute(EMBEDDING_MODEL, modelName);
+            return work.apply(span);
+        });
+    }
+
+    public <T> T statement(String operation, String table, Function<Span, T> work) {
+        return trace(operation + " " + table, SpanKind.CLIENT, new StatementEvent(operation, table), span -> {
+            span.setAttribute(DB_SYSTEM, "oracle");
+            span.setAttribute(DB_OPERATION, operation);
+            span.setAttribute(DB_TABLE, table);
+            return work.apply(span);
+        });
+    }
+
+    public Span startSpan(String spanName, SpanKind kind) {
+        return tracer.spanBuilder(spanName).setSpanKind(kind).startSpan();
+    }
+
+    /**
+     * Marks {@code span} failed, and the JFR event of the same operation when it is the one
+     * running on this thread, so handled failures (a caught {@code SQLException}) show in JFR.
+     */
+    public static void recordError(Span span, Throwable error) {
+        span.recordException(error);
+        span.setStatus(StatusCode.ERROR);
+        Traced current = CURRENT.get();
+        if (current != null && current.span() == span) {
+            current.event().fail(error);
+        }
+    }
+
+    /**
+     * Runs {@code work} in a new span and records it as the JFR {@code event} as well.
+     */
+    private <T> T trace(String spanName, SpanKind kind, TravelEvent event, Function<Span, T> work) {
+        Span span = startSpan(spanName, kind);
+        RuntimeException failure = null;
+        Traced outer = CURRENT.get();
+        CURRENT.set(new Traced(span, event));
+        event.begin();
+        try (Scope ignored = span.makeCurrent()) {
+            return work.apply(span);
+        } catch (RuntimeException e) {
+            failure = e;
+            recordError(span, e);
+            throw e;
+        } finally {
+            span.end();
+            event.complete(span, failure);
+            if (outer == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(outer);
+            }
+        }
+    }
+
+    private record Traced(Span span, TravelEvent event) {
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.transfer;
+
+import com.example.model.CatalogRecord;
+import com.example.model.ItemType;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.data.model.geo.Point;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * The catalog archive format: a header, then one record per row, destinations first, then an
+ * end marker. A record is a type tag followed by the fields of that type:
+ * <pre>
+ * destination: name, region, description, location, embedding, source hash, model
+ * hotel:       destination name, name, price (double), description, location, embedding, source hash, model
+ * activity:    destination name, name, season, description, location, embedding, source hash, model
+ * </pre>
+ * Strings are an int byte length (-1 for null) and UTF-8 bytes; a location is a presence
+ * byte and longitude/latitude doubles; an embedding is an int dimension count (0 for none)
+ * and raw little-endian float32 values. An archive without the end marker was truncated.
+ */
+final class CatalogArchive {
+    private static final int MAGIC = 0x53574354; // "SWCT"
+    private static final short VERSION = 1;
+    private static final int MAX_DIMENSIONS = 65_535;
+    private static final byte END = 0;
+    private static final byte DESTINATION = 1;
+    private static final byte HOTEL = 2;
+    private static final byte ACTIVITY = 3;
+
+    private CatalogArchive() {
+    }
+
+    static void writeHeader(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+    }
+
+    static void readHeader(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a catalog archive");
+        }
+        short version = in.readShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported catalog archive version " + version);
+        }
+    }
+
+    static void writeEnd(DataOutputStream out) throws IOException {
+        out.writeByte(END);
+    }
+
+    static void write(DataOutputStream out, CatalogRecord record) throws IOException {
+        switch (record.type()) {
+            case DESTINATION -> {
+                out.writeByte(DESTINATION);
+                writeString(out, record.name());
+                writeString(out, record.region());
+            }
+            case HOTEL -> {
+                out.writeByte(HOTEL);
+                writeString(out, record.destinationName());
+                writeString(out, record.name());
+                out.writeDouble(record.pricePerNight());
+            }
+            case ACTIVITY -> {
+                out.writeByte(ACTIVITY);
+                writeString(out, record.destinationName());
+                writeString(out, record.name());
+                writeString(out, record.season());
+            }
+        }
+        writeString(out, record.description());
+        writeLocation(out, record.location());
+        writeEmbedding(out, record.embedding());
+        writeString(out, record.embeddingSourceHash());
+        writeString(out, record.embeddingModel());
+    }
+
+    /**
+     * The next record, or empty at the end marker.
+     */
+    static Optional<CatalogRecord> read(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        if (tag == END) {
+            return Optional.empty();
+        }
+        ItemType type;
+        String destinationName = null;
+        String name;
+        String region = null;
+        Double pricePerNight = null;
+        String season = null;
+        switch (tag) {
+            case DESTINATION -> {
+                type = ItemType.DESTINATION;
+                name = readString(in);
+                region = readString(in);
+            }
+            case HOTEL -> {
+                type = ItemType.HOTEL;
+                destinationName = readString(in);
+                name = readString(in);
+                pricePerNight = in.readDouble();
+            }
+            case ACTIVITY -> {
+                type = ItemType.ACTIVITY;
+                destinationName = readString(in);
+                name = readString(in);
+                season = readString(in);
+            }
+            default -> throw new IOException("Corrupt catalog archive: unknown record type " + tag);
+        }
+        return Optional.of(new CatalogRecord(
+            type,
+            destinationName,
+            name,
+            region,
+            pricePerNight,
+            season,
+            readString(in),
+            readLocation(in),
+            readEmbedding(in),
+            readString(in),
+            readString(in)
+        ));
+    }
+
+    private static void writeString(DataOutputStream out, @Nullable String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    @Nullable
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        return new String(readBytes(in, length), StandardCharsets.UTF_8);
+    }
+
+    private static void writeLocation(DataOutputStream out, @Nullable Point location) throws IOException {
+        out.writeBoolean(location != null);
+        if (location != null) {
+            out.writeDouble(location.x());
+            out.writeDouble(location.y());
+        }
+    }
+
+    @Nullable
+    private static Point readLocation(DataInputStream in) throws IOException {
+        return in.readBoolean() ? new Point(in.readDouble(), in.readDouble()) : null;
+    }
+
+    private static void writeEmbedding(DataOutputStream out, @Nullable float[] embedding) throws IOException {
+        if (embedding == null) {
+            out.writeInt(0);
+            return;
+        }
+        ByteBuffer bytes = ByteBuffer.allocate(embedding.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        bytes.asFloatBuffer().put(embedding);
+        out.writeInt(embedding.length);
+        out.write(bytes.array());
+    }
+
+    @Nullable
+    private static float[] readEmbedding(DataInputStream in) throws IOException {
+        int dimensions = in.readInt();
+        if (dimensions == 0) {
+            return null;
+        }
+        if (dimensions < 0 || dimensions > MAX_DIMENSIONS) {
+            throw new IOException("Corrupt catalog archive: " + dimensions + " embedding dimensions");
+        }
+        byte[] bytes = readBytes(in, dimensions * Float.BYTES);
+        float[] embedding = new float[dimensions];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(embedding);
+        return embedding;
+    }
+
+    private static byte[] readBytes(DataInputStream in, int length) throws IOException {
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length < length) {
+            throw new EOFException("Truncated catalog archive");
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.transfer;
+
+import com.example.model.CatalogRecord;
+import com.example.model.ItemType;
+import com.example.repository.CatalogTransferRepository;
+import com.example.service.CatalogEntryCache;
+import com.example.service.CatalogVersion;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.serde.annotation.Serdeable;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Copies the catalog between environments as a {@link CatalogArchive}: rows with their
+ * locations and stored embeddings, so the target needs no embedding calls. The embedding
+ * fingerprints travel with the vectors, so EmbeddingRefreshJob on the target treats imported
+ * rows as up to date as long as it uses the same model.
+ */
+@Singleton
+public class CatalogTransfer {
+    private static final Logger LOG = LoggerFactory.getLogger(CatalogTransfer.class);
+    private static final int STREAM_BUFFER_BYTES = 1 << 16;
+
+    private final CatalogTransferRepository repository;
+    private final CatalogVersion catalogVersion;
+    private final CatalogEntryCache catalogEntries;
+    private final int batchSize;
+
+    public CatalogTransfer(
+        CatalogTransferRepository repository,
+        CatalogVersion catalogVersion,
+        CatalogEntryCache catalogEntries,
+        @Value("${app.catalog.transfer.batch-size:500}") int batchSize
+    ) {
+        this.repository = repository;
+        this.catalogVersion = catalogVersion;
+        this.catalogEntries = catalogEntries;
+        this.batchSize = batchSize;
+    }
+
+    @Serdeable
+    public record ImportReport(int destinations, int hotels, int activities, int skipped, int failed) {
+    }
+
+    /**
+     * Writes the whole catalog to {@code out}, destinations first so an import can resolve
+     * hotel and activity destinations by name. Does not close {@code out}.
+     */
+    public void export(OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        DataOutputStream archive = new DataOutputStream(new BufferedOutputStream(out, STREAM_BUFFER_BYTES));
+        Map<ItemType, Integer> counts = new EnumMap<>(ItemType.class);
+        CatalogArchive.writeHeader(archive);
+        for (ItemType type : List.of(ItemType.DESTINATION, ItemType.HOTEL, ItemType.ACTIVITY)) {
+            boolean complete = repository.forEach(type, record -> {
+                CatalogArchive.write(archive, record);
+                counts.merge(type, 1, Integer::sum);
+            });
+            if (!complete) {
+                // No end marker: the importer rejects the archive as truncated.
+                archive.flush();
+                throw new IOException("Catalog export failed while reading " + type.table());
+            }
+        }
+        CatalogArchive.writeEnd(archive);
+        archive.flush();
+        LOG.info("Exported catalog {} in {} ms", counts, Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    /**
+     * Inserts or updates every row of the archive, in batches of {@code app.catalog.transfer.batch-size}.
+     * Rows are matched by name (and destination name), so importing twice changes nothing.
+     */
+    public ImportReport importFrom(InputStream in) throws IOException {
+        long start = System.nanoTime();
+        DataInputStream archive = new DataInputStream(new BufferedInputStream(in, STREAM_BUFFER_BYTES));
+        CatalogArchive.readHeader(archive);
+        Map<ItemType, Integer> merged = new EnumMap<>(ItemType.class);
+        int failed = 0;
+        int read = 0;
+        List<CatalogRecord> batch = new ArrayList<>(batchSize);
+        try {
+            Optional<CatalogRecord> next;
+            while ((next = CatalogArchive.read(archive)).isPresent()) {
+                CatalogRecord record = next.get();
+                read++;
+                if (!batch.isEmpty() && (batch.size() == batchSize || batch.getFirst().type() != record.type())) {
+                    failed += flush(batch, merged);
+                }
+                batch.add(record);
+            }
+            failed += flush(batch, merged);
+        } finally {
+            if (merged.values().stream().anyMatch(count -> count > 0)) {
+                catalogVersion.bump("catalog import");
+                catalogEntries.invalidateAll();
+            }
+        }
+
+        int total = merged.values().stream().mapToInt(Integer::intValue).sum();
+        ImportReport report = new ImportReport(
+            merged.getOrDefault(ItemType.DESTINATION, 0),
+            merged.getOrDefault(ItemType.HOTEL, 0),
+            merged.getOrDefault(ItemType.ACTIVITY, 0),
+            read - total - failed,
+            failed
+        );
+        long millis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        if (report.failed() > 0) {
+            LOG.warn("Imported catalog in {} ms with failed batches: {}", millis, report);
+        } else {
+            LOG.info("Imported catalog in {} ms: {}", millis, report);
+        }
+        return report;
+    }
+
+    /**
+     * @return the number of rows in the batch that failed to import
+     */
+    private int flush(List<CatalogRecord> batch, Map<ItemType, Integer> merged) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        ItemType type = batch.getFirst().type();
+        Optional<Integer> count = repository.merge(type, batch);
+        // A failed batch rolls back whole; its rows are failed, not skipped.
+        int failed = count.isPresent() ? 0 : batch.size();
+        count.ifPresent(rows -> merged.merge(type, rows, Integer::sum));
+        batch.clear();
+        return failed;
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.warmup;
+
+import com.example.controller.ChatController;
+import com.example.entity.DestinationEntity;
+import com.example.model.ItemType;
+import com.example.model.WishlistChange;
+import com.example.repository.CatalogLookupRepository;
+import com.example.repository.DestinationRepository;
+import com.example.service.EmbeddingService;
+import com.example.service.SearchCursorCache;
+import com.example.tools.ToolResultCache;
+import com.example.tools.TravelTools;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.context.event.ApplicationEventListener;
+import io.micronaut.core.order.Ordered;
+import io.micronaut.json.JsonMapper;
+import io.micronaut.runtime.server.event.ServerStartupEvent;
+import io.micronaut.scheduling.TaskExecutors;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Runs representative request paths after startup, before the instance reports ready: fills
+ * the connection pool, has Oracle parse every search statement shape, loads the destination
+ * catalog, and gives the JIT the tool, search, lookup and serialization code. The search tools
+ * are called with a query registered in {@link EmbeddingService} under a vector already stored
+ * in the catalog, so warmup never calls the embedding provider. The tool result cache is cleared
+ * after every round so each round runs the searches, and the warmup cursors and query are
+ * dropped at the end. Stops after {@code app.warmup.iterations} rounds or
+ * {@code app.warmup.budget}, whichever comes first.
+ */
+@Singleton
+public class Warmup implements ApplicationEventListener<ServerStartupEvent>, Ordered {
+    private static final Logger LOG = LoggerFactory.getLogger(Warmup.class);
+    private static final double HOTEL_PRICE = 250.0;
+    private static final double ROUTE_WIDTH_KM = 15.0;
+    /** Registered with a stored vector for the duration of the warmup; never embedded. */
+    private static final String WARMUP_QUERY = "__warmup__";
+
+    private final DataSource dataSource;
+    private final CatalogLookupRepository catalogLookupRepository;
+    private final DestinationRepository destinationRepository;
+    private final EmbeddingService embeddingService;
+    private final TravelTools travelTools;
+    private final ToolResultCache toolResults;
+    private final SearchCursorCache searchCursors;
+    private final JsonMapper jsonMapper;
+    private final ExecutorService executor;
+    private final boolean enabled;
+    private final Duration budget;
+    private final int iterations;
+    private final int connections;
+    private volatile boolean complete;
+    /** Set once the first warmup has run; later startup events come from a CRaC restore. */
+    private volatile boolean warmedUp;
+
+    public Warmup(
+        DataSource dataSource,
+        CatalogLookupRepository catalogLookupRepository,
+        DestinationRepository destinationRepository,
+        EmbeddingService embeddingService,
+        TravelTools travelTools,
+        ToolResultCache toolResults,
+        SearchCursorCache searchCursors,
+        JsonMapper jsonMapper,
+        @Named(TaskExecutors.VIRTUAL) ExecutorService executor,
+        @Value("${app.warmup.enabled:true}") boolean enabled,
+        @Value("${app.warmup.budget:30s}") Duration budget,
+        @Value("${app.warmup.iterations:200}") int iterations,
+        @Value("${app.warmup.connections:10}") int connections
+    ) {
+        this.dataSource = dataSource;
+        this.catalogLookupRepository = catalogLookupRepository;
+        this.destinationRepository = destinationRepository;
+        this.embeddingService = embeddingService;
+        this.travelTools = travelTools;
+        this.toolResults = toolResults;
+        this.searchCursors = searchCursors;
+        this.jsonMapper = jsonMapper;
+        this.executor = executor;
+        this.enabled = enabled;
+        this.budget = budget;
+        this.iterations = iterations;
+        this.connections = connections;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * After DataInitializer, so the catalog has embeddings. After a CRaC restore the JIT is
+     * already warm, so only the connection pool, which restarts empty, is filled again.
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    @Override
+    public void onApplicationEvent(ServerStartupEvent event) {
+        complete = false;
+        if (!enabled) {
+            complete = true;
+            return;
+        }
+        executor.execute(warmedUp ? this::reopen : this::run);
+    }
+
+    private void reopen() {
+        try {
+            openConnections();
+            LOG.info("Reopened pool connections after restore");
+        } finally {
+            complete = true;
+        }
+    }
+
+    private void run() {
+        long start = System.nanoTime();
+        long deadline = start + budget.toNanos();
+        int rounds = 0;
+        try {
+            openConnections();
+            List<Runnable> calls = representativeCalls();
+            while (rounds < iterations && System.nanoTime() < deadline) {
+                for (Runnable call : calls) {
+                    call.run();
+                }
+                toolResults.clear();
+                rounds++;
+            }
+            LOG.info("Warmup finished: {} of {} rounds of {} calls in {} ms{}",
+                rounds, iterations, calls.size(), Duration.ofNanos(System.nanoTime() - start).toMillis(),
+                rounds < iterations ? " (time budget " + budget + " reached)" : "");
+        } catch (RuntimeException e) {
+            LOG.warn("Warmup failed after {} rounds, reporting ready anyway", rounds, e);
+        } finally {
+            embeddingService.forgetQuery(WARMUP_QUERY);
+            searchCursors.clear();
+            warmedUp = true;
+            complete = true;
+        }
+    }
+
+    /**
+     * Holds {@code app.warmup.connections} connections at once, so the pool opens them now
+     * rather than on the first concurrent requests.
+     */
+    private void openConnections() {
+        List<Connection> opened = new ArrayList<>();
+        try {
+            HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+            int count = Math.min(connections, pool.getMaximumPoolSize());
+            while (opened.size() < count) {
+                opened.add(pool.getConnection());
+            }
+        } catch (SQLException e) {
+            LOG.warn("Could not pre-open {} pool connections ({} opened)", connections, opened.size(), e);
+        } finally {
+            for (Connection connection : opened) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    LOG.debug("Error returning warmup connection", e);
+                }
+            }
+        }
+    }
+
+    private List<Runnable> representativeCalls() {
+        List<DestinationEntity> destinations = destinationRepository.findAll();
+        Optional<DestinationEntity> anchor = destinations.stream().filter(destination -> destination.location() != null).findFirst();
+        List<Runnable> calls = new ArrayList<>();
+        calls.add(() -> travelTools.getWishlist());
+        calls.add(() -> serialize());
+        if (anchor.isEmpty()) {
+            LOG.warn("No destination with a location, warming up without catalog searches");
+            return calls;
+        }
+
+        DestinationEntity destination = anchor.get();
+        Long destinationId = destination.id();
+        calls.add(() -> destinationRepository.findByNameEqualsIgnoreCase(destination.name()));
+        calls.add(() -> catalogLookupRepository.findDetails(ItemType.DESTINATION, destinationId));
+        calls.add(() -> catalogLookupRepository.findEntries(ItemType.DESTINATION, Set.of(destinationId)));
+
+        Optional<float[]> sample = catalogLookupRepository.findSampleEmbedding(ItemType.DESTINATION);
+        if (sample.isEmpty()) {
+            LOG.warn("No stored embedding yet, warming up without catalog searches");
+            return calls;
+        }
+        embeddingService.rememberQuery(WARMUP_QUERY, sample.get());
+        String anchorName = destination.name();
+        calls.add(() -> travelTools.searchDestinations(WARMUP_QUERY, null, null));
+        calls.add(() -> travelTools.searchNearbyDestinations(WARMUP_QUERY, anchorName, null, null, null));
+        calls.add(() -> travelTools.searchHotels(WARMUP_QUERY, null, null, null, null));
+        calls.add(() -> travelTools.searchHotels(WARMUP_QUERY, destinationId, null, null, null));
+        calls.add(() -> travelTools.searchHotels(WARMUP_QUERY, destinationId, HOTEL_PRICE, null, null));
+        calls.add(() -> travelTools.searchNearbyHotels(WARMUP_QUERY, anchorName, null, HOTEL_PRICE, null, null));
+        calls.add(() -> travelTools.searchActivities(WARMUP_QUERY, null, null, null));
+        calls.add(() -> travelTools.searchActivities(WARMUP_QUERY, destinationId, null, null));
+        calls.add(() -> travelTools.searchNearbyActivities(WARMUP_QUERY, anchorName, null, null, null));
+        calls.add(() -> travelTools.getItemDetails(ItemType.DESTINATION.value(), destinationId));
+        calls.add(() -> travelTools.findSimilar(ItemType.DESTINATION.value(), destinationId, null, null, null));
+        destinations.stream()
+            .filter(other -> other.location() != null && !other.id().equals(destinationId))
+            .findFirst()
+            .map(other -> List.of(anchorName, other.name()))
+            .ifPresent(waypoints -> calls.add(() -> travelTools.searchAlongRoute(WARMUP_QUERY, waypoints, ROUTE_WIDTH_KM, null, null)));
+        return calls;
+    }
+
+    private void serialize() {
+        try {
+            jsonMapper.readValue("{\"message\": \"warmup\", \"conversationId\": \"warmup\"}", ChatController.ChatRequest.class);
+            jsonMapper.writeValueAsString(new WishlistChange(0, List.of(), List.of()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.warmup;
+
+import io.micronaut.core.async.publisher.Publishers;
+import io.micronaut.health.HealthStatus;
+import io.micronaut.management.health.indicator.HealthIndicator;
+import io.micronaut.management.health.indicator.HealthResult;
+import io.micronaut.management.health.indicator.annotation.Readiness;
+import jakarta.inject.Singleton;
+import org.reactivestreams.Publisher;
+
+/**
+ * Keeps {@code /health/readiness} DOWN until {@link Warmup} has finished, so a load balancer
+ * sends no traffic to a cold instance.
+ */
+@Singleton
+@Readiness
+public class WarmupHealthIndicator implements HealthIndicator {
+    private final Warmup warmup;
+
+    public WarmupHealthIndicator(Warmup warmup) {
+        this.warmup = warmup;
+    }
+
+    @Override
+    public Publisher<HealthResult> getResult() {
+        return Publishers.just(HealthResult.builder("warmup", warmup.isComplete() ? HealthStatus.UP : HealthStatus.DOWN).build());
+    }
+}
@@ -0,0 +1,45 @@
+-- Change log of catalog rows, filled by triggers so that every writer (the app, Flyway
+-- migrations, manual SQL) is captured. Each instance polls it to invalidate its in-process
+-- caches; CatalogChangeLog deletes entries older than app.catalog.changes.retention.
+CREATE TABLE catalog_changes (
+    id NUMBER GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    item_type VARCHAR2(50) NOT NULL,
+    item_id NUMBER NOT NULL,
+    operation VARCHAR2(10) NOT NULL,
+    changed_at TIMESTAMP DEFAULT SYSTIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_catalog_changes_changed_at ON catalog_changes(changed_at);
+
+CREATE OR REPLACE TRIGGER trg_destinations_changes
+AFTER INSERT OR UPDATE OR DELETE ON destinations
+FOR EACH ROW
+DECLARE
+    op VARCHAR2(10);
+BEGIN
+    IF INSERTING THEN op := 'INSERT'; ELSIF UPDATING THEN op := 'UPDATE'; ELSE op := 'DELETE'; END IF;
+    INSERT INTO catalog_changes (item_type, item_id, operation) VALUES ('destination', NVL(:NEW.id, :OLD.id), op);
+END;
+/
+
+CREATE OR REPLACE TRIGGER trg_hotels_changes
+AFTER INSERT OR UPDATE OR DELETE ON hotels
+FOR EACH ROW
+DECLARE
+    op VARCHAR2(10);
+BEGIN
+    IF INSERTING THEN op := 'INSERT'; ELSIF UPDATING THEN op := 'UPDATE'; ELSE op := 'DELETE'; END IF;
+    INSERT INTO catalog_changes (item_type, item_id, operation) VALUES ('hotel', NVL(:NEW.id, :OLD.id), op);
+END;
+/
+
+CREATE OR REPLACE TRIGGER trg_activities_changes
+AFTER INSERT OR UPDATE OR DELETE ON activities
+FOR EACH ROW
+DECLARE
+    op VARCHAR2(10);
+BEGIN
+    IF INSERTING THEN op := 'INSERT'; ELSIF UPDATING THEN op := 'UPDATE'; ELSE op := 'DELETE'; END IF;
+    INSERT INTO catalog_changes (item_type, item_id, operation) VALUES ('activity', NVL(:NEW.id, :OLD.id), op);
+END;
+/
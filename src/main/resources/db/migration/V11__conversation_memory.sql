@@ -0,0 +1,11 @@
+-- Chat memory per conversation, so any instance can continue any conversation. messages holds
+-- the deflated JSON of the compacted message list; revision changes on every write, so an
+-- instance can check with a primary key lookup whether its cached copy is still current.
+CREATE TABLE chat_memory (
+    conversation_id VARCHAR2(255) PRIMARY KEY,
+    messages BLOB NOT NULL,
+    revision NUMBER(19) NOT NULL,
+    updated_at TIMESTAMP DEFAULT SYSTIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_chat_memory_updated_at ON chat_memory(updated_at);
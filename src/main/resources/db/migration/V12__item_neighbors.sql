@@ -0,0 +1,15 @@
+-- Precomputed "more like this" neighbors: for every catalog row with an embedding, its most
+-- similar rows of each item type, once over the whole catalog (nearby = 0) and once among rows
+-- within app.similar.radius-km (nearby = 1). Index-organized with the item prefix compressed,
+-- so one item's neighbors are a single range scan. Rebuilt by SimilarItemsJob.
+CREATE TABLE item_neighbors (
+    item_type VARCHAR2(20) NOT NULL,
+    item_id NUMBER NOT NULL,
+    nearby NUMBER(1) NOT NULL,
+    neighbor_type VARCHAR2(20) NOT NULL,
+    neighbor_rank NUMBER(3) NOT NULL,
+    neighbor_id NUMBER NOT NULL,
+    distance BINARY_FLOAT NOT NULL,
+    km BINARY_FLOAT,
+    CONSTRAINT pk_item_neighbors PRIMARY KEY (item_type, item_id, nearby, neighbor_type, neighbor_rank)
+) ORGANIZATION INDEX COMPRESS 3;
@@ -0,0 +1,36 @@
+-- Log only changes that can alter what tools display or search: embedding backfills,
+-- re-embedding after a model switch and fingerprint updates touch every row and would flood
+-- catalog_changes, each entry flushing every instance's tool result cache. Those refreshes
+-- bump the catalog version on the instance that runs them.
+CREATE OR REPLACE TRIGGER trg_destinations_changes
+AFTER INSERT OR DELETE OR UPDATE OF name, region, description, location ON destinations
+FOR EACH ROW
+DECLARE
+    op VARCHAR2(10);
+BEGIN
+    IF INSERTING THEN op := 'INSERT'; ELSIF UPDATING THEN op := 'UPDATE'; ELSE op := 'DELETE'; END IF;
+    INSERT INTO catalog_changes (item_type, item_id, operation) VALUES ('destination', NVL(:NEW.id, :OLD.id), op);
+END;
+/
+
+CREATE OR REPLACE TRIGGER trg_hotels_changes
+AFTER INSERT OR DELETE OR UPDATE OF name, description, price_per_night, location, destination_id ON hotels
+FOR EACH ROW
+DECLARE
+    op VARCHAR2(10);
+BEGIN
+    IF INSERTING THEN op := 'INSERT'; ELSIF UPDATING THEN op := 'UPDATE'; ELSE op := 'DELETE'; END IF;
+    INSERT INTO catalog_changes (item_type, item_id, operation) VALUES ('hotel', NVL(:NEW.id, :OLD.id), op);
+END;
+/
+
+CREATE OR REPLACE TRIGGER trg_activities_changes
+AFTER INSERT OR DELETE OR UPDATE OF name, description, season, location, destination_id ON activities
+FOR EACH ROW
+DECLARE
+    op VARCHAR2(10);
+BEGIN
+    IF INSERTING THEN op := 'INSERT'; ELSIF UPDATING THEN op := 'UPDATE'; ELSE op := 'DELETE'; END IF;
+    INSERT INTO catalog_changes (item_type, item_id, operation) VALUES ('activity', NVL(:NEW.id, :OLD.id), op);
+END;
+/
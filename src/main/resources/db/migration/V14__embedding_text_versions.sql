@@ -0,0 +1,58 @@
+-- Lets EmbeddingRefreshJob find stale embeddings without reading every description.
+-- text_version counts changes to the text an embedding is generated from (including the
+-- destination name of hotels and activities); embedded_version is the text_version the stored
+-- embedding was generated from. A writer that stores a vector together with its text (a
+-- catalog import) marks it current. Existing rows start unverified (embedded_version NULL)
+-- and are checked once against their SHA-256 fingerprint.
+ALTER TABLE destinations ADD (text_version NUMBER DEFAULT 0 NOT NULL, embedded_version NUMBER);
+ALTER TABLE hotels ADD (text_version NUMBER DEFAULT 0 NOT NULL, embedded_version NUMBER);
+ALTER TABLE activities ADD (text_version NUMBER DEFAULT 0 NOT NULL, embedded_version NUMBER);
+
+CREATE OR REPLACE TRIGGER trg_destinations_text_version
+BEFORE INSERT OR UPDATE OF name, region, description, description_embedding ON destinations
+FOR EACH ROW
+BEGIN
+    IF UPDATING('NAME') OR UPDATING('REGION') OR UPDATING('DESCRIPTION') THEN
+        :NEW.text_version := :OLD.text_version + 1;
+    END IF;
+    IF (INSERTING OR UPDATING('DESCRIPTION_EMBEDDING')) AND NOT UPDATING('EMBEDDED_VERSION') THEN
+        :NEW.embedded_version := CASE WHEN :NEW.description_embedding IS NULL THEN NULL ELSE :NEW.text_version END;
+    END IF;
+END;
+/
+
+CREATE OR REPLACE TRIGGER trg_hotels_text_version
+BEFORE INSERT OR UPDATE OF name, description, destination_id, description_embedding ON hotels
+FOR EACH ROW
+BEGIN
+    IF UPDATING('NAME') OR UPDATING('DESCRIPTION') OR UPDATING('DESTINATION_ID') THEN
+        :NEW.text_version := :OLD.text_version + 1;
+    END IF;
+    IF (INSERTING OR UPDATING('DESCRIPTION_EMBEDDING')) AND NOT UPDATING('EMBEDDED_VERSION') THEN
+        :NEW.embedded_version := CASE WHEN :NEW.description_embedding IS NULL THEN NULL ELSE :NEW.text_version END;
+    END IF;
+END;
+/
+
+CREATE OR REPLACE TRIGGER trg_activities_text_version
+BEFORE INSERT OR UPDATE OF name, season, description, destination_id, description_embedding ON activities
+FOR EACH ROW
+BEGIN
+    IF UPDATING('NAME') OR UPDATING('SEASON') OR UPDATING('DESCRIPTION') OR UPDATING('DESTINATION_ID') THEN
+        :NEW.text_version := :OLD.text_version + 1;
+    END IF;
+    IF (INSERTING OR UPDATING('DESCRIPTION_EMBEDDING')) AND NOT UPDATING('EMBEDDED_VERSION') THEN
+        :NEW.embedded_version := CASE WHEN :NEW.description_embedding IS NULL THEN NULL ELSE :NEW.text_version END;
+    END IF;
+END;
+/
+
+-- Hotel and activity texts include their destination's name.
+CREATE OR REPLACE TRIGGER trg_destinations_rename
+AFTER UPDATE OF name ON destinations
+FOR EACH ROW
+BEGIN
+    UPDATE hotels SET text_version = text_version + 1 WHERE destination_id = :NEW.id;
+    UPDATE activities SET text_version = text_version + 1 WHERE destination_id = :NEW.id;
+END;
+/
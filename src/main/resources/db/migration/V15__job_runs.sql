@@ -0,0 +1,9 @@
+-- One row per job that only one instance should run at a time. The instance that locks the
+-- row (SELECT ... FOR UPDATE SKIP LOCKED) runs the job and records completed_at; the others
+-- skip it. The lock dies with the session, so a crashed instance does not hold it.
+CREATE TABLE job_runs (
+    job VARCHAR2(50) PRIMARY KEY,
+    completed_at TIMESTAMP
+);
+
+INSERT INTO job_runs (job) VALUES ('item_neighbors');
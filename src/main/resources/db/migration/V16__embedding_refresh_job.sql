@@ -0,0 +1,2 @@
+-- The embedding refresh runs on one instance at a time, like the item neighbor rebuild.
+INSERT INTO job_runs (job) VALUES ('embedding_refresh');
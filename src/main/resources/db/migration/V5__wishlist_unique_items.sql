@@ -0,0 +1,7 @@
+-- Keep one wishlist row per item so repeated adds are idempotent.
+DELETE FROM wishlist_items
+WHERE id NOT IN (
+    SELECT MIN(id) FROM wishlist_items GROUP BY item_type, item_id
+);
+
+ALTER TABLE wishlist_items ADD CONSTRAINT uq_wishlist_items_item UNIQUE (item_type, item_id);
@@ -0,0 +1,5 @@
+-- Fingerprint of the text each embedding was generated from, plus the embedding model,
+-- so only rows whose source text or model changed are re-embedded.
+ALTER TABLE destinations ADD (embedding_source_hash VARCHAR2(64), embedding_model VARCHAR2(100));
+ALTER TABLE hotels ADD (embedding_source_hash VARCHAR2(64), embedding_model VARCHAR2(100));
+ALTER TABLE activities ADD (embedding_source_hash VARCHAR2(64), embedding_model VARCHAR2(100));
@@ -0,0 +1,17 @@
+-- Allow any embedding dimension (1536 for text-embedding-3-small, 384 for the in-process
+-- all-MiniLM-L6-v2 model). A VECTOR column's dimension cannot be altered in place, so each
+-- column is rebuilt and existing vectors are copied over.
+ALTER TABLE destinations ADD (description_embedding_flex VECTOR(*, FLOAT32));
+UPDATE destinations SET description_embedding_flex = description_embedding;
+ALTER TABLE destinations DROP COLUMN description_embedding;
+ALTER TABLE destinations RENAME COLUMN description_embedding_flex TO description_embedding;
+
+ALTER TABLE hotels ADD (description_embedding_flex VECTOR(*, FLOAT32));
+UPDATE hotels SET description_embedding_flex = description_embedding;
+ALTER TABLE hotels DROP COLUMN description_embedding;
+ALTER TABLE hotels RENAME COLUMN description_embedding_flex TO description_embedding;
+
+ALTER TABLE activities ADD (description_embedding_flex VECTOR(*, FLOAT32));
+UPDATE activities SET description_embedding_flex = description_embedding;
+ALTER TABLE activities DROP COLUMN description_embedding;
+ALTER TABLE activities RENAME COLUMN description_embedding_flex TO description_embedding;
@@ -0,0 +1,43 @@
+-- Short VARCHAR2 copy of each description for search results, so search queries never
+-- fetch the description CLOB. Kept in sync by triggers; the full text is read on demand.
+ALTER TABLE destinations ADD (summary VARCHAR2(320 CHAR));
+ALTER TABLE hotels ADD (summary VARCHAR2(320 CHAR));
+ALTER TABLE activities ADD (summary VARCHAR2(320 CHAR));
+
+CREATE OR REPLACE TRIGGER trg_destinations_summary
+BEFORE INSERT OR UPDATE OF description ON destinations
+FOR EACH ROW
+BEGIN
+    :NEW.summary := CASE
+        WHEN DBMS_LOB.GETLENGTH(:NEW.description) > 300 THEN DBMS_LOB.SUBSTR(:NEW.description, 297, 1) || '...'
+        ELSE DBMS_LOB.SUBSTR(:NEW.description, 300, 1)
+    END;
+END;
+/
+
+CREATE OR REPLACE TRIGGER trg_hotels_summary
+BEFORE INSERT OR UPDATE OF description ON hotels
+FOR EACH ROW
+BEGIN
+    :NEW.summary := CASE
+        WHEN DBMS_LOB.GETLENGTH(:NEW.description) > 300 THEN DBMS_LOB.SUBSTR(:NEW.description, 297, 1) || '...'
+        ELSE DBMS_LOB.SUBSTR(:NEW.description, 300, 1)
+    END;
+END;
+/
+
+CREATE OR REPLACE TRIGGER trg_activities_summary
+BEFORE INSERT OR UPDATE OF description ON activities
+FOR EACH ROW
+BEGIN
+    :NEW.summary := CASE
+        WHEN DBMS_LOB.GETLENGTH(:NEW.description) > 300 THEN DBMS_LOB.SUBSTR(:NEW.description, 297, 1) || '...'
+        ELSE DBMS_LOB.SUBSTR(:NEW.description, 300, 1)
+    END;
+END;
+/
+
+-- Touching description fires the triggers for existing rows.
+UPDATE destinations SET description = description;
+UPDATE hotels SET description = description;
+UPDATE activities SET description = description;
@@ -0,0 +1,17 @@
+-- List-partition hotels and activities by destination, one partition per destination
+-- (AUTOMATIC adds a partition for each new destination_id), so a search filtered by
+-- destination_id prunes to that destination's rows. The LOCAL IVF vector indexes on these
+-- partitions are built by EmbeddingRefreshJob once the rows have embeddings.
+DROP INDEX idx_hotels_location;
+DROP INDEX idx_activities_location;
+
+ALTER TABLE hotels MODIFY
+    PARTITION BY LIST (destination_id) AUTOMATIC (PARTITION p_hotels_initial VALUES (0))
+    ONLINE UPDATE INDEXES (idx_hotels_destination LOCAL);
+
+ALTER TABLE activities MODIFY
+    PARTITION BY LIST (destination_id) AUTOMATIC (PARTITION p_activities_initial VALUES (0))
+    ONLINE UPDATE INDEXES (idx_activities_destination LOCAL);
+
+CREATE INDEX idx_hotels_location ON hotels(location) INDEXTYPE IS MDSYS.SPATIAL_INDEX_V2 LOCAL;
+CREATE INDEX idx_activities_location ON activities(location) INDEXTYPE IS MDSYS.SPATIAL_INDEX_V2 LOCAL;
@@ -0,0 +1,108 @@
+package com.example.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micronaut.http.HttpStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionControlTest {
+    private static final Duration DEADLINE = Duration.ofMillis(500);
+
+    /** One slot for everything, so a leaked slot blocks the next request. */
+    private final AdmissionControl admission = new AdmissionControl(
+        new SimpleMeterRegistry(), 1, 0, 8, DEADLINE, Duration.ofMillis(1), 8, DEADLINE, Duration.ofMillis(1)
+    );
+
+    @Test
+    void interruptedWaiterLeavesTheQueue() throws Exception {
+        AdmissionControl.Permit running = admission.acquire(RequestClass.CHAT);
+        CompletableFuture<Throwable> outcome = new CompletableFuture<>();
+        Thread waiter = start(() -> {
+            try {
+                admission.acquire(RequestClass.CHAT).close();
+                outcome.complete(null);
+            } catch (Throwable e) {
+                outcome.complete(e);
+            }
+        });
+        awaitParked(waiter);
+        waiter.interrupt();
+
+        AdmissionRejectedException rejected = (AdmissionRejectedException) outcome.get(1, TimeUnit.SECONDS);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.status());
+        running.close();
+        admission.acquire(RequestClass.CHAT).close();
+    }
+
+    @Test
+    void slotHandedToAnInterruptedWaiterIsPassedOn() throws Exception {
+        // Interrupting the waiter right as the running request releases its slot lets dispatch()
+        // admit the waiter before it sees the interrupt. Either way the slot must come back.
+        for (int round = 0; round < 200; round++) {
+            AdmissionControl.Permit running = admission.acquire(RequestClass.CHAT);
+            Thread waiter = start(() -> {
+                try {
+                    admission.acquire(RequestClass.CHAT).close();
+                } catch (AdmissionRejectedException e) {
+                    // Interrupted before admission.
+                }
+            });
+            awaitParked(waiter);
+            waiter.interrupt();
+            running.close();
+            waiter.join(TimeUnit.SECONDS.toMillis(1));
+
+            long start = System.nanoTime();
+            admission.acquire(RequestClass.CHAT).close();
+            assertTrue(System.nanoTime() - start < DEADLINE.toNanos() / 2, "slot leaked in round " + round);
+        }
+    }
+
+    @Test
+    void busyLockGivesUpAtTheDeadline() throws Exception {
+        ReentrantLock conversation = new ReentrantLock();
+        CompletableFuture<Void> held = new CompletableFuture<>();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        Thread holder = start(() -> {
+            conversation.lock();
+            try {
+                held.complete(null);
+                done.join();
+            } finally {
+                conversation.unlock();
+            }
+        });
+        held.get(1, TimeUnit.SECONDS);
+
+        try (AdmissionControl.Permit permit = admission.acquire(RequestClass.CHAT)) {
+            AdmissionRejectedException rejected = assertThrows(AdmissionRejectedException.class, () -> permit.lock(conversation));
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.status());
+        } finally {
+            done.complete(null);
+            holder.join();
+        }
+        // The rejected request's slot is free again.
+        admission.acquire(RequestClass.CHEAP).close();
+    }
+
+    private static Thread start(Runnable task) {
+        Thread thread = new Thread(task);
+        thread.start();
+        return thread;
+    }
+
+    private static void awaitParked(Thread thread) throws InterruptedException {
+        while (thread.getState() != Thread.State.TIMED_WAITING) {
+            assertTrue(thread.isAlive(), "waiter finished without queueing");
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.memory;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.ToolExecutionResultMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.store.memory.chat.InMemoryChatMemoryStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompactingChatMemoryTest {
+    private static final String CONVERSATION = "conversation";
+    private static final int LARGE_BUDGET = 100_000;
+
+    private final InMemoryChatMemoryStore store = new InMemoryChatMemoryStore();
+
+    @Test
+    void olderTurnsKeepOneTypedIdPerResult() {
+        CompactingChatMemory memory = memory(LARGE_BUDGET, 1);
+        turn(memory, "spa hotels in Zermatt", "searchHotels", """
+            Hotels matching "spa":
+            - Alpenhof (hotel ID:12, Zermatt, CHF 320/night, distance 0.21): Spa hotel with a view of the Matterhorn.
+            - Mirabeau (hotel ID:15, Zermatt, CHF 280/night, distance 0.24): Boutique hotel with an alpine spa.
+            """);
+        turn(memory, "something like the Alpenhof", "findSimilar", """
+            Similar to Alpenhof (hotel ID:12):
+            - Zermatt (destination ID:3, Valais, distance 0.18, 2 km away)
+            - Gornergrat railway (activity ID:40, all year, distance 0.30, 3 km away)
+            """);
+        memory.add(UserMessage.from("add the first one"));
+
+        List<ChatMessage> messages = memory.messages();
+        assertEquals("[compacted] Alpenhof (hotel ID:12), Mirabeau (hotel ID:15)", toolResults(messages).get(0).text());
+        assertEquals("[compacted] Zermatt (destination ID:3), Gornergrat railway (activity ID:40)", toolResults(messages).get(1).text());
+    }
+
+    @Test
+    void verbatimTurnsAreKeptWhole() {
+        CompactingChatMemory memory = memory(LARGE_BUDGET, 2);
+        String result = "- Alpenhof (hotel ID:12, Zermatt, CHF 320/night, distance 0.21): Spa hotel.";
+        turn(memory, "spa hotels in Zermatt", "searchHotels", result);
+        memory.add(UserMessage.from("and in Davos?"));
+
+        assertEquals(result, toolResults(memory.messages()).getFirst().text());
+    }
+
+    @Test
+    void resultWithoutItemLinesIsTruncated() {
+        CompactingChatMemory memory = memory(LARGE_BUDGET, 1);
+        turn(memory, "tell me about the Alpenhof", "getItemDetails", "Alpenhof (hotel ID:12): " + "Spa hotel. ".repeat(100));
+        memory.add(UserMessage.from("thanks"));
+
+        String compacted = toolResults(memory.messages()).getFirst().text();
+        assertTrue(compacted.startsWith("[compacted] Alpenhof (hotel ID:12): Spa hotel."), compacted);
+        assertTrue(compacted.length() <= "[compacted] ".length() + 160, compacted);
+    }
+
+    @Test
+    void oldestTurnsAreDroppedOverBudget() {
+        CompactingChatMemory memory = memory(60, 1);
+        memory.add(SystemMessage.from("You are a travel advisor."));
+        for (int i = 0; i < 10; i++) {
+            memory.add(UserMessage.from("question " + i + " " + "x".repeat(40)));
+            memory.add(AiMessage.from("answer " + i + " " + "y".repeat(40)));
+        }
+
+        List<ChatMessage> messages = memory.messages();
+        assertInstanceOf(SystemMessage.class, messages.getFirst());
+        assertTrue(messages.size() < 21, "kept " + messages.size());
+        assertTrue(((AiMessage) messages.getLast()).text().startsWith("answer 9"));
+        assertTrue(((UserMessage) messages.get(1)).singleText().startsWith("question "));
+    }
+
+    @Test
+    void turnsStartAtUserMessages() {
+        CompactingChatMemory memory = memory(LARGE_BUDGET, 1);
+        memory.add(AiMessage.from("Welcome back"));
+        turn(memory, "spa hotels", "searchHotels", "- Alpenhof (hotel ID:12, Zermatt, CHF 320/night, distance 0.21): Spa hotel.");
+        memory.add(SystemMessage.from("first prompt"));
+        memory.add(SystemMessage.from("second prompt"));
+
+        List<ChatMessage> messages = memory.messages();
+        // Only the latest system message is kept, first.
+        assertEquals("second prompt", ((SystemMessage) messages.getFirst()).text());
+        assertEquals(1, messages.stream().filter(SystemMessage.class::isInstance).count());
+        // The message before the first user message is a turn of its own and is compacted too.
+        assertEquals("Welcome back", ((AiMessage) messages.get(1)).text());
+        // The last turn runs from the user message to the end and stays verbatim.
+        assertEquals("- Alpenhof (hotel ID:12, Zermatt, CHF 320/night, distance 0.21): Spa hotel.",
+            toolResults(messages).getFirst().text());
+    }
+
+    @Test
+    void newestTurnToolResultsAreShortenedToTheBudget() {
+        int maxTokens = 600;
+        CompactingChatMemory memory = memory(maxTokens, 1);
+        memory.add(UserMessage.from("tell me everything about these hotels"));
+        memory.add(AiMessage.from("", List.of(request("1", "getItemDetails"), request("2", "getItemDetails"), request("3", "searchHotels"))));
+        memory.add(ToolExecutionResultMessage.from("1", "getItemDetails", "Alpenhof (hotel ID:12): " + "Long description. ".repeat(300)));
+        memory.add(ToolExecutionResultMessage.from("2", "getItemDetails", "Mirabeau (hotel ID:15): " + "Long description. ".repeat(300)));
+        String shortResult = "- Cervo (hotel ID:17, Zermatt, CHF 450/night, distance 0.30): Mountain lodge.";
+        memory.add(ToolExecutionResultMessage.from("3", "searchHotels", shortResult));
+
+        List<ChatMessage> messages = memory.messages();
+        List<ToolExecutionResultMessage> results = toolResults(messages);
+        assertEquals(5, messages.size());
+        assertEquals(shortResult, results.get(2).text());
+        for (ToolExecutionResultMessage result : results.subList(0, 2)) {
+            assertTrue(result.text().endsWith("[truncated]"), result.text());
+        }
+        assertTrue(results.get(0).text().startsWith("Alpenhof (hotel ID:12): "));
+        int chars = messages.stream().mapToInt(CompactingChatMemoryTest::length).sum();
+        assertTrue(chars / 4 <= maxTokens, chars + " chars");
+    }
+
+    @Test
+    void newestTurnWithinBudgetIsUntouched() {
+        CompactingChatMemory memory = memory(LARGE_BUDGET, 1);
+        String details = "Alpenhof (hotel ID:12): " + "Long description. ".repeat(300);
+        turn(memory, "tell me about the Alpenhof", "getItemDetails", details);
+
+        assertEquals(details, toolResults(memory.messages()).getFirst().text());
+    }
+
+    private CompactingChatMemory memory(int maxTokens, int verbatimTurns) {
+        return new CompactingChatMemory(CONVERSATION, store, maxTokens, verbatimTurns);
+    }
+
+    private static void turn(CompactingChatMemory memory, String question, String tool, String result) {
+        memory.add(UserMessage.from(question));
+        memory.add(AiMessage.from("", List.of(request("call-" + question.hashCode(), tool))));
+        memory.add(ToolExecutionResultMessage.from("call-" + question.hashCode(), tool, result));
+        memory.add(AiMessage.from("Here is what I found."));
+    }
+
+    private static ToolExecutionRequest request(String id, String tool) {
+        return ToolExecutionRequest.builder().id(id).name(tool).arguments("{}").build();
+    }
+
+    private static List<ToolExecutionResultMessage> toolResults(List<ChatMessage> messages) {
+        return messages.stream()
+            .filter(ToolExecutionResultMessage.class::isInstance)
+            .map(ToolExecutionResultMessage.class::cast)
+            .toList();
+    }
+
+    private static int length(ChatMessage message) {
+        return switch (message) {
+            case UserMessage user -> user.singleText().length();
+            case AiMessage ai -> ai.text() == null ? 0 : ai.text().length();
+            case ToolExecutionResultMessage toolResult -> toolResult.text().length();
+            default -> 0;
+        };
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.service;
+
+import com.example.model.CatalogChange;
+import com.example.model.ItemType;
+import com.example.repository.CatalogChangeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogChangeLogTest {
+    private static final Duration LONG_GRACE = Duration.ofMinutes(1);
+    private static final Duration SHORT_GRACE = Duration.ofMillis(50);
+
+    private final Log log = new Log();
+    private final List<CatalogChangeEvent> events = new ArrayList<>();
+
+    @Test
+    void firstPollStartsAfterTheNewestChange() {
+        log.commit(1);
+        log.commit(2);
+        CatalogChangeLog changeLog = changeLog(10, 100, LONG_GRACE);
+
+        changeLog.poll();
+        log.commit(3);
+        changeLog.poll();
+
+        assertEquals(List.of(List.of(3L)), delivered());
+    }
+
+    @Test
+    void changeCommittedAfterAHigherIdIsDeliveredOnce() {
+        log.commit(1);
+        CatalogChangeLog changeLog = changeLog(10, 100, LONG_GRACE);
+        changeLog.poll();
+
+        // ID 2 is handed out first but commits after 3.
+        log.commit(3);
+        changeLog.poll();
+        log.commit(2);
+        changeLog.poll();
+        log.commit(4);
+        changeLog.poll();
+        changeLog.poll();
+
+        assertEquals(List.of(List.of(3L), List.of(2L), List.of(4L)), delivered());
+        assertEquals(4, events.getLast().version());
+    }
+
+    @Test
+    void changesAboveAGapAreNotRedeliveredAcrossPages() {
+        log.commit(1);
+        CatalogChangeLog changeLog = changeLog(2, 100, LONG_GRACE);
+        changeLog.poll();
+
+        // With 2 missing, every poll re-reads 3..6 in pages of two.
+        for (long id = 3; id <= 6; id++) {
+            log.commit(id);
+        }
+        changeLog.poll();
+        changeLog.poll();
+        log.commit(2);
+        changeLog.poll();
+
+        assertEquals(List.of(List.of(3L, 4L, 5L, 6L), List.of(2L)), delivered());
+    }
+
+    @Test
+    void missingIdIsGivenUpOnAfterTheGrace() throws InterruptedException {
+        log.commit(1);
+        CatalogChangeLog changeLog = changeLog(10, 100, SHORT_GRACE);
+        changeLog.poll();
+
+        log.commit(3);
+        changeLog.poll();
+        Thread.sleep(SHORT_GRACE.toMillis() * 2);
+        changeLog.poll();
+        // Too late: the poller already reads from after 3.
+        log.commit(2);
+        log.commit(4);
+        changeLog.poll();
+
+        assertEquals(List.of(List.of(3L), List.of(4L)), delivered());
+    }
+
+    @Test
+    void missingIdWithinTheGraceHoldsTheFloor() throws InterruptedException {
+        log.commit(1);
+        CatalogChangeLog changeLog = changeLog(10, 100, LONG_GRACE);
+        changeLog.poll();
+
+        log.commit(3);
+        changeLog.poll();
+        Thread.sleep(SHORT_GRACE.toMillis() * 2);
+        changeLog.poll();
+        log.commit(2);
+        changeLog.poll();
+
+        assertEquals(List.of(List.of(3L), List.of(2L)), delivered());
+    }
+
+    @Test
+    void backlogAboveMaxPerPollDropsEverything() {
+        log.commit(1);
+        CatalogChangeLog changeLog = changeLog(2, 4, LONG_GRACE);
+        changeLog.poll();
+
+        for (long id = 2; id <= 7; id++) {
+            log.commit(id);
+        }
+        changeLog.poll();
+        log.commit(8);
+        changeLog.poll();
+
+        assertEquals(2, events.size());
+        assertTrue(events.getFirst().missedChanges());
+        assertEquals(7, events.getFirst().version());
+        assertFalse(events.getLast().missedChanges());
+        assertEquals(List.of(8L), ids(events.getLast()));
+    }
+
+    @Test
+    void failedReadDeliversNothingAndRetries() {
+        log.commit(1);
+        CatalogChangeLog changeLog = changeLog(10, 100, LONG_GRACE);
+        changeLog.poll();
+
+        log.commit(2);
+        log.failing = true;
+        changeLog.poll();
+        log.failing = false;
+        changeLog.poll();
+
+        assertEquals(List.of(List.of(2L)), delivered());
+    }
+
+    @Test
+    void failureOnALaterPageDeliversTheWholeReadOnRetry() {
+        log.commit(1);
+        CatalogChangeLog changeLog = changeLog(2, 100, LONG_GRACE);
+        changeLog.poll();
+
+        for (long id = 2; id <= 5; id++) {
+            log.commit(id);
+        }
+        log.failAfterPages = 1;
+        changeLog.poll();
+        log.failAfterPages = -1;
+        changeLog.poll();
+
+        assertEquals(List.of(List.of(2L, 3L, 4L, 5L)), delivered());
+    }
+
+    private CatalogChangeLog changeLog(int batchSize, int maxPerPoll, Duration commitGrace) {
+        return new CatalogChangeLog(log, events::add, new SimpleMeterRegistry(), new BackgroundJobs(),
+            batchSize, maxPerPoll, commitGrace, Duration.ofHours(1));
+    }
+
+    private List<List<Long>> delivered() {
+        events.forEach(event -> assertFalse(event.missedChanges()));
+        return events.stream().map(CatalogChangeLogTest::ids).toList();
+    }
+
+    private static List<Long> ids(CatalogChangeEvent event) {
+        return event.changes().stream().map(CatalogChange::id).toList();
+    }
+
+    /** The committed, visible part of the change log. */
+    private static class Log extends CatalogChangeRepository {
+        private final TreeMap<Long, CatalogChange> visible = new TreeMap<>();
+        private boolean failing;
+        /** Pages served before reads start failing; -1 for no limit. */
+        private int failAfterPages = -1;
+
+        Log() {
+            super(null, null);
+        }
+
+        void commit(long id) {
+            visible.put(id, new CatalogChange(id, ItemType.HOTEL, id * 10, "UPDATE"));
+        }
+
+        @Override
+        public Optional<Long> findLatestId() {
+            return failing ? Optional.empty() : Optional.of(visible.isEmpty() ? 0 : visible.lastKey());
+        }
+
+        @Override
+        public Optional<List<CatalogChange>> findAfter(long afterId, int limit) {
+            if (failing || failAfterPages == 0) {
+                return Optional.empty();
+            }
+            if (failAfterPages > 0) {
+                failAfterPages--;
+            }
+            return Optional.of(visible.tailMap(afterId, false).values().stream().limit(limit).toList());
+        }
+    }
+}
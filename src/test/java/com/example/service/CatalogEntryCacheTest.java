@@ -0,0 +1,145 @@
+package com.example.service;
+
+import com.example.model.CatalogEntry;
+import com.example.model.ItemType;
+import com.example.repository.CatalogLookupRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogEntryCacheTest {
+    /** Four entries per type: eight slots. */
+    private static final int CAPACITY = 4;
+    private static final int SLOTS = 8;
+
+    private final Catalog catalog = new Catalog();
+    private final CatalogEntryCache cache = new CatalogEntryCache(catalog, new SimpleMeterRegistry(), true, CAPACITY);
+
+    @Test
+    void deleteShiftsWrappedRunBack() {
+        // Three rows hashed to the last slot occupy slots 7, 0 and 1; a row hashed to slot 0 lands in 2.
+        List<Long> lastSlot = idsWithHome(SLOTS - 1, 3);
+        long firstSlot = idsWithHome(0, 1).getFirst();
+        List<Long> all = new ArrayList<>(lastSlot);
+        all.add(firstSlot);
+        loadInOrder(ItemType.HOTEL, all);
+        assertEquals(all, catalog.loads);
+
+        cache.invalidate(ItemType.HOTEL, lastSlot.getFirst());
+        catalog.loads.clear();
+        for (long id : List.of(lastSlot.get(1), lastSlot.get(2), firstSlot)) {
+            assertEquals(catalog.entry(ItemType.HOTEL, id), cache.get(ItemType.HOTEL, id).orElseThrow());
+        }
+        assertTrue(catalog.loads.isEmpty(), "rows behind the deleted slot must stay reachable: " + catalog.loads);
+
+        cache.get(ItemType.HOTEL, lastSlot.getFirst());
+        assertEquals(List.of(lastSlot.getFirst()), catalog.loads);
+    }
+
+    @Test
+    void reinsertIntoWrappedRunAfterDelete() {
+        List<Long> lastSlot = idsWithHome(SLOTS - 1, 3);
+        loadInOrder(ItemType.ACTIVITY, lastSlot);
+
+        long middle = lastSlot.get(1);
+        catalog.rename(ItemType.ACTIVITY, middle);
+        cache.invalidate(ItemType.ACTIVITY, middle);
+        catalog.loads.clear();
+        cache.get(ItemType.ACTIVITY, lastSlot.get(2));
+        assertTrue(catalog.loads.isEmpty(), "the row after the gap must have moved into it");
+        assertEquals(catalog.entry(ItemType.ACTIVITY, middle), cache.get(ItemType.ACTIVITY, middle).orElseThrow());
+        assertEquals(List.of(middle), catalog.loads);
+
+        catalog.loads.clear();
+        for (long id : lastSlot) {
+            assertEquals(catalog.entry(ItemType.ACTIVITY, id), cache.get(ItemType.ACTIVITY, id).orElseThrow());
+        }
+        assertTrue(catalog.loads.isEmpty(), "reinserted run must be complete: " + catalog.loads);
+    }
+
+    @Test
+    void neverServesInvalidatedEntries() {
+        Random random = new Random(42);
+        for (int step = 0; step < 20_000; step++) {
+            long id = random.nextInt(3 * SLOTS);
+            if (random.nextInt(3) == 0) {
+                catalog.rename(ItemType.DESTINATION, id);
+                cache.invalidate(ItemType.DESTINATION, id);
+            } else {
+                assertEquals(catalog.entry(ItemType.DESTINATION, id), cache.get(ItemType.DESTINATION, id).orElseThrow());
+                catalog.loads.clear();
+                // Just loaded, so it must be a hit now.
+                cache.get(ItemType.DESTINATION, id);
+                assertTrue(catalog.loads.isEmpty(), "entry " + id + " lost at step " + step);
+            }
+        }
+    }
+
+    /**
+     * One at a time: a batch load inserts in hash map order, which would decide the slots.
+     */
+    private void loadInOrder(ItemType type, List<Long> ids) {
+        for (long id : ids) {
+            cache.get(type, id);
+        }
+    }
+
+    /**
+     * IDs whose home slot in an eight-slot table is {@code slot}; mirrors the Fibonacci hash
+     * in CatalogEntryCache.Segment.
+     */
+    private static List<Long> idsWithHome(int slot, int count) {
+        int shift = Long.SIZE - Integer.numberOfTrailingZeros(SLOTS);
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; ids.size() < count; id++) {
+            if ((int) ((id * 0x9E3779B97F4A7C15L) >>> shift) == slot) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Every ID has a row; a rename gives it a new name, so a stale cached entry shows.
+     */
+    private static final class Catalog extends CatalogLookupRepository {
+        private final Map<Long, Integer> revisions = new HashMap<>();
+        private final List<Long> loads = new ArrayList<>();
+
+        Catalog() {
+            super(null, null);
+        }
+
+        void rename(ItemType type, long id) {
+            revisions.merge(id, 1, Integer::sum);
+        }
+
+        CatalogEntry entry(ItemType type, long id) {
+            String name = type.value() + " " + id + " rev " + revisions.getOrDefault(id, 0);
+            return switch (type) {
+                case DESTINATION -> new CatalogEntry(type, id, name, "region", null, null);
+                case HOTEL -> new CatalogEntry(type, id, name, null, 100.0 + id, null);
+                case ACTIVITY -> new CatalogEntry(type, id, name, null, null, "summer");
+            };
+        }
+
+        @Override
+        public Map<Long, CatalogEntry> findEntries(ItemType type, Collection<Long> ids) {
+            Map<Long, CatalogEntry> entries = new HashMap<>();
+            for (Long id : ids) {
+                loads.add(id);
+                entries.put(id, entry(type, id));
+            }
+            return entries;
+        }
+    }
+}
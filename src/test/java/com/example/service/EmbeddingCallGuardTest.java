@@ -0,0 +1,226 @@
+package com.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmbeddingCallGuardTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration OPEN_DURATION = Duration.ofMillis(200);
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void slowCallIsHedgedAndTheFirstAnswerWins() throws Exception {
+        EmbeddingCallGuard guard = guard(TIMEOUT, Duration.ofMillis(50), 20, 10);
+        CountDownLatch primaryInterrupted = new CountDownLatch(1);
+
+        float[] vector = guard.call(() -> {
+            int call = calls.incrementAndGet();
+            if (call == 1) {
+                sleep(TIMEOUT, primaryInterrupted);
+            }
+            return new float[] {call};
+        }, true);
+
+        assertArrayEquals(new float[] {2}, vector);
+        assertTrue(primaryInterrupted.await(1, TimeUnit.SECONDS), "losing attempt was not cancelled");
+    }
+
+    @Test
+    void hedgeDelayFollowsTheP95OfRecentCalls() {
+        EmbeddingCallGuard guard = guard(TIMEOUT, Duration.ofSeconds(10), 20, 10);
+
+        // Fewer than 20 samples: the initial delay applies, and a 300 ms call is not hedged.
+        assertArrayEquals(new float[] {1}, guard.call(slowFirstCall(Duration.ofMillis(300)), true));
+        assertEquals(1, calls.get());
+
+        for (int i = 0; i < 20; i++) {
+            guard.call(() -> new float[] {0}, true);
+        }
+        calls.set(0);
+
+        // With fast samples the p95 is below the 20 ms floor, so the hedge goes out after 20 ms.
+        long start = System.nanoTime();
+        assertArrayEquals(new float[] {2}, guard.call(slowFirstCall(Duration.ofSeconds(3)), true));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1), "hedge was not sent at the p95");
+    }
+
+    @Test
+    void unhedgedCallRunsOnce() {
+        EmbeddingCallGuard guard = guard(TIMEOUT, Duration.ofMillis(10), 20, 10);
+
+        assertArrayEquals(new float[] {1}, guard.call(slowFirstCall(Duration.ofMillis(200)), false));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void hedgeCoversAFailedPrimaryButNotTwoFailures() {
+        EmbeddingCallGuard guard = guard(TIMEOUT, Duration.ofMillis(20), 20, 10);
+
+        float[] vector = guard.call(() -> {
+            int call = calls.incrementAndGet();
+            if (call == 1) {
+                sleep(Duration.ofMillis(50), new CountDownLatch(1));
+                throw new IllegalStateException("primary failed");
+            }
+            // Answers after the primary failed.
+            sleep(Duration.ofMillis(150), new CountDownLatch(1));
+            return new float[] {call};
+        }, true);
+        assertArrayEquals(new float[] {2}, vector);
+
+        EmbeddingUnavailableException failure = assertThrows(EmbeddingUnavailableException.class, () -> guard.call(() -> {
+            sleep(Duration.ofMillis(50), new CountDownLatch(1));
+            throw new IllegalStateException("provider down");
+        }, true));
+        assertEquals("provider down", failure.getCause().getMessage());
+    }
+
+    @Test
+    void timeoutInterruptsTheCall() throws Exception {
+        EmbeddingCallGuard guard = guard(Duration.ofMillis(100), Duration.ofMillis(10), 20, 10);
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        assertThrows(EmbeddingUnavailableException.class, () -> guard.call(() -> {
+            sleep(TIMEOUT, interrupted);
+            return new float[] {1};
+        }, false));
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS), "timed out call was not interrupted");
+    }
+
+    @Test
+    void breakerOpensAtTheFailureRateAndRejectsWithoutCalling() {
+        EmbeddingCallGuard guard = guard(TIMEOUT, TIMEOUT, 4, 4);
+        guard.call(() -> new float[] {1}, false);
+        guard.call(() -> new float[] {1}, false);
+        fail(guard);
+        // Three calls are below the minimum, however many of them failed.
+        assertFalse(guard.isOpen());
+
+        fail(guard);
+        assertTrue(guard.isOpen());
+        EmbeddingUnavailableException rejected = assertThrows(EmbeddingUnavailableException.class,
+            () -> guard.call(counted(), false));
+        assertEquals("Embedding provider circuit breaker is open", rejected.getMessage());
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    void failuresOutsideTheWindowAreForgotten() {
+        EmbeddingCallGuard guard = guard(TIMEOUT, TIMEOUT, 4, 4);
+        fail(guard);
+        fail(guard);
+        for (int i = 0; i < 4; i++) {
+            guard.call(() -> new float[] {1}, false);
+        }
+
+        fail(guard);
+        assertFalse(guard.isOpen(), "1 of the last 4 calls failed");
+        fail(guard);
+        assertTrue(guard.isOpen(), "2 of the last 4 calls failed");
+    }
+
+    @Test
+    void halfOpenBreakerAdmitsOneProbeAndClosesWhenItSucceeds() throws Exception {
+        EmbeddingCallGuard guard = openBreaker();
+        Thread.sleep(OPEN_DURATION.toMillis() + 50);
+
+        CountDownLatch probing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<float[]> probe = CompletableFuture.supplyAsync(() -> guard.call(() -> {
+            probing.countDown();
+            await(release);
+            return new float[] {1};
+        }, false), executor);
+        assertTrue(probing.await(1, TimeUnit.SECONDS));
+
+        assertThrows(EmbeddingUnavailableException.class, () -> guard.call(counted(), false));
+        assertEquals(0, calls.get());
+
+        release.countDown();
+        assertArrayEquals(new float[] {1}, probe.get(1, TimeUnit.SECONDS));
+        assertFalse(guard.isOpen());
+        guard.call(counted(), false);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void failedProbeOpensTheBreakerAgain() throws Exception {
+        EmbeddingCallGuard guard = openBreaker();
+        Thread.sleep(OPEN_DURATION.toMillis() + 50);
+
+        fail(guard);
+
+        assertTrue(guard.isOpen());
+        assertThrows(EmbeddingUnavailableException.class, () -> guard.call(counted(), false));
+        assertEquals(0, calls.get());
+    }
+
+    private EmbeddingCallGuard guard(Duration timeout, Duration initialHedgeDelay, int breakerWindow, int breakerMinimumCalls) {
+        return new EmbeddingCallGuard(executor, new SimpleMeterRegistry(), timeout, true, initialHedgeDelay,
+            Duration.ofMillis(20), breakerWindow, breakerMinimumCalls, 0.5, OPEN_DURATION);
+    }
+
+    private EmbeddingCallGuard openBreaker() {
+        EmbeddingCallGuard guard = guard(TIMEOUT, TIMEOUT, 4, 4);
+        for (int i = 0; i < 4; i++) {
+            fail(guard);
+        }
+        assertTrue(guard.isOpen());
+        return guard;
+    }
+
+    private static void fail(EmbeddingCallGuard guard) {
+        assertThrows(EmbeddingUnavailableException.class, () -> guard.call(() -> {
+            throw new IllegalStateException("provider down");
+        }, false));
+    }
+
+    private Supplier<float[]> counted() {
+        return () -> new float[] {calls.incrementAndGet()};
+    }
+
+    /** The first call takes {@code duration}, later ones answer at once, each with its call number. */
+    private Supplier<float[]> slowFirstCall(Duration duration) {
+        return () -> {
+            int call = calls.incrementAndGet();
+            if (call == 1) {
+                sleep(duration, new CountDownLatch(1));
+            }
+            return new float[] {call};
+        };
+    }
+
+    private static void sleep(Duration duration, CountDownLatch interrupted) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            interrupted.countDown();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.service;
+
+import com.example.model.SearchQuery;
+import com.example.tracing.TravelTracer;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmbeddingServiceTest {
+    private final Provider provider = new Provider();
+    private final EmbeddingCallGuard guard = new EmbeddingCallGuard(
+        Executors.newCachedThreadPool(), new SimpleMeterRegistry(), Duration.ofSeconds(5), false,
+        Duration.ofMillis(500), Duration.ofMillis(50), 2, 2, 0.5, Duration.ofMinutes(1)
+    );
+    private final EmbeddingService service = new EmbeddingService(
+        provider, new TravelTracer(OpenTelemetry.noop()), new LocalEmbeddingStore(false, "unused"), guard,
+        new SimpleMeterRegistry(), "openai", "text-embedding-3-small", 10
+    );
+
+    @Test
+    void cachedQueryIsAnsweredWhileTheProviderIsDown() {
+        assertFalse(service.searchQuery("Spa hotels").isLexical());
+        provider.down = true;
+
+        SearchQuery query = service.searchQuery("  spa HOTELS ");
+
+        assertFalse(query.isLexical());
+        assertEquals(1, provider.calls.get());
+    }
+
+    @Test
+    void uncachedQueryFallsBackToKeywords() {
+        provider.down = true;
+
+        SearchQuery query = service.searchQuery("Spa hotels in Zermatt, spa");
+
+        assertTrue(query.isLexical());
+        assertEquals(List.of("spa", "hotels", "zermatt"), query.keywords());
+        assertEquals(1, provider.calls.get());
+    }
+
+    @Test
+    void openBreakerSkipsTheProvider() {
+        provider.down = true;
+        service.searchQuery("spa hotels");
+        service.searchQuery("lakeside hotels");
+        assertTrue(guard.isOpen());
+        provider.down = false;
+
+        assertTrue(service.searchQuery("mountain huts").isLexical());
+        assertEquals(2, provider.calls.get());
+    }
+
+    @Test
+    void rememberedQueryNeedsNoProviderCall() {
+        provider.down = true;
+        service.rememberQuery("Spa hotels", new float[] {1, 0});
+
+        assertFalse(service.searchQuery("spa hotels").isLexical());
+        assertEquals(0, provider.calls.get());
+
+        service.forgetQuery("Spa hotels");
+        assertTrue(service.searchQuery("spa hotels").isLexical());
+    }
+
+    private static final class Provider implements EmbeddingModel {
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile boolean down;
+
+        @Override
+        public Response<List<Embedding>> embedAll(List<TextSegment> segments) {
+            calls.incrementAndGet();
+            if (down) {
+                throw new IllegalStateException("provider down");
+            }
+            return Response.from(segments.stream().map(segment -> Embedding.from(new float[] {segment.text().length(), 1})).toList());
+        }
+    }
+}
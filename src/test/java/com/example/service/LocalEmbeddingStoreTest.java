@@ -0,0 +1,131 @@
+package com.example.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalEmbeddingStoreTest {
+    private static final String MODEL = "text-embedding-3-small";
+    private static final int HEADER_BYTES = 16;
+    private static final int INDEX_ENTRY_BYTES = 36;
+    private static final int SEGMENT_VECTORS = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void vectorsAreReadBackAfterReopening() throws Exception {
+        LocalEmbeddingStore store = store();
+        store.put(MODEL, "Spa hotel in Zermatt", new float[] {1, 2});
+        store.put(MODEL, "Lakeside hotel in Lucerne", new float[] {3, 4});
+        store.put(MODEL, "Spa hotel in Zermatt", new float[] {5, 6});
+        store.close();
+
+        // Closed files reopen on next use; a new instance reloads the index.
+        assertArrayEquals(new float[] {1, 2}, store.get(MODEL, "Spa hotel in Zermatt").orElseThrow());
+        store.close();
+        LocalEmbeddingStore reopened = store();
+        assertArrayEquals(new float[] {1, 2}, reopened.get(MODEL, "Spa hotel in Zermatt").orElseThrow());
+        assertArrayEquals(new float[] {3, 4}, reopened.get(MODEL, "Lakeside hotel in Lucerne").orElseThrow());
+        assertEquals(Optional.empty(), reopened.get(MODEL, "Chalet in Grindelwald"));
+        assertEquals(Optional.empty(), reopened.get("other-model", "Spa hotel in Zermatt"));
+        reopened.close();
+        assertEquals(2 * INDEX_ENTRY_BYTES, Files.size(indexPath()));
+    }
+
+    @Test
+    void vectorsBeyondTheFirstSegmentAreMapped() throws Exception {
+        LocalEmbeddingStore store = store();
+        for (int i = 0; i <= SEGMENT_VECTORS; i++) {
+            store.put(MODEL, "text " + i, new float[] {i, 1});
+        }
+        assertArrayEquals(new float[] {0, 1}, store.get(MODEL, "text 0").orElseThrow());
+        assertArrayEquals(new float[] {SEGMENT_VECTORS, 1}, store.get(MODEL, "text " + SEGMENT_VECTORS).orElseThrow());
+        store.close();
+
+        LocalEmbeddingStore reopened = store();
+        assertArrayEquals(new float[] {SEGMENT_VECTORS, 1}, reopened.get(MODEL, "text " + SEGMENT_VECTORS).orElseThrow());
+        // The next slot comes after the highest one in the index.
+        reopened.put(MODEL, "one more", new float[] {7, 8});
+        assertArrayEquals(new float[] {7, 8}, reopened.get(MODEL, "one more").orElseThrow());
+        assertArrayEquals(new float[] {SEGMENT_VECTORS - 1, 1}, reopened.get(MODEL, "text " + (SEGMENT_VECTORS - 1)).orElseThrow());
+        reopened.close();
+        assertEquals((SEGMENT_VECTORS + 2L) * INDEX_ENTRY_BYTES, Files.size(indexPath()));
+    }
+
+    @Test
+    void slotLostFromTheDataFileIsRepaired() throws Exception {
+        LocalEmbeddingStore store = store();
+        store.put(MODEL, "Spa hotel in Zermatt", new float[] {1, 2});
+        store.close();
+        // A crash after the index write but before the mapped vector was flushed leaves zeros.
+        try (FileChannel data = FileChannel.open(dataPath(), StandardOpenOption.WRITE)) {
+            data.write(ByteBuffer.allocate(2 * Float.BYTES), HEADER_BYTES);
+        }
+
+        LocalEmbeddingStore reopened = store();
+        assertEquals(Optional.empty(), reopened.get(MODEL, "Spa hotel in Zermatt"));
+        reopened.put(MODEL, "Spa hotel in Zermatt", new float[] {1, 2});
+        assertArrayEquals(new float[] {1, 2}, reopened.get(MODEL, "Spa hotel in Zermatt").orElseThrow());
+        reopened.close();
+        assertEquals(INDEX_ENTRY_BYTES, Files.size(indexPath()));
+    }
+
+    @Test
+    void vectorOfOtherDimensionsIsNotStored() {
+        LocalEmbeddingStore store = store();
+        store.put(MODEL, "Spa hotel in Zermatt", new float[] {1, 2});
+        store.put(MODEL, "Lakeside hotel in Lucerne", new float[] {1, 2, 3});
+
+        assertEquals(Optional.empty(), store.get(MODEL, "Lakeside hotel in Lucerne"));
+        store.close();
+    }
+
+    @Test
+    void secondStoreOnTheSameDirectoryTurnsItselfOff() {
+        LocalEmbeddingStore first = store();
+        first.put(MODEL, "Spa hotel in Zermatt", new float[] {1, 2});
+        LocalEmbeddingStore second = store();
+
+        second.put(MODEL, "Lakeside hotel in Lucerne", new float[] {3, 4});
+        first.close();
+
+        assertEquals(Optional.empty(), second.get(MODEL, "Spa hotel in Zermatt"));
+        assertArrayEquals(new float[] {1, 2}, first.get(MODEL, "Spa hotel in Zermatt").orElseThrow());
+        assertEquals(Optional.empty(), first.get(MODEL, "Lakeside hotel in Lucerne"));
+        first.close();
+    }
+
+    @Test
+    void disabledStoreWritesNothing() {
+        LocalEmbeddingStore store = new LocalEmbeddingStore(false, directory.toString());
+        store.put(MODEL, "Spa hotel in Zermatt", new float[] {1, 2});
+
+        assertEquals(Optional.empty(), store.get(MODEL, "Spa hotel in Zermatt"));
+        assertFalse(Files.exists(dataPath()));
+        assertTrue(Files.isDirectory(directory));
+    }
+
+    private LocalEmbeddingStore store() {
+        return new LocalEmbeddingStore(true, directory.toString());
+    }
+
+    private Path dataPath() {
+        return directory.resolve(MODEL + ".f32");
+    }
+
+    private Path indexPath() {
+        return directory.resolve(MODEL + ".idx");
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.transfer;
+
+import com.example.model.CatalogRecord;
+import com.example.model.ItemType;
+import io.micronaut.data.model.geo.Point;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CatalogArchiveTest {
+    private static final CatalogRecord DESTINATION = new CatalogRecord(
+        ItemType.DESTINATION, null, "Kraków", "Lesser Poland", null, null,
+        "Old town, Wawel castle and żurek", new Point(19.94, 50.06),
+        new float[] {0.25f, -1.5f, Float.MIN_VALUE}, "3f2a", "all-minilm-l12-v2");
+    private static final CatalogRecord HOTEL = new CatalogRecord(
+        ItemType.HOTEL, "Kraków", "Hotel Pod Różą", null, 189.5, null,
+        "", null, null, null, null);
+    private static final CatalogRecord ACTIVITY = new CatalogRecord(
+        ItemType.ACTIVITY, "Kraków", "Salt mine tour", null, null, null,
+        null, new Point(20.05, 49.98), null, null, null);
+
+    @Test
+    void roundTripsEveryRecordType() throws IOException {
+        List<CatalogRecord> read = readAll(archive(DESTINATION, HOTEL, ACTIVITY));
+
+        assertEquals(3, read.size());
+        assertSameRecord(DESTINATION, read.get(0));
+        assertSameRecord(HOTEL, read.get(1));
+        assertSameRecord(ACTIVITY, read.get(2));
+    }
+
+    @Test
+    void nullFieldsStayNull() throws IOException {
+        CatalogRecord activity = readAll(archive(ACTIVITY)).getFirst();
+
+        assertNull(activity.description());
+        assertNull(activity.season());
+        assertNull(activity.embedding());
+        assertNull(activity.embeddingSourceHash());
+        assertNull(activity.embeddingModel());
+        assertNull(activity.region());
+        assertNull(activity.pricePerNight());
+    }
+
+    @Test
+    void emptyArchiveHasNoRecords() throws IOException {
+        assertEquals(List.of(), readAll(archive()));
+    }
+
+    @Test
+    void everyTruncationIsRejected() throws IOException {
+        byte[] archive = archive(DESTINATION, HOTEL, ACTIVITY);
+
+        for (int length = 0; length < archive.length; length++) {
+            byte[] truncated = Arrays.copyOf(archive, length);
+            assertThrows(IOException.class, () -> readAll(truncated), "cut at " + length);
+        }
+    }
+
+    @Test
+    void rejectsOtherFiles() {
+        byte[] archive = "PK\u0003\u0004 not an archive".getBytes();
+
+        IOException e = assertThrows(IOException.class, () -> readAll(archive));
+        assertEquals("Not a catalog archive", e.getMessage());
+    }
+
+    @Test
+    void rejectsUnknownRecordType() throws IOException {
+        byte[] archive = archive(HOTEL);
+        // The first record's tag follows the six-byte header.
+        archive[6] = 9;
+
+        assertThrows(IOException.class, () -> readAll(archive));
+    }
+
+    @Test
+    void rejectsCorruptEmbeddingSize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        CatalogArchive.writeHeader(out);
+        out.writeByte(1);
+        out.writeInt(-1); // name
+        out.writeInt(-1); // region
+        out.writeInt(-1); // description
+        out.writeBoolean(false);
+        out.writeInt(Integer.MAX_VALUE);
+        out.flush();
+
+        assertThrows(IOException.class, () -> readAll(bytes.toByteArray()));
+    }
+
+    private static byte[] archive(CatalogRecord... records) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        CatalogArchive.writeHeader(out);
+        for (CatalogRecord record : records) {
+            CatalogArchive.write(out, record);
+        }
+        CatalogArchive.writeEnd(out);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static List<CatalogRecord> readAll(byte[] archive) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(archive));
+        CatalogArchive.readHeader(in);
+        List<CatalogRecord> records = new ArrayList<>();
+        Optional<CatalogRecord> next;
+        while ((next = CatalogArchive.read(in)).isPresent()) {
+            records.add(next.get());
+        }
+        return records;
+    }
+
+    private static void assertSameRecord(CatalogRecord expected, CatalogRecord actual) {
+        assertEquals(expected.type(), actual.type());
+        assertEquals(expected.destinationName(), actual.destinationName());
+        assertEquals(expected.name(), actual.name());
+        assertEquals(expected.region(), actual.region());
+        assertEquals(expected.pricePerNight(), actual.pricePerNight());
+        assertEquals(expected.season(), actual.season());
+        assertEquals(expected.description(), actual.description());
+        if (expected.location() == null) {
+            assertNull(actual.location());
+        } else {
+            assertEquals(expected.location().x(), actual.location().x());
+            assertEquals(expected.location().y(), actual.location().y());
+        }
+        assertArrayEquals(expected.embedding(), actual.embedding());
+        assertEquals(expected.embeddingSourceHash(), actual.embeddingSourceHash());
+        assertEquals(expected.embeddingModel(), actual.embeddingModel());
+    }
+}